@@ -158,6 +158,14 @@ public class App extends Application implements SharedPreferences.OnSharedPrefer
                 break;
             case "language":
                 LocaleUtils.init(getBaseContext());
+                // titles of the holydays changed
+                if (!"-1".equals(Preferences.CALENDAR_INTEGRATION.get()))
+                    CalendarIntegrationService.startCalendarIntegration(App.get());
+                break;
+            case "hijri_fix":
+                if (!"-1".equals(Preferences.CALENDAR_INTEGRATION.get()))
+                    CalendarIntegrationService.startCalendarIntegration(App.get());
+                break;
 
         }
 
@@ -44,6 +44,7 @@ public class Preferences {
     public static Preference<Boolean> CLOCK_12H = new BooleanPreference("use12h", false);
     public static Preference<Integer> LAST_CAL_SYNC = new IntPreference("lastCalSync", 0);
     public static Preference<String> CALENDAR_INTEGRATION = new StringPreference("calendarIntegration", "-1");
+    public static Preference<String> CALENDAR_FINGERPRINT = new StringPreference("calendarFingerprint", null);
     public static Preference<Boolean> STOP_ALARM_ON_FACEDOWN = new BooleanPreference("stopFacedown", false);
     public static Preference<Integer> CHANGELOG_VERSION = new IntPreference("changelog_version", -1);
     public static Preference<Float> COMPASS_LNG = new FloatPreference("compassLong", 0f);
@@ -22,25 +22,19 @@ import androidx.core.util.Pair;
 import com.crashlytics.android.Crashlytics;
 import com.metinkale.prayer.App;
 import com.metinkale.prayer.Preferences;
-import com.metinkale.prayer.base.R;
-import com.metinkale.prayer.utils.FastTokenizer;
-import com.metinkale.prayer.utils.Utils;
 
 import org.joda.time.DateTimeConstants;
-import org.joda.time.Days;
 import org.joda.time.LocalDate;
 import org.joda.time.chrono.GregorianChronology;
 import org.joda.time.chrono.ISOChronology;
 import org.joda.time.chrono.IslamicChronology;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
 
 public class HijriDate implements Comparable<HijriDate> {
     public static final int MUHARRAM = 1;
@@ -78,99 +72,116 @@ public class HijriDate implements Comparable<HijriDate> {
     public static final int EID_AL_ADHA_DAY4 = 18;
 
 
-    private static final TreeMap<Hijri, HijriDate> fromHijri = new TreeMap<>();
-    private static final TreeMap<Greg, HijriDate> fromGreg = new TreeMap<>();
-    // values will be initialized  in static{}
-    private static final int MIN_GREG_YEAR;
-    private static final int MAX_GREG_YEAR;
-    private static final int MIN_HIJRI_YEAR;
-    private static final int MAX_HIJRI_YEAR;
-
-
-    static {
-        int maxGregYear = 2019;
-        int minGregYear = 2019;
-        int maxHijriYear = 1440;
-        int minHijriYear = 1440;
-        BufferedReader is = null;
-        try {
-            is = new BufferedReader(new InputStreamReader(App.get().getResources().openRawResource(R.raw.hijri)));
-            String line;
-            while (true) {
-                line = is.readLine();
-                if (line == null) {
-                    break;
-                }
-                if (line.contains("HD"))
-                    continue;//first line
-                FastTokenizer ft = new FastTokenizer(line, "\t");
-
-                int d = ft.nextInt();
-                int m = ft.nextInt();
-                int y = ft.nextInt();
-                if (m == 12) maxHijriYear = Math.max(maxHijriYear, y);
-                if (m == 1) minHijriYear = Math.min(minHijriYear, y);
-                Hijri hijri = new Hijri(y, m, d);
-                d = ft.nextInt();
-                m = ft.nextInt();
-                y = ft.nextInt();
-
-                maxGregYear = Math.max(maxGregYear, y);
-                minGregYear = Math.min(minGregYear, y);
-                Greg greg = new Greg(y, m, d);
-
-                create(hijri, greg);
-            }
-        } catch (IOException e) {
-            Crashlytics.logException(e);
-        } finally {
-            Utils.close(is);
-        }
-        MIN_GREG_YEAR = minGregYear;
-        MAX_GREG_YEAR = maxGregYear;
-        MIN_HIJRI_YEAR = minHijriYear;
-        MAX_HIJRI_YEAR = maxHijriYear;
-    }
+    private final int year;
+    private final int month;
+    private final int day;
+    // gregorian date as days since 1970-01-01
+    private final int epochDay;
 
-
-    private Hijri hijri;
-    private Greg greg;
-
-    public HijriDate(Hijri hijri, Greg greg) {
-        this.hijri = hijri;
-        this.greg = greg;
+    private HijriDate(int year, int month, int day, int epochDay) {
+        this.year = year;
+        this.month = month;
+        this.day = day;
+        this.epochDay = epochDay;
     }
 
 
     public int getDay() {
-        return hijri.day;
+        return day;
     }
 
     public int getMonth() {
-        return hijri.month;
+        return month;
     }
 
     public int getYear() {
-        return hijri.year;
+        return year;
     }
 
 
-    private static HijriDate create(Hijri hijri, Greg greg) {
-        HijriDate bundle = new HijriDate(hijri, greg);
-        if (hijri.day == 1) {
-            fromHijri.put(hijri, bundle);
-            fromGreg.put(greg, bundle);
+    /**
+     * starts of the hijri months as announced by Diyanet, read lazily from the hijri.bin asset (see tools/citiesfetcher HijriIndexer)
+     */
+    private static final class Table {
+        private static final int MAGIC = 0x48494A31;
+        // hijri year * 12 + month - 1 of starts[0]
+        private static final int FIRST;
+        // epoch days of the month starts, months are contiguous
+        private static final int[] STARTS;
+        private static final int MIN_GREG_YEAR;
+        private static final int MAX_GREG_YEAR;
+        private static final int MIN_HIJRI_YEAR;
+        private static final int MAX_HIJRI_YEAR;
+
+        static {
+            int first = 0;
+            int[] starts = new int[0];
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(App.get().getAssets().open("hijri.bin")))) {
+                if (in.readInt() != MAGIC)
+                    throw new IOException("invalid hijri.bin");
+                first = in.readInt();
+                int[] values = new int[in.readInt()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = in.readInt();
+                }
+                starts = values;
+            } catch (IOException e) {
+                Crashlytics.logException(e);
+            }
+            FIRST = first;
+            STARTS = starts;
+
+            int minGregYear = 2019;
+            int maxGregYear = 2019;
+            int minHijriYear = 1440;
+            int maxHijriYear = 1440;
+            if (starts.length > 0) {
+                int last = first + starts.length - 1;
+                minGregYear = Math.min(minGregYear, yearOfEpochDay(starts[0]));
+                maxGregYear = Math.max(maxGregYear, yearOfEpochDay(starts[starts.length - 1]));
+                minHijriYear = Math.min(minHijriYear, first % 12 == 0 ? first / 12 : first / 12 + 1);
+                maxHijriYear = Math.max(maxHijriYear, last % 12 == 11 ? last / 12 : last / 12 - 1);
+            }
+            MIN_GREG_YEAR = minGregYear;
+            MAX_GREG_YEAR = maxGregYear;
+            MIN_HIJRI_YEAR = minHijriYear;
+            MAX_HIJRI_YEAR = maxHijriYear;
+        }
+
+        /**
+         * @return index of the month containing the epoch day, -1 if it is not in the table
+         */
+        private static int indexOf(int epochDay) {
+            int[] starts = STARTS;
+            if (starts.length == 0 || epochDay < starts[0] || epochDay > starts[starts.length - 1])
+                return -1;
+            int lo = 0;
+            int hi = starts.length - 1;
+            while (lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if (starts[mid] <= epochDay) lo = mid;
+                else hi = mid - 1;
+            }
+            return lo;
         }
-        return bundle;
     }
 
 
     public static HijriDate fromGreg(int y, int m, int d) {
-        return fromGreg(new LocalDate(y, m, d));
+        return fromGreg(toEpochDay(y, m, d));
     }
 
     public static HijriDate fromHijri(int y, int m, int d) {
-        return fromHijri(new LocalDate(y, m, d, IslamicChronology.getInstanceUTC()));
+        int hfix = Preferences.HIJRI_FIX.get();
+        int index = y * 12 + m - 1 - Table.FIRST;
+        // the last month is only known to start, not to end
+        if (index >= 0 && index < Table.STARTS.length && (index < Table.STARTS.length - 1 || d == 1)) {
+            return new HijriDate(y, m, d, Table.STARTS[index] + d - 1 + hfix);
+        }
+
+        LocalDate gregorian = new LocalDate(y, m, d, IslamicChronology.getInstanceUTC()).toDateTimeAtStartOfDay()
+                .withChronology(ISOChronology.getInstanceUTC()).toLocalDate();
+        return new HijriDate(y, m, d, toEpochDay(gregorian) + hfix);
     }
 
 
@@ -178,33 +189,7 @@ public class HijriDate implements Comparable<HijriDate> {
         if (!(ld.getChronology() instanceof IslamicChronology)) {
             throw new RuntimeException("fromHijri can only be used with a IslamicChronology");
         }
-
-        Hijri hijri = new Hijri(ld.getYear(), ld.getMonthOfYear(), ld.getDayOfMonth());
-
-        HijriDate date = fromHijri.get(hijri);
-        if (date != null) {
-            return date;
-        }
-
-        Map.Entry<Hijri, HijriDate> floor = fromHijri.floorEntry(hijri);
-        HijriDate last;
-        if (floor == null || (last = floor.getValue()) == null || fromHijri.ceilingKey(hijri) == null) {
-            LocalDate gregorian = ld.toDateTimeAtStartOfDay().withChronology(ISOChronology.getInstanceUTC()).toLocalDate();
-            int hfix = Preferences.HIJRI_FIX.get();
-            if (hfix != 0) {
-                gregorian = gregorian.plusDays(hfix);
-            }
-            Greg greg = new Greg(gregorian.getYear(), gregorian.getMonthOfYear(), gregorian.getDayOfMonth());
-            return create(hijri, greg);
-        } else {
-            LocalDate gregLd = last.getLocalDate().plusDays(hijri.day - 1);
-            int hfix = Preferences.HIJRI_FIX.get();
-            if (hfix != 0) {
-                gregLd = gregLd.plusDays(hfix);
-            }
-            Greg greg = new Greg(gregLd.getYear(), gregLd.getMonthOfYear(), gregLd.getDayOfMonth());
-            return create(hijri, greg);
-        }
+        return fromHijri(ld.getYear(), ld.getMonthOfYear(), ld.getDayOfMonth());
     }
 
 
@@ -212,46 +197,58 @@ public class HijriDate implements Comparable<HijriDate> {
         if (!(ld.getChronology() instanceof GregorianChronology || ld.getChronology() instanceof ISOChronology)) {
             throw new RuntimeException("fromGreg can only be used with a GregorianChronology");
         }
+        return fromGreg(toEpochDay(ld));
+    }
 
-        int hfix = Preferences.HIJRI_FIX.get();
-        if (hfix != 0) {
-            ld = ld.plusDays(hfix);
+    private static HijriDate fromGreg(int epochDay) {
+        epochDay += Preferences.HIJRI_FIX.get();
+
+        int index = Table.indexOf(epochDay);
+        if (index >= 0) {
+            int month = Table.FIRST + index;
+            return new HijriDate(month / 12, month % 12 + 1, epochDay - Table.STARTS[index] + 1, epochDay);
         }
 
+        LocalDate islamic = new LocalDate((long) epochDay * DateTimeConstants.MILLIS_PER_DAY, IslamicChronology.getInstanceUTC());
+        return new HijriDate(islamic.getYear(), islamic.getMonthOfYear(), islamic.getDayOfMonth(), epochDay);
+    }
 
-        Greg greg = new Greg(ld.getYear(), ld.getMonthOfYear(), ld.getDayOfMonth());
+    private static int toEpochDay(@NonNull LocalDate ld) {
+        return toEpochDay(ld.getYear(), ld.getMonthOfYear(), ld.getDayOfMonth());
+    }
 
-        HijriDate date = fromGreg.get(greg);
-        if (date != null) {
-            return date;
-        }
+    /**
+     * @return days since 1970-01-01 of a (proleptic) gregorian date
+     */
+    private static int toEpochDay(int y, int m, int d) {
+        if (m <= 2)
+            y--;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yoe = y - era * 400;
+        int doy = (153 * (m > 2 ? m - 3 : m + 9) + 2) / 5 + d - 1;
+        int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
 
-        Map.Entry<Greg, HijriDate> floor = fromGreg.floorEntry(greg);
-        HijriDate last;
-        if (floor == null || (last = floor.getValue()) == null || fromGreg.ceilingKey(greg) == null) {
-            LocalDate islamic = ld.toDateTimeAtStartOfDay().withChronology(IslamicChronology.getInstanceUTC()).toLocalDate();
-            Hijri hijri = new Hijri(islamic.getYear(), islamic.getMonthOfYear(), islamic.getDayOfMonth());
-            return create(hijri, greg);
-        } else {
-            int y = last.hijri.year;
-            int m = last.hijri.month;
-            int d = last.hijri.day;
-            LocalDate lastLD = last.getLocalDate();
-            int diff = Days.daysBetween(lastLD, ld).getDays();
-
-            d += diff;
-
-            Hijri hijri = new Hijri(y, m, d);
-            return create(hijri, greg);
-        }
+    /**
+     * @return gregorian year of days since 1970-01-01
+     */
+    private static int yearOfEpochDay(int epochDay) {
+        int z = epochDay + 719468;
+        int era = (z >= 0 ? z : z - 146096) / 146097;
+        int doe = z - era * 146097;
+        int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        int mp = (5 * doy + 2) / 153;
+        return yoe + era * 400 + (mp >= 10 ? 1 : 0);
     }
 
     public LocalDate getLocalDate() {
-        return new LocalDate(greg.year, greg.month, greg.day);
+        return new LocalDate((long) epochDay * DateTimeConstants.MILLIS_PER_DAY, ISOChronology.getInstanceUTC());
     }
 
     public HijriDate plusDays(int days) {
-        return HijriDate.fromGreg(getLocalDate().plusDays(days));
+        return HijriDate.fromGreg(epochDay + days);
     }
 
 
@@ -269,13 +266,13 @@ public class HijriDate implements Comparable<HijriDate> {
         int hijriYear = fromGreg(year, 1, 1).getYear();
         List<Pair<HijriDate, Integer>> holydays = new ArrayList<>();
         for (Pair<HijriDate, Integer> entry : getHolydaysForHijriYear(hijriYear)) {
-            if (entry.first.greg.year == year) {
+            if (yearOfEpochDay(entry.first.epochDay) == year) {
                 holydays.add(entry);
             }
         }
 
         for (Pair<HijriDate, Integer> entry : getHolydaysForHijriYear(hijriYear + 1)) {
-            if (entry.first.greg.year == year) {
+            if (yearOfEpochDay(entry.first.epochDay) == year) {
                 holydays.add(entry);
             }
         }
@@ -333,44 +330,44 @@ public class HijriDate implements Comparable<HijriDate> {
 
     public int getHolyday() {
         HijriDate tmp;
-        if (hijri.day == 1 && hijri.month == MUHARRAM) {
+        if (day == 1 && month == MUHARRAM) {
             return ISLAMIC_NEW_YEAR;
-        } else if (hijri.day == 10 && hijri.month == MUHARRAM) {
+        } else if (day == 10 && month == MUHARRAM) {
             return ASHURA;
-        } else if (hijri.day == 11 && hijri.month == RABIAL_AWWAL) {
+        } else if (day == 11 && month == RABIAL_AWWAL) {
             return MAWLID_AL_NABI;
-        } else if (hijri.day == 1 && hijri.month == RAJAB) {
+        } else if (day == 1 && month == RAJAB) {
             return THREE_MONTHS;
-        } else if ((tmp = fromGreg(getLocalDate().plusDays(1))).getLocalDate().getWeekyear() == DateTimeConstants.FRIDAY && tmp.hijri.day <= 7 &&
-                tmp.hijri.month == RAJAB) {//we need this, because it might be also the last night of the previous night
+        } else if ((tmp = plusDays(1)).getLocalDate().getWeekyear() == DateTimeConstants.FRIDAY && tmp.day <= 7 &&
+                tmp.month == RAJAB) {//we need this, because it might be also the last night of the previous night
 
 
             return RAGAIB;
-        } else if (hijri.day == 26 && hijri.month == RAJAB) {
+        } else if (day == 26 && month == RAJAB) {
             return MIRAJ;
-        } else if (hijri.day == 14 && hijri.month == SHABAN) {
+        } else if (day == 14 && month == SHABAN) {
             return BARAAH;
-        } else if (hijri.day == 1 && hijri.month == RAMADAN) {
+        } else if (day == 1 && month == RAMADAN) {
             return RAMADAN_BEGIN;
-        } else if (hijri.day == 26 && hijri.month == RAMADAN) {
+        } else if (day == 26 && month == RAMADAN) {
             return LAYLATALQADR;
-        } else if ((tmp = fromGreg(getLocalDate().plusDays(1))).getMonth() == SHAWWAL && tmp.getDay() == 1) {
+        } else if ((tmp = plusDays(1)).getMonth() == SHAWWAL && tmp.getDay() == 1) {
             return LAST_RAMADAN;
-        } else if (hijri.day == 1 && hijri.month == SHAWWAL) {
+        } else if (day == 1 && month == SHAWWAL) {
             return EID_AL_FITR_DAY1;
-        } else if (hijri.day == 2 && hijri.month == SHAWWAL) {
+        } else if (day == 2 && month == SHAWWAL) {
             return EID_AL_FITR_DAY2;
-        } else if (hijri.day == 3 && hijri.month == SHAWWAL) {
+        } else if (day == 3 && month == SHAWWAL) {
             return EID_AL_FITR_DAY3;
-        } else if (hijri.day == 9 && hijri.month == DHUL_HIJJA) {
+        } else if (day == 9 && month == DHUL_HIJJA) {
             return ARAFAT;
-        } else if (hijri.day == 10 && hijri.month == DHUL_HIJJA) {
+        } else if (day == 10 && month == DHUL_HIJJA) {
             return EID_AL_ADHA_DAY1;
-        } else if (hijri.day == 11 && hijri.month == DHUL_HIJJA) {
+        } else if (day == 11 && month == DHUL_HIJJA) {
             return EID_AL_ADHA_DAY2;
-        } else if (hijri.day == 12 && hijri.month == DHUL_HIJJA) {
+        } else if (day == 12 && month == DHUL_HIJJA) {
             return EID_AL_ADHA_DAY3;
-        } else if (hijri.day == 13 && hijri.month == DHUL_HIJJA) {
+        } else if (day == 13 && month == DHUL_HIJJA) {
             return EID_AL_ADHA_DAY4;
         }
 
@@ -384,63 +381,13 @@ public class HijriDate implements Comparable<HijriDate> {
 
     @Override
     public int compareTo(HijriDate o) {
-        return hijri.compareTo(o.hijri);
-    }
-
-
-    private static class Hijri extends DateIntern<Hijri> {
-        Hijri(int year, int month, int day) {
-            super(year, month, day);
-        }
-    }
-
-
-    private static class Greg extends DateIntern<Greg> {
-        Greg(int year, int month, int day) {
-            super(year, month, day);
-        }
-    }
-
-    private abstract static class DateIntern<K extends DateIntern> implements Comparable<K> {
-        final int year;
-        final int month;
-        final int day;
-
-        public DateIntern(int year, int month, int day) {
-            this.year = year;
-            this.month = month;
-            this.day = day;
-        }
-
-        @Override
-        public int compareTo(@NonNull K o) {
-            int x = hashCode();
-            int y = o.hashCode();
-            return Integer.compare(x, y);
-        }
-
-        public boolean equals(Object o) {
-            if (o == this)
-                return true;
-            if (!(o instanceof DateIntern))
-                return false;
-            if (!getClass().equals(o.getClass()))
-                return false;
-            final DateIntern other = (DateIntern) o;
-
-            return other.hashCode() == hashCode();
-        }
-
-        public int hashCode() {
-            return year * 10000 + month * 100 + day;
-        }
-
+        return Integer.compare(hashCode(), o.hashCode());
     }
 
 
     @Override
     public int hashCode() {
-        return hijri.hashCode();
+        return year * 10000 + month * 100 + day;
     }
 
     @Override
@@ -451,24 +398,24 @@ public class HijriDate implements Comparable<HijriDate> {
             return true;
         if (!(obj instanceof HijriDate))
             return false;
-        return hijri.hashCode() == ((HijriDate) obj).hijri.hashCode();
+        return hashCode() == obj.hashCode();
     }
 
     public static int getMinGregYear() {
-        return MIN_GREG_YEAR;
+        return Table.MIN_GREG_YEAR;
     }
 
     public static int getMaxGregYear() {
-        return MAX_GREG_YEAR;
+        return Table.MAX_GREG_YEAR;
     }
 
 
     public static int getMinHijriYear() {
-        return MIN_HIJRI_YEAR;
+        return Table.MIN_HIJRI_YEAR;
     }
 
     public static int getMaxHijriYear() {
-        return MAX_HIJRI_YEAR;
+        return Table.MAX_HIJRI_YEAR;
     }
 
 }
@@ -28,11 +28,26 @@ import android.os.PowerManager;
 import com.metinkale.prayer.App;
 import com.metinkale.prayer.MyAlarmManager;
 
-import org.joda.time.DateTime;
-
+import org.joda.time.DateTimeConstants;
+
+/**
+ * Sends time ticks to {@link InternalBroadcastReceiver.OnTimeTickListener}s
+ * <p>
+ * Ticks are only sent when a listener has requested one with {@link #requestTick(long)}, i.e. when its content changes,
+ * or when the data shown by the listeners has changed, see {@link #sendTick(Context)}.
+ * Listeners have to request their next tick on every tick.
+ */
 public class TimeTickReceiver extends BroadcastReceiver {
+    /**
+     * for {@link #requestTick(long)}, if the content changes every minute
+     */
+    public static final long NEXT_MINUTE = 0;
+    // even if nothing seems to change, tick at least once an hour
+    private static final int MAX_TICK_INTERVAL = 60;
     private BroadcastReceiver mReceiver = Build.VERSION.SDK_INT >= Build.VERSION_CODES.O ? new TimeTickReceiverV26() : new TimeTickReceiverLegacy();
     private static int LAST_TIME_TICK; //avoid to often TIME_TICK
+    // minute of the next requested tick
+    private static long sNextTick = Long.MAX_VALUE;
 
     @Override
     public void onReceive(Context context, Intent intent) {
@@ -84,16 +99,17 @@ public class TimeTickReceiver extends BroadcastReceiver {
                     mCtx.registerReceiver(this, mScreenOnOffFilter);
                     mCtx.registerReceiver(this, mTimeTickFilter);
                     mCtx.registerReceiver(this, mTimeChangedFilter);
+                    tick(mCtx, true);
+                    break;
+                }
+                case Intent.ACTION_TIME_TICK: {
+                    tick(mCtx, false);
+                    break;
                 }
                 case Intent.ACTION_USER_PRESENT:
                 case Intent.ACTION_TIME_CHANGED:
-                case Intent.ACTION_TIME_TICK:
                 default: {
-                    int timeTick = (int) (System.currentTimeMillis() / 1000 / 60);
-                    if (LAST_TIME_TICK != timeTick) {
-                        InternalBroadcastReceiver.sender(mCtx).sendTimeTick();
-                        LAST_TIME_TICK = timeTick;
-                    }
+                    tick(mCtx, true);
                     break;
                 }
             }
@@ -104,15 +120,62 @@ public class TimeTickReceiver extends BroadcastReceiver {
 
         @Override
         public void onReceive(Context context, Intent intent) {
-            int timeTick = (int) (System.currentTimeMillis() / 1000 / 60);
-            if (LAST_TIME_TICK != timeTick) {
-                InternalBroadcastReceiver.sender(context).sendTimeTick();
-                LAST_TIME_TICK = timeTick;
-            }
+            // only started by start() or the alarm set in requestTick()
+            tick(context, true);
+        }
+    }
+
+    /**
+     * sends a tick to all listeners
+     *
+     * @param force false to only send it if a listener has requested a tick for the current minute
+     */
+    private static void tick(Context context, boolean force) {
+        int timeTick = (int) (System.currentTimeMillis() / DateTimeConstants.MILLIS_PER_MINUTE);
+        if (LAST_TIME_TICK == timeTick)
+            return;
+        synchronized (TimeTickReceiver.class) {
+            if (!force && timeTick < sNextTick)
+                return;
+            sNextTick = Long.MAX_VALUE;
+        }
+        LAST_TIME_TICK = timeTick;
+        InternalBroadcastReceiver.sender(context).sendTimeTick();
+    }
+
+    /**
+     * sends a tick to all listeners right away, must be called if the data shown by the listeners has changed (e.g. times of a city)
+     */
+    public static void sendTick(Context context) {
+        synchronized (TimeTickReceiver.class) {
+            sNextTick = Long.MAX_VALUE;
+        }
+        LAST_TIME_TICK = (int) (System.currentTimeMillis() / DateTimeConstants.MILLIS_PER_MINUTE);
+        InternalBroadcastReceiver.sender(context).sendTimeTick();
+    }
+
+    /**
+     * requests a tick at the given time (rounded up to the next minute), earlier requests are kept
+     *
+     * @param millis time in millis, at which the content of the listener changes next, {@link #NEXT_MINUTE} (or any time
+     *               before) for the next minute
+     */
+    public static void requestTick(long millis) {
+        long now = System.currentTimeMillis() / DateTimeConstants.MILLIS_PER_MINUTE;
+        long minute = millis / DateTimeConstants.MILLIS_PER_MINUTE;
+        if (millis % DateTimeConstants.MILLIS_PER_MINUTE != 0)
+            minute++;
+        minute = Math.max(now + 1, Math.min(minute, now + MAX_TICK_INTERVAL));
+
+        synchronized (TimeTickReceiver.class) {
+            if (minute >= sNextTick && sNextTick > now)
+                return;
+            sNextTick = minute;
+        }
 
-            MyAlarmManager am = MyAlarmManager.with(context);
-            DateTime dt = DateTime.now();
-            am.setExact(AlarmManager.RTC, dt.plusMinutes(1).withSecondOfMinute(0).withMillisOfSecond(0).getMillis(),
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+            MyAlarmManager am = MyAlarmManager.with(App.get());
+            am.setExact(AlarmManager.RTC, minute * DateTimeConstants.MILLIS_PER_MINUTE,
                     PendingIntent.getBroadcast(App.get(), 0, new Intent(App.get(), TimeTickReceiver.class), PendingIntent.FLAG_UPDATE_CURRENT));
         }
     }
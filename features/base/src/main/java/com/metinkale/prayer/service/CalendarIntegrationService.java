@@ -20,18 +20,22 @@ import android.Manifest;
 import android.app.IntentService;
 import android.content.ContentProviderOperation;
 import android.content.ContentResolver;
-import android.content.ContentValues;
+import android.content.ContentUris;
 import android.content.Context;
 import android.content.Intent;
+import android.content.OperationApplicationException;
 import android.content.pm.PackageManager;
 import android.database.Cursor;
 import android.net.Uri;
 import android.os.Build;
+import android.os.RemoteException;
 import android.provider.BaseColumns;
 import android.provider.CalendarContract;
 import android.text.format.Time;
+import android.util.SparseArray;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.core.app.ActivityCompat;
 import androidx.core.util.Pair;
 
@@ -42,19 +46,42 @@ import com.metinkale.prayer.base.R;
 import com.metinkale.prayer.date.HijriDate;
 import com.metinkale.prayer.utils.LocaleUtils;
 
-import org.joda.time.DateTime;
+import org.joda.time.DateTimeConstants;
 import org.joda.time.DateTimeZone;
 import org.joda.time.LocalDate;
 
 import java.util.ArrayList;
-import java.util.List;
 
+/**
+ * Writes the holydays into a local calendar
+ * <p>
+ * The events are synced incrementally: each event stores its hijri year and holyday in {@link CalendarContract.Events#SYNC_DATA1},
+ * so only changed events (e.g. after changing the hijri fix or the language) are inserted, updated or deleted. A fingerprint
+ * of the last synced events is kept, if nothing changed the calendar is not touched at all.
+ */
 public class CalendarIntegrationService extends IntentService {
 
 
     private static String ACCOUNT_NAME = "Prayer Times";
     private static String ACCOUNT_TYPE = CalendarContract.ACCOUNT_TYPE_LOCAL;
     private static String CALENDAR_COLUMN_NAME = "prayertimes_hijriadapter";
+    private static final String DESCRIPTION = "com.metinkale.prayer";
+    private static final int BATCH_SIZE = 100;
+
+    /**
+     * a holyday as it should be in the calendar
+     */
+    private static class Event {
+        private final long dtstart;
+        @NonNull
+        private final String title;
+        private boolean synced;
+
+        private Event(long dtstart, @NonNull String title) {
+            this.dtstart = dtstart;
+            this.title = title;
+        }
+    }
 
     public CalendarIntegrationService() {
         super("CalendarIntegrationService");
@@ -90,78 +117,171 @@ public class CalendarIntegrationService extends IntentService {
     protected void onHandleIntent(@NonNull Intent intent) {
         if (ActivityCompat.checkSelfPermission(this, Manifest.permission.WRITE_CALENDAR) != PackageManager.PERMISSION_GRANTED) {
             Preferences.CALENDAR_INTEGRATION.set("-1");
+            Preferences.CALENDAR_FINGERPRINT.set(null);
             return;
         }
         Context context = App.get();
         try {
             ContentResolver cr = context.getContentResolver();
-
-
-            cr.delete(CalendarContract.Events.CONTENT_URI, CalendarContract.Events.DESCRIPTION + "=\"com.metinkale.prayer\"", null);
-
-            Uri calenderUri = CalendarContract.Calendars.CONTENT_URI.buildUpon().appendQueryParameter(CalendarContract.CALLER_IS_SYNCADAPTER, "true")
-                    .appendQueryParameter(CalendarContract.Calendars.ACCOUNT_NAME, ACCOUNT_NAME)
-                    .appendQueryParameter(CalendarContract.Calendars.ACCOUNT_TYPE, ACCOUNT_TYPE).build();
-            cr.delete(calenderUri,
-                    CalendarContract.Calendars.ACCOUNT_NAME + " = ? AND " + CalendarContract.Calendars.ACCOUNT_TYPE + " = ?",
-                    new String[]{ACCOUNT_NAME, ACCOUNT_TYPE});
-
             String id = Preferences.CALENDAR_INTEGRATION.get();
 
             if ("-1".equals(id)) {
+                cr.delete(CalendarContract.Events.CONTENT_URI, CalendarContract.Events.DESCRIPTION + "=\"" + DESCRIPTION + "\"", null);
+                cr.delete(asSyncAdapter(CalendarContract.Calendars.CONTENT_URI),
+                        CalendarContract.Calendars.ACCOUNT_NAME + " = ? AND " + CalendarContract.Calendars.ACCOUNT_TYPE + " = ?",
+                        new String[]{ACCOUNT_NAME, ACCOUNT_TYPE});
+                Preferences.CALENDAR_FINGERPRINT.set(null);
                 return;
             }
 
-            List<ContentValues> events = new ArrayList<>();
-            long calendarId = getCalendar(context);
-            for (int year = HijriDate.getMinGregYear(); year <= HijriDate.getMaxGregYear(); year++) {
+            SparseArray<Event> events = getEvents();
+            long calendarId = getCalendar(context, false);
+            String fingerprint = calendarId + ":" + id + ":" + getFingerprint(events);
+            if (calendarId != -1 && fingerprint.equals(Preferences.CALENDAR_FINGERPRINT.get())) {
+                return;
+            }
 
+            if (calendarId == -1) {
+                calendarId = getCalendar(context, true);
+                if (calendarId == -1)
+                    return;
+                fingerprint = calendarId + ":" + id + ":" + getFingerprint(events);
+            }
 
-                for (Pair<HijriDate, Integer> date : HijriDate.getHolydaysForGregYear(year)) {
-                    if (date == null || date.second <= 0)
-                        continue;
-                    ContentValues event = new ContentValues();
+            // events of older versions, which were not in our calendar
+            cr.delete(CalendarContract.Events.CONTENT_URI,
+                    CalendarContract.Events.DESCRIPTION + "=\"" + DESCRIPTION + "\" AND " + CalendarContract.Events.CALENDAR_ID + " != ?",
+                    new String[]{String.valueOf(calendarId)});
 
-                    event.put(CalendarContract.Events.CALENDAR_ID, calendarId);
-                    event.put(CalendarContract.Events.TITLE, LocaleUtils.getHolyday(date.second));
-                    event.put(CalendarContract.Events.DESCRIPTION, "com.metinkale.prayer");
-                    LocalDate ld = date.first.getLocalDate();
-                    DateTime cal = ld.toDateTimeAtStartOfDay(DateTimeZone.UTC);
+            sync(cr, calendarId, events);
+            Preferences.CALENDAR_FINGERPRINT.set(fingerprint);
+        } catch (Exception e) {
+            Preferences.CALENDAR_INTEGRATION.set("-1");
+            Preferences.CALENDAR_FINGERPRINT.set(null);
+            Crashlytics.logException(e);
+        }
 
-                    long dtstart = cal.getMillis();
-                    long dtend = cal.plusDays(1).getMillis();
+    }
 
-                    event.put(CalendarContract.Events.DTSTART, dtstart);
-                    event.put(CalendarContract.Events.DTEND, dtend);
-                    event.put(CalendarContract.Events.EVENT_TIMEZONE, Time.TIMEZONE_UTC);
-                    event.put(CalendarContract.Events.STATUS, CalendarContract.Events.STATUS_CONFIRMED);
-                    event.put(CalendarContract.Events.ALL_DAY, 1);
-                    event.put(CalendarContract.Events.HAS_ALARM, 0);
-                    event.put(CalendarContract.Events.AVAILABILITY, CalendarContract.Events.AVAILABILITY_FREE);
-                    event.put(CalendarContract.Events.CUSTOM_APP_PACKAGE, getPackageName());
-                    event.put(CalendarContract.Events.CUSTOM_APP_URI, "https://prayerapp.page.link/calendar");
+    /**
+     * @return all holydays, the key is hijri year * 100 + holyday
+     */
+    @NonNull
+    private static SparseArray<Event> getEvents() {
+        SparseArray<Event> events = new SparseArray<>();
+        for (int year = HijriDate.getMinGregYear(); year <= HijriDate.getMaxGregYear(); year++) {
+            for (Pair<HijriDate, Integer> date : HijriDate.getHolydaysForGregYear(year)) {
+                if (date == null || date.second <= 0)
+                    continue;
+                LocalDate ld = date.first.getLocalDate();
+                long dtstart = ld.toDateTimeAtStartOfDay(DateTimeZone.UTC).getMillis();
+                events.put(date.first.getYear() * 100 + date.second, new Event(dtstart, LocaleUtils.getHolyday(date.second)));
+            }
+        }
+        return events;
+    }
 
+    @NonNull
+    private static String getFingerprint(@NonNull SparseArray<Event> events) {
+        long hash = 0;
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.valueAt(i);
+            hash = 31 * hash + events.keyAt(i);
+            hash = 31 * hash + event.dtstart;
+            hash = 31 * hash + event.title.hashCode();
+        }
+        return events.size() + ":" + Long.toHexString(hash);
+    }
 
-                    events.add(event);
+    /**
+     * compares the events in the calendar with the holydays and applies the differences
+     */
+    private void sync(@NonNull ContentResolver cr, long calendarId, @NonNull SparseArray<Event> events)
+            throws RemoteException, OperationApplicationException {
+        Uri eventsUri = asSyncAdapter(CalendarContract.Events.CONTENT_URI);
+        ArrayList<ContentProviderOperation> operations = new ArrayList<>();
+
+        Cursor cursor = cr.query(eventsUri,
+                new String[]{BaseColumns._ID, CalendarContract.Events.SYNC_DATA1, CalendarContract.Events.DTSTART,
+                        CalendarContract.Events.TITLE}, CalendarContract.Events.CALENDAR_ID + " = ?",
+                new String[]{String.valueOf(calendarId)}, null);
+        if (cursor != null) {
+            try {
+                while (cursor.moveToNext()) {
+                    Uri uri = ContentUris.withAppendedId(eventsUri, cursor.getLong(0));
+                    Event event = events.get(parseKey(cursor.getString(1)));
+                    if (event == null || event.synced) {
+                        operations.add(ContentProviderOperation.newDelete(uri).build());
+                        continue;
+                    }
+                    event.synced = true;
+                    if (event.dtstart != cursor.getLong(2) || !event.title.equals(cursor.getString(3))) {
+                        operations.add(ContentProviderOperation.newUpdate(uri)
+                                .withValue(CalendarContract.Events.TITLE, event.title)
+                                .withValue(CalendarContract.Events.DTSTART, event.dtstart)
+                                .withValue(CalendarContract.Events.DTEND, event.dtstart + DateTimeConstants.MILLIS_PER_DAY)
+                                .build());
+                    }
                 }
+            } finally {
+                cursor.close();
             }
-            cr.bulkInsert(CalendarContract.Events.CONTENT_URI, events.toArray(new ContentValues[0]));
-        } catch (Exception e) {
-            Preferences.CALENDAR_INTEGRATION.set("-1");
-            Crashlytics.logException(e);
         }
 
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.valueAt(i);
+            if (event.synced)
+                continue;
+            operations.add(ContentProviderOperation.newInsert(eventsUri)
+                    .withValue(CalendarContract.Events.CALENDAR_ID, calendarId)
+                    .withValue(CalendarContract.Events.SYNC_DATA1, String.valueOf(events.keyAt(i)))
+                    .withValue(CalendarContract.Events.TITLE, event.title)
+                    .withValue(CalendarContract.Events.DESCRIPTION, DESCRIPTION)
+                    .withValue(CalendarContract.Events.DTSTART, event.dtstart)
+                    .withValue(CalendarContract.Events.DTEND, event.dtstart + DateTimeConstants.MILLIS_PER_DAY)
+                    .withValue(CalendarContract.Events.EVENT_TIMEZONE, Time.TIMEZONE_UTC)
+                    .withValue(CalendarContract.Events.STATUS, CalendarContract.Events.STATUS_CONFIRMED)
+                    .withValue(CalendarContract.Events.ALL_DAY, 1)
+                    .withValue(CalendarContract.Events.HAS_ALARM, 0)
+                    .withValue(CalendarContract.Events.AVAILABILITY, CalendarContract.Events.AVAILABILITY_FREE)
+                    .withValue(CalendarContract.Events.CUSTOM_APP_PACKAGE, getPackageName())
+                    .withValue(CalendarContract.Events.CUSTOM_APP_URI, "https://prayerapp.page.link/calendar")
+                    .build());
+        }
+
+        for (int i = 0; i < operations.size(); i += BATCH_SIZE) {
+            cr.applyBatch(CalendarContract.AUTHORITY, new ArrayList<>(operations.subList(i, Math.min(operations.size(), i + BATCH_SIZE))));
+        }
     }
 
+    private static int parseKey(@Nullable String key) {
+        if (key == null)
+            return -1;
+        try {
+            return Integer.parseInt(key);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
 
-    private static long getCalendar(Context context) {
+    @NonNull
+    private static Uri asSyncAdapter(@NonNull Uri uri) {
+        return uri.buildUpon().appendQueryParameter(CalendarContract.CALLER_IS_SYNCADAPTER, "true")
+                .appendQueryParameter(CalendarContract.Calendars.ACCOUNT_NAME, ACCOUNT_NAME)
+                .appendQueryParameter(CalendarContract.Calendars.ACCOUNT_TYPE, ACCOUNT_TYPE).build();
+    }
+
+
+    /**
+     * @param create creates the calendar if it does not exist
+     * @return id of the calendar, -1 if there is none
+     */
+    private static long getCalendar(Context context, boolean create) {
 
         ContentResolver contentResolver = context.getContentResolver();
 
         // Find the calendar if we've got one
-        Uri calenderUri = CalendarContract.Calendars.CONTENT_URI.buildUpon().appendQueryParameter(CalendarContract.CALLER_IS_SYNCADAPTER, "true")
-                .appendQueryParameter(CalendarContract.Calendars.ACCOUNT_NAME, ACCOUNT_NAME)
-                .appendQueryParameter(CalendarContract.Calendars.ACCOUNT_TYPE, ACCOUNT_TYPE).build();
+        Uri calenderUri = asSyncAdapter(CalendarContract.Calendars.CONTENT_URI);
 
 
         Cursor cursor = contentResolver.query(calenderUri, new String[]{BaseColumns._ID},
@@ -171,6 +291,8 @@ public class CalendarIntegrationService extends IntentService {
         try {
             if (cursor != null && cursor.moveToNext()) {
                 return cursor.getLong(0);
+            } else if (!create) {
+                return -1;
             } else {
                 ArrayList<ContentProviderOperation> operationList = new ArrayList<>();
 
@@ -193,7 +315,7 @@ public class CalendarIntegrationService extends IntentService {
                     e.printStackTrace();
                     return -1;
                 }
-                return getCalendar(context);
+                return getCalendar(context, false);
             }
         } finally {
             if (cursor != null && !cursor.isClosed())
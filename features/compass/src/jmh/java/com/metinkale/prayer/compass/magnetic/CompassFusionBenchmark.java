@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.metinkale.prayer.compass.magnetic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * cost of a single sample of each sensor, including the azimuth calculation as if every sample was shown
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompassFusionBenchmark {
+    private static final int SAMPLES = 256;
+    // 200 Hz, SENSOR_DELAY_FASTEST on most devices
+    private static final long SAMPLE_NANOS = 5000000;
+
+    private final float[][] rotationVectors = new float[SAMPLES][];
+    private final float[][] accelerometer = new float[SAMPLES][];
+    private final float[][] magneticField = new float[SAMPLES][];
+    private final float[][] gyroscope = new float[SAMPLES][];
+    private CompassFusion rotationVectorFusion;
+    private CompassFusion magneticFusion;
+    private CompassFusion gyroscopeFusion;
+    private int sample;
+    private long timestamp;
+
+    @Setup
+    public void setup() {
+        // a device held slightly tilted and turned slowly, with sensor noise
+        Random random = new Random(0);
+        for (int i = 0; i < SAMPLES; i++) {
+            double azimuth = 2 * Math.PI * i / SAMPLES;
+            double half = azimuth / 2;
+            rotationVectors[i] = new float[]{(float) (0.05 + random.nextGaussian() * 0.01), (float) (random.nextGaussian() * 0.01),
+                    (float) -Math.sin(half), (float) Math.cos(half)};
+            accelerometer[i] = new float[]{(float) (random.nextGaussian() * 0.3), (float) (1 + random.nextGaussian() * 0.3), 9.7f};
+            magneticField[i] = new float[]{(float) (-20 * Math.sin(azimuth) + random.nextGaussian()),
+                    (float) (20 * Math.cos(azimuth) + random.nextGaussian()), -40};
+            gyroscope[i] = new float[]{(float) (random.nextGaussian() * 0.01), (float) (random.nextGaussian() * 0.01), -0.1f};
+        }
+        rotationVectorFusion = new CompassFusion();
+        magneticFusion = new CompassFusion();
+        gyroscopeFusion = new CompassFusion();
+
+        // the first samples initialize the filters
+        rotationVector();
+        accelerometerMagneticField();
+        complementary();
+    }
+
+    private int nextSample() {
+        timestamp += SAMPLE_NANOS;
+        sample = (sample + 1) % SAMPLES;
+        return sample;
+    }
+
+    @Benchmark
+    public float rotationVector() {
+        int i = nextSample();
+        rotationVectorFusion.onRotationVector(rotationVectors[i], timestamp);
+        rotationVectorFusion.update(timestamp, 0);
+        return rotationVectorFusion.getAzimuth();
+    }
+
+    @Benchmark
+    public float accelerometerMagneticField() {
+        int i = nextSample();
+        magneticFusion.onAccelerometer(accelerometer[i], timestamp);
+        magneticFusion.onMagneticField(magneticField[i], timestamp);
+        magneticFusion.update(timestamp, 0);
+        return magneticFusion.getAzimuth();
+    }
+
+    @Benchmark
+    public float complementary() {
+        int i = nextSample();
+        gyroscopeFusion.onAccelerometer(accelerometer[i], timestamp);
+        gyroscopeFusion.onMagneticField(magneticField[i], timestamp);
+        gyroscopeFusion.onGyroscope(gyroscope[i], timestamp);
+        gyroscopeFusion.update(timestamp, 1);
+        return gyroscopeFusion.getAzimuth();
+    }
+
+    /**
+     * a gyroscope sample between two frames, only integrated
+     */
+    @Benchmark
+    public float gyroscopeOnly() {
+        int i = nextSample();
+        gyroscopeFusion.onGyroscope(gyroscope[i], timestamp);
+        return gyroscopeFusion.getAzimuth();
+    }
+}
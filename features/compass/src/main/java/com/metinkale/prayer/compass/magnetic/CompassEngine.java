@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.metinkale.prayer.compass.magnetic;
+
+import android.content.Context;
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.view.Display;
+import android.view.WindowManager;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Listens to the sensors and notifies the listener about the azimuth of the device
+ * <p>
+ * Uses the rotation vector sensor if available, accelerometer, magnetometer and gyroscope otherwise (see {@link CompassFusion}).
+ * Samples arrive much faster than the display can show them, so the azimuth is only calculated and delivered once per frame.
+ */
+public class CompassEngine implements SensorEventListener {
+    private static final long DEFAULT_FRAME_NANOS = 1000000000L / 60;
+
+    public interface Listener {
+        /**
+         * @param azimuth azimuth in degrees (0-360), 0 is north
+         */
+        void onAzimuthChanged(float azimuth);
+
+        void onAccuracyChanged(int accuracy);
+    }
+
+    @NonNull
+    private final SensorManager mSensorManager;
+    @NonNull
+    private final WindowManager mWindowManager;
+    @NonNull
+    private final Listener mListener;
+    @NonNull
+    private final CompassFusion mFusion = new CompassFusion();
+    private int mDisplayRotation;
+    private long mFrameNanos = DEFAULT_FRAME_NANOS;
+    private long mLastUpdate;
+    private boolean mRotationVector;
+    private int mAccelerometerAccuracy = SensorManager.SENSOR_STATUS_ACCURACY_HIGH;
+    private int mMagneticAccuracy = SensorManager.SENSOR_STATUS_ACCURACY_HIGH;
+    private int mAccuracy = -1;
+
+    public CompassEngine(@NonNull Context context, @NonNull Listener listener) {
+        mSensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
+        mWindowManager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+        mListener = listener;
+    }
+
+    public void start() {
+        stop();
+
+        Display display = mWindowManager.getDefaultDisplay();
+        mDisplayRotation = display.getRotation();
+        float refreshRate = display.getRefreshRate();
+        mFrameNanos = refreshRate > 0 ? (long) (1000000000L / refreshRate) : DEFAULT_FRAME_NANOS;
+
+        Sensor rotation = mSensorManager.getDefaultSensor(Sensor.TYPE_ROTATION_VECTOR);
+        Sensor magnetic = mSensorManager.getDefaultSensor(Sensor.TYPE_MAGNETIC_FIELD);
+        mRotationVector = rotation != null;
+        if (mRotationVector) {
+            mSensorManager.registerListener(this, rotation, SensorManager.SENSOR_DELAY_GAME);
+            // only for the accuracy, the rotation vector does not report a useful one
+            mSensorManager.registerListener(this, magnetic, SensorManager.SENSOR_DELAY_UI);
+        } else {
+            mSensorManager.registerListener(this, mSensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER), SensorManager.SENSOR_DELAY_GAME);
+            mSensorManager.registerListener(this, magnetic, SensorManager.SENSOR_DELAY_GAME);
+            Sensor gyroscope = mSensorManager.getDefaultSensor(Sensor.TYPE_GYROSCOPE);
+            if (gyroscope != null) {
+                mSensorManager.registerListener(this, gyroscope, SensorManager.SENSOR_DELAY_GAME);
+            }
+        }
+    }
+
+    public void stop() {
+        mSensorManager.unregisterListener(this);
+    }
+
+    @Override
+    public void onSensorChanged(@NonNull SensorEvent event) {
+        switch (event.sensor.getType()) {
+            case Sensor.TYPE_ROTATION_VECTOR:
+                mFusion.onRotationVector(event.values, event.timestamp);
+                break;
+            case Sensor.TYPE_ACCELEROMETER:
+                mFusion.onAccelerometer(event.values, event.timestamp);
+                break;
+            case Sensor.TYPE_MAGNETIC_FIELD:
+                if (mapAccuracy(event.accuracy) != mMagneticAccuracy)
+                    onAccuracyChanged(event.sensor, event.accuracy);
+                if (mRotationVector)
+                    return;
+                mFusion.onMagneticField(event.values, event.timestamp);
+                break;
+            case Sensor.TYPE_GYROSCOPE:
+                mFusion.onGyroscope(event.values, event.timestamp);
+                return;
+            default:
+                return;
+        }
+
+        if (event.timestamp - mLastUpdate < mFrameNanos)
+            return;
+        if (mFusion.update(event.timestamp, mDisplayRotation)) {
+            mLastUpdate = event.timestamp;
+            mListener.onAzimuthChanged(mFusion.getAzimuth());
+        }
+    }
+
+    @Override
+    public void onAccuracyChanged(@NonNull Sensor sensor, int accuracy) {
+        accuracy = mapAccuracy(accuracy);
+        switch (sensor.getType()) {
+            case Sensor.TYPE_ACCELEROMETER:
+                mAccelerometerAccuracy = accuracy;
+                break;
+            case Sensor.TYPE_MAGNETIC_FIELD:
+                mMagneticAccuracy = accuracy;
+                break;
+            default:
+                return;
+        }
+
+        int combined = Math.min(mAccelerometerAccuracy, mMagneticAccuracy);
+        if (combined != mAccuracy) {
+            mAccuracy = combined;
+            mListener.onAccuracyChanged(combined);
+        }
+    }
+
+    /**
+     * unreliable is treated as low accuracy, the stored accuracies are always mapped
+     */
+    private static int mapAccuracy(int accuracy) {
+        return accuracy == SensorManager.SENSOR_STATUS_UNRELIABLE ? SensorManager.SENSOR_STATUS_ACCURACY_LOW : accuracy;
+    }
+}
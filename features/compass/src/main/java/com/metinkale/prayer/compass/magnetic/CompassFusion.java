@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.metinkale.prayer.compass.magnetic;
+
+/**
+ * Sensor fusion for the compass, without any Android dependencies
+ * <p>
+ * Samples are only copied or filtered into fixed arrays, the azimuth is calculated in closed form by {@link #update(long, int)},
+ * which should be called at most once per frame. Nothing is allocated after construction.
+ * <p>
+ * If rotation vector samples are received, the azimuth is taken from them, they are already fused by the system and only
+ * smoothed slightly. Otherwise, if gyroscope samples are received, they are integrated and combined with the magnetic azimuth
+ * in a complementary filter. Without gyroscope, gravity and the geomagnetic field are low-pass filtered. Each way smooths only
+ * once, as every filter adds lag.
+ */
+final class CompassFusion {
+    private static final float NS2S = 1f / 1000000000f;
+    private static final float TWO_PI = (float) (2 * Math.PI);
+    // time constants in seconds
+    private static final float VECTOR_TIME_CONSTANT = 0.2f;
+    private static final float ROTATION_VECTOR_TIME_CONSTANT = 0.1f;
+    private static final float GYRO_TIME_CONSTANT = 0.5f;
+    // samples further apart are not integrated or filtered (e.g. after a pause)
+    private static final float MAX_SAMPLE_GAP = 0.5f;
+
+    private final float[] mQuaternion = new float[4];
+    private final float[] mGravity = new float[3];
+    private final float[] mGeomagnetic = new float[3];
+    private boolean mHasRotationVector;
+    private boolean mHasGravity;
+    private boolean mHasGeomagnetic;
+    private boolean mHasGyroscope;
+    private long mGravityTimestamp;
+    private long mGeomagneticTimestamp;
+    private long mGyroscopeTimestamp;
+
+    // filtered azimuth in radians, -PI to PI
+    private float mAzimuth;
+    private boolean mValid;
+    private long mUpdateTimestamp;
+    private int mDisplayRotation;
+
+    void onRotationVector(float[] values, long timestamp) {
+        float x = values[0];
+        float y = values[1];
+        float z = values[2];
+        float w;
+        if (values.length >= 4) {
+            w = values[3];
+        } else {
+            // older devices only send the vector part
+            w = 1 - x * x - y * y - z * z;
+            w = w > 0 ? (float) Math.sqrt(w) : 0;
+        }
+        mQuaternion[0] = x;
+        mQuaternion[1] = y;
+        mQuaternion[2] = z;
+        mQuaternion[3] = w;
+        mHasRotationVector = true;
+    }
+
+    void onAccelerometer(float[] values, long timestamp) {
+        lowPass(values, mGravity, mHasGravity, timestamp - mGravityTimestamp);
+        mHasGravity = true;
+        mGravityTimestamp = timestamp;
+    }
+
+    void onMagneticField(float[] values, long timestamp) {
+        lowPass(values, mGeomagnetic, mHasGeomagnetic, timestamp - mGeomagneticTimestamp);
+        mHasGeomagnetic = true;
+        mGeomagneticTimestamp = timestamp;
+    }
+
+    /**
+     * integrates the rotation around the vertical axis into the azimuth
+     */
+    void onGyroscope(float[] values, long timestamp) {
+        float dt = (timestamp - mGyroscopeTimestamp) * NS2S;
+        mGyroscopeTimestamp = timestamp;
+        mHasGyroscope = true;
+        if (!mValid || !mHasGravity || dt <= 0 || dt > MAX_SAMPLE_GAP)
+            return;
+
+        float gx = mGravity[0];
+        float gy = mGravity[1];
+        float gz = mGravity[2];
+        float norm = (float) Math.sqrt(gx * gx + gy * gy + gz * gz);
+        if (norm < 0.1f)
+            return;
+        // gravity points up in device coordinates, counter-clockwise rotation around it decreases the azimuth
+        float yawRate = -(values[0] * gx + values[1] * gy + values[2] * gz) / norm;
+        mAzimuth = wrap(mAzimuth + yawRate * dt);
+    }
+
+    /**
+     * filters values into filtered, which is reset to the values if not initialized yet or after a gap
+     */
+    private void lowPass(float[] values, float[] filtered, boolean initialized, long nanos) {
+        float dt = nanos * NS2S;
+        // the complementary filter smooths the magnetic azimuth, filtering the vectors too would only add lag
+        if (!initialized || mHasGyroscope || dt <= 0 || dt > MAX_SAMPLE_GAP) {
+            filtered[0] = values[0];
+            filtered[1] = values[1];
+            filtered[2] = values[2];
+            return;
+        }
+        float alpha = dt / (VECTOR_TIME_CONSTANT + dt);
+        filtered[0] += alpha * (values[0] - filtered[0]);
+        filtered[1] += alpha * (values[1] - filtered[1]);
+        filtered[2] += alpha * (values[2] - filtered[2]);
+    }
+
+    /**
+     * calculates the azimuth from the last samples
+     *
+     * @param timestamp       timestamp of the last sample
+     * @param displayRotation rotation of the display (Surface.ROTATION_*)
+     * @return false if there are not enough samples yet
+     */
+    boolean update(long timestamp, int displayRotation) {
+        float r0;
+        float r1;
+        float r3;
+        float r4;
+        if (mHasRotationVector) {
+            // first two rows of the rotation matrix of the quaternion, see SensorManager.getRotationMatrixFromVector
+            float x = mQuaternion[0];
+            float y = mQuaternion[1];
+            float z = mQuaternion[2];
+            float w = mQuaternion[3];
+            r0 = 1 - 2 * y * y - 2 * z * z;
+            r1 = 2 * x * y - 2 * z * w;
+            r3 = 2 * x * y + 2 * z * w;
+            r4 = 1 - 2 * x * x - 2 * z * z;
+        } else if (mHasGravity && mHasGeomagnetic) {
+            // east = geomagnetic x gravity, north = gravity x east, see SensorManager.getRotationMatrix
+            float ax = mGravity[0];
+            float ay = mGravity[1];
+            float az = mGravity[2];
+            float mx = mGeomagnetic[0];
+            float my = mGeomagnetic[1];
+            float mz = mGeomagnetic[2];
+            float ex = my * az - mz * ay;
+            float ey = mz * ax - mx * az;
+            float ez = mx * ay - my * ax;
+            float normE = (float) Math.sqrt(ex * ex + ey * ey + ez * ez);
+            float normA = (float) Math.sqrt(ax * ax + ay * ay + az * az);
+            // free fall (less than 0.1 g) or close to a magnetic pole
+            if (normE < 0.1f || normA < 0.981f)
+                return false;
+            float invE = 1 / normE;
+            float invA = 1 / normA;
+            ex *= invE;
+            ey *= invE;
+            ez *= invE;
+            ax *= invA;
+            ay *= invA;
+            az *= invA;
+            r0 = ex;
+            r1 = ey;
+            r3 = ay * ez - az * ey;
+            r4 = az * ex - ax * ez;
+        } else {
+            return false;
+        }
+
+        // azimuth of SensorManager.getOrientation, after remapping the coordinate system to the display rotation
+        float azimuth;
+        switch (displayRotation) {
+            case 1: // Surface.ROTATION_90
+                azimuth = (float) Math.atan2(r0, r3);
+                break;
+            case 3: // Surface.ROTATION_270
+                azimuth = (float) Math.atan2(-r0, -r3);
+                break;
+            default:
+                azimuth = (float) Math.atan2(r1, r4);
+                break;
+        }
+
+        float dt = (timestamp - mUpdateTimestamp) * NS2S;
+        mUpdateTimestamp = timestamp;
+        if (!mValid || displayRotation != mDisplayRotation || dt <= 0 || dt > MAX_SAMPLE_GAP) {
+            mAzimuth = azimuth;
+            mDisplayRotation = displayRotation;
+            mValid = true;
+            return true;
+        }
+
+        float timeConstant;
+        if (mHasRotationVector) {
+            timeConstant = ROTATION_VECTOR_TIME_CONSTANT;
+        } else if (mHasGyroscope) {
+            // the gyroscope follows fast changes, so the magnetic azimuth can be weighted less
+            timeConstant = GYRO_TIME_CONSTANT;
+        } else {
+            // the vectors are filtered already
+            mAzimuth = azimuth;
+            return true;
+        }
+        float alpha = dt / (timeConstant + dt);
+        mAzimuth = wrap(mAzimuth + alpha * wrap(azimuth - mAzimuth));
+        return true;
+    }
+
+    /**
+     * @return azimuth in degrees (0-360), 0 is north
+     */
+    float getAzimuth() {
+        float degrees = (float) Math.toDegrees(mAzimuth);
+        if (degrees < 0) {
+            degrees += 360;
+        }
+        return degrees >= 360 ? 0 : degrees;
+    }
+
+    /**
+     * @return angle in range -PI to PI
+     */
+    private static float wrap(float angle) {
+        while (angle >= Math.PI) {
+            angle -= TWO_PI;
+        }
+        while (angle < -Math.PI) {
+            angle += TWO_PI;
+        }
+        return angle;
+    }
+}
@@ -16,16 +16,11 @@
 
 package com.metinkale.prayer.compass.magnetic;
 
-import android.content.Context;
-import android.hardware.Sensor;
 import android.hardware.SensorManager;
 import android.os.Bundle;
-import android.view.Display;
 import android.view.LayoutInflater;
-import android.view.Surface;
 import android.view.View;
 import android.view.ViewGroup;
-import android.view.WindowManager;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -36,37 +31,20 @@ import androidx.fragment.app.FragmentTransaction;
 import com.metinkale.prayer.compass.QiblaListener;
 import com.metinkale.prayer.compass.R;
 import com.metinkale.prayer.compass.magnetic.compass2D.Frag2D;
-import com.metinkale.prayer.compass.magnetic.utils.OrientationCalculator;
-import com.metinkale.prayer.compass.magnetic.utils.math.Matrix4;
-import com.metinkale.prayer.compass.magnetic.utils.rotation.MagAccelListener;
-import com.metinkale.prayer.compass.magnetic.utils.rotation.RotationUpdateDelegate;
 
-public class MagneticCompass extends Fragment implements QiblaListener, RotationUpdateDelegate {
+public class MagneticCompass extends Fragment implements QiblaListener, CompassEngine.Listener {
 
 
-    private MagAccelListener mMagAccel;
-    @NonNull
-    private Matrix4 mRotationMatrix = new Matrix4();
-    private int mDisplayRotation;
-    private SensorManager mSensorManager;
-
-
-    @NonNull
-    private OrientationCalculator mOrientationCalculator = new OrientationCalculator();
+    private CompassEngine mCompassEngine;
     private Frag2D mFrag2D = new Frag2D();
 
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
         View v = inflater.inflate(R.layout.compass_main, container, false);
-        mSensorManager = (SensorManager) getActivity().getSystemService(Context.SENSOR_SERVICE);
-
-
-        Display display = ((WindowManager) getActivity().getSystemService(Context.WINDOW_SERVICE)).getDefaultDisplay();
-        mDisplayRotation = display.getRotation();
 
         // sensor listeners
-        mMagAccel = new MagAccelListener(this);
+        mCompassEngine = new CompassEngine(getActivity(), this);
 
         FragmentManager fragmentManager = getChildFragmentManager();
         FragmentTransaction fragmentTransaction = fragmentManager.beginTransaction();
@@ -87,43 +65,20 @@ public class MagneticCompass extends Fragment implements QiblaListener, Rotation
     @Override
     public void onResume() {
         super.onResume();
-        mSensorManager.unregisterListener(mMagAccel);
-
-        mSensorManager.registerListener(mMagAccel, mSensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER), SensorManager.SENSOR_DELAY_GAME);
-        mSensorManager.registerListener(mMagAccel, mSensorManager.getDefaultSensor(Sensor.TYPE_MAGNETIC_FIELD), SensorManager.SENSOR_DELAY_GAME);
-
+        mCompassEngine.start();
     }
 
     @Override
     public void onPause() {
-        mSensorManager.unregisterListener(mMagAccel);
+        mCompassEngine.stop();
         super.onPause();
     }
 
 
-    // RotationUpdateDelegate methods
+    // CompassEngine.Listener methods
     @Override
-    public void onRotationUpdate(@NonNull float[] newMatrix) {
-        // remap matrix values according to display rotation, as in
-        // SensorManager documentation.
-        switch (mDisplayRotation) {
-            case Surface.ROTATION_90:
-                SensorManager.remapCoordinateSystem(newMatrix, SensorManager.AXIS_Y, SensorManager.AXIS_MINUS_X, newMatrix);
-                break;
-            case Surface.ROTATION_270:
-                SensorManager.remapCoordinateSystem(newMatrix, SensorManager.AXIS_MINUS_Y, SensorManager.AXIS_X, newMatrix);
-                break;
-            default:
-                break;
-        }
-        mRotationMatrix.set(newMatrix);
-
-        float[] deviceOrientation = new float[3];
-        mOrientationCalculator.getOrientation(mRotationMatrix, mDisplayRotation, deviceOrientation);
-
-        float[] orientation = new float[3];
-        SensorManager.getOrientation(newMatrix, orientation);
-        mFrag2D.setAngle((int) Math.toDegrees(orientation[0]));
+    public void onAzimuthChanged(float azimuth) {
+        mFrag2D.setAngle(azimuth);
     }
 
     private boolean mCalibrationStarted;
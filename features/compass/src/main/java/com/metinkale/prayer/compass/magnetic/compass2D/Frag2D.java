@@ -33,7 +33,6 @@ import androidx.fragment.app.Fragment;
 
 import com.metinkale.prayer.compass.QiblaListener;
 import com.metinkale.prayer.compass.R;
-import com.metinkale.prayer.compass.magnetic.DegreeLowPassFilter;
 import com.metinkale.prayer.utils.LocaleUtils;
 
 public class Frag2D extends Fragment implements QiblaListener {
@@ -45,7 +44,7 @@ public class Frag2D extends Fragment implements QiblaListener {
     private View mInfo;
     private View mBG;
     private boolean mHidden;
-    private int mAngle;
+    private float mAngle;
     private double mQiblaDistance;
     private double mQiblaAngle;
     
@@ -140,13 +139,14 @@ public class Frag2D extends Fragment implements QiblaListener {
             mDistanceTV.setText(LocaleUtils.formatNumber(Math.round(distance) + "km"));
     }
     
-    private DegreeLowPassFilter lowPassFilter = new DegreeLowPassFilter();
-    
-    public void setAngle(int angle) {
+    /**
+     * @param angle azimuth in degrees, already smoothed by {@link com.metinkale.prayer.compass.magnetic.CompassEngine}
+     */
+    public void setAngle(float angle) {
         mAngle = angle;
         if (mCompassView == null)
             return;
-        mCompassView.setAngle(lowPassFilter.filter(angle)[0]);
+        mCompassView.setAngle(angle);
     }
     
 }
@@ -32,6 +32,7 @@ import androidx.annotation.NonNull;
 
 import com.metinkale.prayer.compass.R;
 
+import org.joda.time.Days;
 import org.joda.time.LocalDate;
 import org.joda.time.LocalTime;
 import org.metinkale.praytimes.PrayTimes;
@@ -42,6 +43,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
 public class QiblaTimeView extends View {
+    private static final int QIBLA_DAYS = 30;
     private final Paint mBackgroundPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
     private final Paint mOuterStrokePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
     private final Paint mCenterPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
@@ -53,6 +55,11 @@ public class QiblaTimeView extends View {
     private final Drawable mKaabe;
     private final PrayTimes mPrayTimes = new PrayTimes();
     private QiblaTime mQiblaTime;
+    // qibla times of QIBLA_DAYS days, calculated at once for mQiblaStart and mQiblaLat/mQiblaLng
+    private QiblaTime[] mQiblaTimes;
+    private LocalDate mQiblaStart;
+    private double mQiblaLat;
+    private double mQiblaLng;
     private double mSunriseAngle;
     private double mSunsetAngle;
     private double mCurrentAngle;
@@ -230,8 +237,18 @@ public class QiblaTimeView extends View {
         @Override
         public void run() {
             removeCallbacks(this);
+            LocalDate today = LocalDate.now();
             mPrayTimes.setCoordinates(mLat, mLng, mAlt);
-            mQiblaTime = mPrayTimes.getQiblaTime();
+            mPrayTimes.setDate(today.getYear(), today.getMonthOfYear(), today.getDayOfMonth());
+            int day = mQiblaStart == null ? -1 : Days.daysBetween(mQiblaStart, today).getDays();
+            if (mQiblaTimes == null || day < 0 || day >= QIBLA_DAYS || mQiblaLat != mLat || mQiblaLng != mLng) {
+                mQiblaTimes = mPrayTimes.getQiblaTimes(QIBLA_DAYS);
+                mQiblaStart = today;
+                mQiblaLat = mLat;
+                mQiblaLng = mLng;
+                day = 0;
+            }
+            mQiblaTime = mQiblaTimes[day];
             LocalTime sunrise = LocalTime.parse(mPrayTimes.getTime(Times.Sunrise));
             LocalTime sunset = LocalTime.parse(mPrayTimes.getTime(Times.Sunset));
             LocalTime current = LocalTime.now();
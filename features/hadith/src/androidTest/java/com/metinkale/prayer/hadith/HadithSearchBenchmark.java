@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.metinkale.prayer.hadith;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Environment;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.metinkale.prayer.App;
+import com.metinkale.prayer.utils.LocaleUtils;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Compares the full text search with the linear scan, on a generated hadis.db of the same size as the real one.
+ * Both open and close the database for each search, as in the app.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HadithSearchBenchmark {
+    private static final int HADITHS = 7000;
+    private static final int PAGE_SIZE = 50;
+    private static final String QUERY = "müslüman";
+    // only found within words, by the scan
+    private static final String MID_WORD_QUERY = "slüman";
+    private static final String[] WORDS = {"müslüman", "müslümanlar", "namaz", "oruç", "zekât", "hac", "iman", "sabır", "şükür",
+            "ilim", "komşu", "anne", "baba", "çocuk", "sadaka", "dua", "rahmet", "cennet", "gün", "gece", "söz", "kalp", "ölüm",
+            "hayır", "selam", "ahlâk", "güzel", "doğru", "yalan", "kardeş", "Allah", "Resûlullah", "buyurdu", "ki", "ve", "bir"};
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private SqliteHelper helper;
+
+    @Before
+    public void setUp() {
+        String lang = LocaleUtils.getLanguage("en", "de", "tr");
+        File file = new File(App.get().getExternalFilesDir(Environment.DIRECTORY_DOWNLOADS), lang + "/hadis.db");
+        createFixture(file);
+
+        helper = SqliteHelper.get();
+        // builds the index outside of the measurement
+        Set<Integer> indexed = searchAll(QUERY);
+        Set<Integer> scanned = new HashSet<>(helper.search(QUERY));
+        assertFalse(scanned.isEmpty());
+        assertEquals(scanned, indexed);
+        Set<Integer> midWord = searchAll(MID_WORD_QUERY);
+        assertFalse(midWord.isEmpty());
+        assertEquals(new HashSet<>(helper.search(MID_WORD_QUERY)), midWord);
+    }
+
+    @Test
+    public void searchIndex() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            searchAll(QUERY);
+        }
+    }
+
+    @Test
+    public void scan() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            helper.search(QUERY);
+        }
+    }
+
+    private Set<Integer> searchAll(String query) {
+        final Set<Integer> ids = new HashSet<>();
+        helper.search(query, PAGE_SIZE, page -> {
+            ids.addAll(page);
+            return true;
+        });
+        return ids;
+    }
+
+    /**
+     * writes hadiths of random words, sentences end with a dot, so the concatenated columns of the scan do not form new words
+     */
+    private static void createFixture(File file) {
+        file.getParentFile().mkdirs();
+        file.delete();
+        Random random = new Random(0);
+        SQLiteDatabase db = SQLiteDatabase.openOrCreateDatabase(file, null);
+        try {
+            db.execSQL("CREATE TABLE HADIS (ID INTEGER PRIMARY KEY, KONU TEXT, DETAY TEXT, HADIS TEXT, KAYNAK TEXT)");
+            db.beginTransaction();
+            try {
+                SQLiteStatement insert = db.compileStatement("INSERT INTO HADIS (ID, KONU, DETAY, HADIS, KAYNAK) VALUES (?, ?, ?, ?, ?)");
+                for (int id = 1; id <= HADITHS; id++) {
+                    insert.bindLong(1, id);
+                    // about 50 hadiths per subject, as in the real file
+                    insert.bindString(2, WORDS[(id / 50) % WORDS.length] + " Bâbı.");
+                    insert.bindString(3, sentence(random, 5));
+                    insert.bindString(4, sentence(random, 40));
+                    insert.bindString(5, "Buhârî, " + (id % 97) + ".");
+                    insert.executeInsert();
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } finally {
+            db.close();
+        }
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0)
+                builder.append(' ');
+            builder.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return builder.append('.').toString();
+    }
+}
@@ -403,8 +403,10 @@ public class HadithFragment extends BaseActivity.MainFragment implements OnClick
         }
     }
 
-    private class SearchTask extends AsyncTask<String, String, Boolean> {
+    private class SearchTask extends AsyncTask<String, List<Integer>, Integer> {
+        private static final int PAGE_SIZE = 50;
         private ProgressDialog dialog;
+        private boolean found;
 
         SearchTask(Context c) {
             dialog = new ProgressDialog(c);
@@ -416,7 +418,7 @@ public class HadithFragment extends BaseActivity.MainFragment implements OnClick
         }
 
         @Override
-        protected void onPostExecute(Boolean success) {
+        protected void onPostExecute(Integer count) {
             InputMethodManager inputManager = (InputMethodManager) getActivity().getSystemService(Context.INPUT_METHOD_SERVICE);
             View v = getActivity().getCurrentFocus();
 
@@ -428,39 +430,45 @@ public class HadithFragment extends BaseActivity.MainFragment implements OnClick
                 dialog.dismiss();
             }
 
-            if (!isCancelled()) {
+            if (!mQuery.equals(""))
+                Toast.makeText(getActivity(), getString(R.string.foundXHadis, count + ""), Toast.LENGTH_LONG).show();
+
+        }
 
+        /**
+         * shows the results as soon as the first page is found, the following pages are appended
+         */
+        @SafeVarargs
+        @Override
+        protected final void onProgressUpdate(List<Integer>... pages) {
+            if (isCancelled())
+                return;
+            if (!found) {
+                found = true;
+                mList = new ArrayList<>(pages[0]);
+                if (dialog.isShowing()) {
+                    dialog.dismiss();
+                }
                 mAdapter.notifyDataSetChanged();
                 mPager.setCurrentItem(9999);
                 mPager.setAdapter(mAdapter);
                 mPager.setCurrentItem(0);
+            } else {
+                mList.addAll(pages[0]);
+                mAdapter.notifyDataSetChanged();
             }
-
-            int s = mList.size();
-            if (!mQuery.equals(""))
-                Toast.makeText(getActivity(), getString(R.string.foundXHadis,
-                        (s == SqliteHelper.get().getCount()) ? 0 + "" : s + ""), Toast.LENGTH_LONG).show();
-
-        }
-
-        @Override
-        protected void onProgressUpdate(String... arg) {
-            dialog.setMessage(arg[0]);
         }
 
         @NonNull
         @Override
-        protected Boolean doInBackground(String... args) {
+        protected Integer doInBackground(String... args) {
             if ("".equals(args[0])) {
-                return false;
-            }
-            List<Integer> q;
-            q = SqliteHelper.get().search(args[0]);
-            if (!q.isEmpty()) {
-                mList = q;
+                return 0;
             }
-
-            return !q.isEmpty();
+            return SqliteHelper.get().search(args[0], PAGE_SIZE, ids -> {
+                publishProgress(ids);
+                return !isCancelled();
+            });
         }
 
     }
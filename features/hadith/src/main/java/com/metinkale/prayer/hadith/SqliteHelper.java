@@ -21,11 +21,14 @@ import android.database.Cursor;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 import android.os.Environment;
+import android.util.SparseBooleanArray;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.crashlytics.android.Crashlytics;
 import com.metinkale.prayer.App;
 import com.metinkale.prayer.utils.LocaleUtils;
 
@@ -38,6 +41,13 @@ import java.util.Locale;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class SqliteHelper extends SQLiteOpenHelper {
+    // stored in INDEX_INFO, increase to rebuild the search index
+    private static final int INDEX_VERSION = 1;
+    private static final String INDEX = "HADIS_INDEX";
+    // our own table for the version of the index, the user_version of hadis.db is set by whoever built the file
+    private static final String INDEX_INFO = "HADIS_INDEX_INFO";
+    // columns which are searched one by one, better ranked results come first
+    private static final String[] RANKED_COLUMNS = {"KONU", "HADIS", INDEX};
     private static SqliteHelper mInstance;
     @Nullable
     private static File FILE;
@@ -59,6 +69,42 @@ public class SqliteHelper extends SQLiteOpenHelper {
         return string.toLowerCase(Locale.ENGLISH);
     }
 
+    /**
+     * normalizes text for the search index: diacritics are removed and the text is lower-cased, so "Müslüman" is found by
+     * "musluman"
+     */
+    @NonNull
+    private static String normalizeIndex(@NonNull CharSequence str) {
+        String string = Normalizer.normalize(str, Normalizer.Form.NFD);
+        string = string.replaceAll("\\p{M}", "");
+        return string.toLowerCase(Locale.ENGLISH).replace('ı', 'i');
+    }
+
+    /**
+     * @return the query as FTS phrase, the last word may be incomplete, null if there are no words
+     */
+    @Nullable
+    private static String toPhrase(@NonNull CharSequence query) {
+        String normalized = normalizeIndex(query);
+        StringBuilder phrase = new StringBuilder("\"");
+        boolean word = false;
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            // the simple tokenizer splits at every ASCII char which is not alphanumeric
+            if (c > 127 || Character.isLetterOrDigit(c)) {
+                phrase.append(c);
+                word = true;
+            } else if (word) {
+                phrase.append(' ');
+                word = false;
+            }
+        }
+        String str = phrase.toString().trim();
+        if (str.length() <= 1)
+            return null;
+        return str + "*\"";
+    }
+
     public static SqliteHelper get() {
         if (mInstance == null) {
             new SqliteHelper(App.get());
@@ -76,6 +122,151 @@ public class SqliteHelper extends SQLiteOpenHelper {
         return ret;
     }
 
+    /**
+     * receives the results of {@link #search(CharSequence, int, SearchListener)} page by page
+     */
+    interface SearchListener {
+        /**
+         * @param ids next page of results
+         * @return false to stop the search
+         */
+        boolean onResults(@NonNull List<Integer> ids);
+    }
+
+    /**
+     * searches the hadiths with a full text index, which is built on the first search
+     * <p>
+     * Hadiths with the query in their subject come first, then hadiths with the query in their text, then all others.
+     * Words are matched from their start, only if no word starts with the query, hadiths containing it anywhere are found.
+     *
+     * @param pageSize maximum number of ids per page
+     * @return number of results
+     */
+    public int search(@NonNull CharSequence query, int pageSize, @NonNull SearchListener listener) {
+        String phrase = toPhrase(query);
+        if (phrase == null)
+            return 0;
+        openDatabase();
+        try {
+            SparseBooleanArray found = new SparseBooleanArray();
+            try {
+                if (!hasIndex())
+                    buildIndex();
+            } catch (SQLException e) {
+                Crashlytics.logException(e);
+                return scan(query, pageSize, found, listener);
+            }
+
+            try {
+                int count = searchIndex(phrase, pageSize, found, listener);
+                // the index only matches the start of words, the scan also finds the query within words (e.g. "slüman")
+                if (count == 0)
+                    return scan(query, pageSize, found, listener);
+                return count;
+            } catch (SQLException e) {
+                // results which were already sent are not sent again
+                Crashlytics.logException(e);
+                return scan(query, pageSize, found, listener);
+            }
+        } finally {
+            closeDatabase();
+        }
+    }
+
+    /**
+     * @param found ids which were sent to the listener
+     */
+    private int searchIndex(@NonNull String phrase, int pageSize, @NonNull SparseBooleanArray found, @NonNull SearchListener listener)
+            throws SQLException {
+        List<Integer> page = new ArrayList<>(pageSize);
+        for (String column : RANKED_COLUMNS) {
+            // pages use the last docid instead of an offset, so the index is not searched again from the start
+            int last = Integer.MIN_VALUE;
+            while (true) {
+                int count = 0;
+                // numbers are not bound, bound args are strings and would not be compared as numbers
+                try (Cursor c = mDB.rawQuery("SELECT docid FROM " + INDEX + " WHERE " + column + " MATCH ? AND docid > " + last
+                        + " ORDER BY docid LIMIT " + pageSize, new String[]{phrase})) {
+                    while (c.moveToNext()) {
+                        count++;
+                        last = c.getInt(0);
+                        if (!found.get(last)) {
+                            found.put(last, true);
+                            page.add(last);
+                        }
+                    }
+                }
+                if (!page.isEmpty()) {
+                    if (!listener.onResults(page))
+                        return found.size();
+                    page = new ArrayList<>(pageSize);
+                }
+                if (count < pageSize)
+                    break;
+            }
+        }
+        return found.size();
+    }
+
+    /**
+     * @return true if the search index was built with the current {@link #INDEX_VERSION}
+     */
+    private boolean hasIndex() throws SQLException {
+        try (Cursor c = mDB.rawQuery("SELECT name FROM sqlite_master WHERE type = 'table' AND name IN (?, ?)", new String[]{INDEX, INDEX_INFO})) {
+            if (c.getCount() < 2)
+                return false;
+        }
+        try (Cursor c = mDB.rawQuery("SELECT VERSION FROM " + INDEX_INFO, null)) {
+            return c.moveToFirst() && c.getInt(0) >= INDEX_VERSION;
+        }
+    }
+
+    /**
+     * stores the normalized texts of all hadiths in a contentless FTS table of hadis.db
+     */
+    private void buildIndex() throws SQLException {
+        mDB.beginTransaction();
+        try {
+            mDB.execSQL("DROP TABLE IF EXISTS " + INDEX);
+            mDB.execSQL("CREATE VIRTUAL TABLE " + INDEX + " USING fts4(content=\"\", KONU, DETAY, HADIS, KAYNAK)");
+            SQLiteStatement insert = mDB.compileStatement("INSERT INTO " + INDEX + "(docid, KONU, DETAY, HADIS, KAYNAK) VALUES (?, ?, ?, ?, ?)");
+            try (Cursor c = mDB.query("HADIS", new String[]{"ID", "KONU", "DETAY", "HADIS", "KAYNAK"}, null, null, null, null, null)) {
+                while (c.moveToNext()) {
+                    insert.bindLong(1, c.getInt(0));
+                    for (int i = 1; i <= 4; i++) {
+                        String text = c.getString(i);
+                        insert.bindString(i + 1, text == null ? "" : normalizeIndex(text));
+                    }
+                    insert.executeInsert();
+                }
+            }
+            mDB.execSQL("DROP TABLE IF EXISTS " + INDEX_INFO);
+            mDB.execSQL("CREATE TABLE " + INDEX_INFO + " (VERSION INTEGER)");
+            mDB.execSQL("INSERT INTO " + INDEX_INFO + " (VERSION) VALUES (" + INDEX_VERSION + ")");
+            mDB.setTransactionSuccessful();
+        } finally {
+            mDB.endTransaction();
+        }
+    }
+
+    /**
+     * searches by reading every hadith, used if the index can not be built or searched, or does not find the query
+     *
+     * @param found ids which were already sent to the listener, they are skipped
+     */
+    private int scan(@NonNull CharSequence query, int pageSize, @NonNull SparseBooleanArray found, @NonNull SearchListener listener) {
+        List<Integer> ids = new ArrayList<>();
+        for (int id : search(query)) {
+            if (!found.get(id))
+                ids.add(id);
+        }
+        for (int i = 0; i < ids.size(); i += pageSize) {
+            if (!listener.onResults(new ArrayList<>(ids.subList(i, Math.min(ids.size(), i + pageSize)))))
+                break;
+        }
+        return found.size() + ids.size();
+    }
+
     @NonNull
     public List<Integer> search(CharSequence query) {
         openDatabase();
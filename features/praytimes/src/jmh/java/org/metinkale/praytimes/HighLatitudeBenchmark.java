@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.metinkale.praytimes;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * prayer times in higher latitudes around the solstices, where angle based times do not exist (NaN) and have to be adjusted
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HighLatitudeBenchmark {
+    // Hamburg, Oslo, Reykjavik, Tromso, Longyearbyen
+    @Param({"53.55", "59.91", "64.15", "69.65", "78.22"})
+    public double lat;
+    // summer and winter solstice
+    @Param({"6", "12"})
+    public int month;
+    @Param
+    public HighLatsAdjustment highLats;
+
+    private PrayTimes prayTimes;
+    private long[] range;
+    private int day;
+
+    @Setup
+    public void setup() {
+        prayTimes = new PrayTimes();
+        prayTimes.setHighLatsAdjustment(highLats);
+        prayTimes.setTimezone(TimeZone.getTimeZone("Europe/Oslo"));
+        prayTimes.setCoordinates(lat, 10.75, 0);
+        range = new long[30 * Times.values().length];
+    }
+
+    @Benchmark
+    public int singleDay() {
+        // another day, so the times are not cached
+        day++;
+        prayTimes.setDate(2019, month, day % 10 + 16);
+        return prayTimes.getTimeMinutes(Times.Ishaa);
+    }
+
+    @Benchmark
+    public long[] month() {
+        prayTimes.calculateRange(2019, month, 1, 30, range);
+        return range;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.metinkale.praytimes;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * prayer times of a single day and of a year, for every method and high latitude adjustment
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PrayTimesBenchmark {
+    @Param
+    public Method method;
+    @Param
+    public HighLatsAdjustment highLats;
+
+    private PrayTimes prayTimes;
+    private long[] range;
+    private int day;
+
+    @Setup
+    public void setup() {
+        prayTimes = new PrayTimes();
+        prayTimes.setMethod(method);
+        prayTimes.setHighLatsAdjustment(highLats);
+        prayTimes.setTimezone(TimeZone.getTimeZone("Europe/Istanbul"));
+        prayTimes.setCoordinates(41.0082, 28.9784, 39);
+        range = new long[365 * Times.values().length];
+    }
+
+    /**
+     * sets another day, so the times are not cached
+     */
+    private void nextDay() {
+        day++;
+        prayTimes.setDate(2019, day % 12 + 1, day % 28 + 1);
+    }
+
+    @Benchmark
+    public int singleDay() {
+        nextDay();
+        return prayTimes.getTimeMinutes(Times.Ishaa);
+    }
+
+    @Benchmark
+    public String singleDayString() {
+        nextDay();
+        return prayTimes.getTime(Times.Ishaa);
+    }
+
+    @Benchmark
+    public long[] year() {
+        prayTimes.calculateRange(2019, 1, 1, 365, range);
+        return range;
+    }
+}
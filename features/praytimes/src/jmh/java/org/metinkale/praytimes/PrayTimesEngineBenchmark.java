@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metinkale.praytimes;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PrayTimesEngine} called by several threads with shared configs, all times of each result are checked against a sequential
+ * calculation, so races fail the run instead of only showing up in the numbers
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class PrayTimesEngineBenchmark {
+    private static final int CITIES = 200;
+    private static final int DAYS = 365;
+
+    private PrayTimesConfig[] configs;
+    // times of each city and day, calculated sequentially
+    private DayTimes[][] expected;
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private final Random random = new Random();
+    }
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        configs = new PrayTimesConfig[CITIES];
+        expected = new DayTimes[CITIES][DAYS];
+        for (int i = 0; i < CITIES; i++) {
+            PrayTimes prayTimes = new PrayTimes();
+            prayTimes.setMethod(Method.values()[i % Method.values().length]);
+            prayTimes.setHighLatsAdjustment(HighLatsAdjustment.values()[i % HighLatsAdjustment.values().length]);
+            prayTimes.setTimezone(TimeZone.getTimeZone(i % 2 == 0 ? "Europe/Istanbul" : "America/New_York"));
+            prayTimes.setCoordinates(random.nextDouble() * 120 - 60, random.nextDouble() * 360 - 180, 0);
+            configs[i] = prayTimes.getConfig();
+            for (int d = 0; d < DAYS; d++) {
+                expected[i][d] = PrayTimesEngine.compute(configs[i], 2019, 1, 1 + d);
+            }
+        }
+    }
+
+    private void check(DayTimes times, int city, int day) {
+        DayTimes exp = expected[city][day];
+        boolean equal = times.getConfig() == exp.getConfig() && times.isDate(exp.getYear(), exp.getMonth(), exp.getDay());
+        for (Times t : Times.values()) {
+            equal &= Double.compare(times.getHours(t), exp.getHours(t)) == 0;
+        }
+        if (!equal)
+            throw new IllegalStateException("city " + city + " day " + day + " differs from the sequential calculation");
+    }
+
+    @Benchmark
+    public DayTimes singleDay(ThreadState state) {
+        int city = state.random.nextInt(CITIES);
+        int day = state.random.nextInt(DAYS);
+        DayTimes times = PrayTimesEngine.compute(configs[city], 2019, 1, 1 + day);
+        check(times, city, day);
+        return times;
+    }
+
+    @Benchmark
+    public DayTimes[] year(ThreadState state) {
+        int city = state.random.nextInt(CITIES);
+        DayTimes[] times = PrayTimesEngine.computeRange(configs[city], 2019, 1, 1, DAYS);
+        for (int d = 0; d < DAYS; d++) {
+            check(times[d], city, d);
+        }
+        return times;
+    }
+
+    @Benchmark
+    public DayTimes[] allCities(ThreadState state) {
+        int day = state.random.nextInt(DAYS);
+        DayTimes[] times = PrayTimesEngine.computeAll(configs, 2019, 1, 1 + day);
+        for (int i = 0; i < CITIES; i++) {
+            check(times[i], i, day);
+        }
+        return times;
+    }
+}
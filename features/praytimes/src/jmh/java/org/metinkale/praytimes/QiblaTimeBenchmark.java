@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.metinkale.praytimes;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * qibla times, including locations near the tropics (sun passing the zenith) and in higher latitudes
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QiblaTimeBenchmark {
+    // Istanbul, Jakarta, Honolulu, Reykjavik
+    @Param({"41.0082,28.9784", "-6.2088,106.8456", "21.3069,-157.8583", "64.1466,-21.9426"})
+    public String location;
+
+    private PrayTimes prayTimes;
+    private QiblaTimeCalculator calculator;
+    private double lat;
+    private double lng;
+    private long noon;
+    private int day;
+
+    @Setup
+    public void setup() {
+        String[] parts = location.split(",");
+        lat = Double.parseDouble(parts[0]);
+        lng = Double.parseDouble(parts[1]);
+        prayTimes = new PrayTimes();
+        prayTimes.setTimezone(TimeZone.getTimeZone("UTC"));
+        prayTimes.setCoordinates(lat, lng, 0);
+        prayTimes.setDate(2019, 6, 1);
+        calculator = new QiblaTimeCalculator(lat, lng);
+        // 2019-06-01 12:00 local mean time
+        noon = 1559390400000L - (long) (lng / 15 * 60 * 60 * 1000);
+    }
+
+    @Benchmark
+    public QiblaTime singleDay() {
+        // another day, so the times are not cached
+        day++;
+        prayTimes.setDate(2019, day % 12 + 1, day % 28 + 1);
+        return prayTimes.getQiblaTime();
+    }
+
+    @Benchmark
+    public QiblaTime[] month() {
+        return prayTimes.getQiblaTimes(30);
+    }
+
+    @Benchmark
+    public long findQiblaTime() {
+        return QiblaTimeCalculator.findQiblaTime(noon, lat, lng, 0);
+    }
+
+    @Benchmark
+    public long findQiblaTimeReused() {
+        return calculator.findQiblaTime(noon, Math.PI / 2);
+    }
+}
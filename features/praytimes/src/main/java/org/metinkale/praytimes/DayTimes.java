@@ -0,0 +1,91 @@
+/*
+PrayTimes-Java: Prayer Times Java Calculator (ver 0.9)
+
+Copyright (C) 2007-2011 PrayTimes.org (JS Code ver 2.3)
+Copyright (C) 2017 Metin Kale (Java Code)
+
+Developer JS: Hamid Zarrabi-Zadeh
+Developer Java: Metin Kale
+
+License: GNU LGPL v3.0
+
+TERMS OF USE:
+	Permission is granted to use this code, with or
+	without modification, in any website or application
+	provided that credit is given to the original work
+	with a link back to PrayTimes.org.
+
+This program is distributed in the hope that it will
+be useful, but WITHOUT ANY WARRANTY.
+
+PLEASE DO NOT REMOVE THIS COPYRIGHT BLOCK.
+
+*/
+
+package org.metinkale.praytimes;
+
+/**
+ * Immutable prayer times of a single day, calculated by {@link PrayTimesEngine}
+ */
+public final class DayTimes {
+    private final PrayTimesConfig config;
+    private final int year;
+    private final int month;
+    private final int day;
+    private final double[] times;
+
+    DayTimes(PrayTimesConfig config, int year, int month, int day, double[] times) {
+        this.config = config;
+        this.year = year;
+        this.month = month;
+        this.day = day;
+        this.times = times;
+    }
+
+    public PrayTimesConfig getConfig() {
+        return config;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public int getDay() {
+        return day;
+    }
+
+    /**
+     * @return true if these are the times of the given date
+     */
+    public boolean isDate(int year, int month, int day) {
+        return this.year == year && this.month == month && this.day == day;
+    }
+
+    /**
+     * @param t time from Constants
+     * @return time formatted as "HH:mm"
+     */
+    public String getTime(Times t) {
+        return Utils.toString(times[t.ordinal()]);
+    }
+
+    /**
+     * @param t time from Constants
+     * @return minutes of the day (0-1440), 0 if the time can not be calculated (same as "00:00" from {@link #getTime(Times)})
+     */
+    public int getTimeMinutes(Times t) {
+        return (int) Math.round(times[t.ordinal()] * 60);
+    }
+
+    /**
+     * @param t time from Constants
+     * @return time in hours (0-24)
+     */
+    public double getHours(Times t) {
+        return times[t.ordinal()];
+    }
+}
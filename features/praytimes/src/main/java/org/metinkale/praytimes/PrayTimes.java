@@ -29,9 +29,18 @@ import java.util.Calendar;
 import java.util.TimeZone;
 
 
+/**
+ * Mutable builder and single threaded cache of prayer times
+ * <p>
+ * Instances must not be shared between threads. To calculate from several threads, use the immutable {@link #getConfig()} with
+ * {@link PrayTimesEngine}.
+ */
 @SuppressWarnings({"WeakerAccess", "unused"})
 public class PrayTimes implements Serializable {
     // constants are at the bottom
+    private static final int TIMES_COUNT = Times.values().length;
+    // front, right, left, back
+    private static final double[] QIBLA_DIRECTIONS = {0, Math.PI / 2, -Math.PI / 2, Math.PI};
 
 
     private double lat, lng, elv;
@@ -44,41 +53,35 @@ public class PrayTimes implements Serializable {
     private int[] minutes = new int[Times.values().length];
     private double[] angles = new double[Times.values().length];
 
-    private transient double jdate;
     private transient int year;
     private transient int month;
     private transient int day;
-    private transient long timestamp;
-    private transient double[] times;
+    private transient volatile PrayTimesConfig config;
+    private transient DayTimes times;
     private transient String[] strTimes;
 
     public PrayTimes() {
         setMethod(Method.MWL);
     }
 
+    private void clearTimes() {
+        config = null;
+        times = null;
+        strTimes = null;
+    }
+
     /**
-     * convert Gregorian date to Julian day
-     * Ref: Astronomical Algorithms by Jean Meeus
+     * immutable snapshot of the current configuration, can be shared between threads
      *
-     * @param year  year
-     * @param month month
-     * @param day   day
-     * @return julian day
+     * @return config, the same instance until the configuration is changed
      */
-    private static double julian(int year, int month, int day) {
-        if (month <= 2) {
-            year -= 1;
-            month += 12;
+    public PrayTimesConfig getConfig() {
+        PrayTimesConfig config = this.config;
+        if (config == null) {
+            config = new PrayTimesConfig(lat, lng, elv, highLats, midnight, timeZone, minutes, angles);
+            this.config = config;
         }
-        double a = Math.floor(year / 100.0);
-        double b = (2 - a + Math.floor(a / 4.0));
-
-        return (Math.floor(365.25 * (year + 4716)) + Math.floor(30.6001 * (month + 1)) + day + b - 1524.5);
-    }
-
-    private void clearTimes() {
-        times = null;
-        strTimes = null;
+        return config;
     }
 
     /**
@@ -110,7 +113,8 @@ public class PrayTimes implements Serializable {
         this.month = month;
         this.day = day;
 
-        clearTimes();
+        times = null;
+        strTimes = null;
     }
 
     /**
@@ -121,157 +125,56 @@ public class PrayTimes implements Serializable {
      */
     public String getTime(Times t) {
         calculate();
-        return strTimes[t.ordinal()];
+        if (strTimes == null) {
+            strTimes = new String[TIMES_COUNT];
+        }
+        String str = strTimes[t.ordinal()];
+        if (str == null) {
+            str = times.getTime(t);
+            strTimes[t.ordinal()] = str;
+        }
+        return str;
     }
 
-
     /**
-     * calculate prayer times for a given date
+     * return prayer time for a given date in minutes of the day, without formatting it to a String
+     *
+     * @param t time from Constants
+     * @return minutes of the day (0-1440), 0 if the time can not be calculated (same as "00:00" from {@link #getTime(Times)})
      */
-    private void calculate() {
-        if (times != null && strTimes != null)
-            return;
-
-        Calendar cal = timeZone != null ? Calendar.getInstance(timeZone) : Calendar.getInstance();
-        cal.set(year, month - 1, day);
-        timestamp = cal.getTimeInMillis();
-        jdate = julian(year, month, day) - lng / (15.0 * 24.0);
-
-
-        // simple guess
-        times = new double[]{5, 5, 6, 12, 12, 13, 13, 18, 18, 18, 0};
-
-        // convert to day portions
-        for (int i = 0; i < times.length; i++) {
-            times[i] = times[i] / 24.0;
-        }
-
-        // first all angle based calculations are done
-
-        //Imsak: if angle is 0, use sunrise, given angle otherwhise (if angle is 0, calculation is probably minute based)
-        times[Times.Imsak.ordinal()] =
-                sunAngleTime(angles[Times.Imsak.ordinal()] == 0 ? riseSetAngle() : angles[Times.Imsak.ordinal()], times[Times.Imsak.ordinal()], true);
-        //Fajr: if angle is 0, use sunrise, angle otherwhise (if angle is 0, calculation is probably minute based)
-        times[Times.Fajr.ordinal()] =
-                sunAngleTime(angles[Times.Fajr.ordinal()] == 0 ? riseSetAngle() : angles[Times.Fajr.ordinal()], times[Times.Fajr.ordinal()], true);
-        // Sunrise: fix calculation
-        times[Times.Sunrise.ordinal()] = sunAngleTime(riseSetAngle(), times[Times.Sunrise.ordinal()], true);
-        // Zawal: fix calculation
-        times[Times.Zawal.ordinal()] = midDay(times[Times.Zawal.ordinal()]);
-        // Dhuhr: fix calculation
-        times[Times.Dhuhr.ordinal()] = midDay(times[Times.Dhuhr.ordinal()]);
-        // Asr Shafi: fix calculation, shadow factor 1
-        times[Times.AsrShafi.ordinal()] = asrTime(1, times[Times.AsrShafi.ordinal()]);
-        // Asr Shafi: fix calculation, shadow factor 2
-        times[Times.AsrHanafi.ordinal()] = asrTime(2, times[Times.AsrHanafi.ordinal()]);
-        // Sunset: fix calculation
-        times[Times.Sunset.ordinal()] = sunAngleTime(riseSetAngle(), times[Times.Sunset.ordinal()], false);
-        // Maghrib: if angle is 0, use sunset, given angle otherwhise
-        times[Times.Maghrib.ordinal()] =
-                sunAngleTime(angles[Times.Maghrib.ordinal()] == 0 ? riseSetAngle() : angles[Times.Maghrib.ordinal()], times[Times.Maghrib.ordinal()],
-                        false);
-        // Ishaa: if angle is 0, use sunset, given angle otherwhise (if angle is 0, calculation is probably minute based)
-        times[Times.Ishaa.ordinal()] =
-                sunAngleTime(angles[Times.Ishaa.ordinal()] == 0 ? riseSetAngle() : angles[Times.Ishaa.ordinal()], times[Times.Ishaa.ordinal()],
-                        false);
-        // midnight will be calculated later
-        // times[Times.Midnight.ordinal()] = 0;
-
-
-        if (highLats != HighLatsAdjustment.None) {
-            double nightTime = Utils.timeDiff(times[Times.Sunset.ordinal()], times[Times.Sunrise.ordinal()]);
-
-            times[Times.Imsak.ordinal()] =
-                    adjustHLTime(times[Times.Imsak.ordinal()], times[Times.Sunrise.ordinal()], angles[Times.Imsak.ordinal()], nightTime, true);
-            times[Times.Fajr.ordinal()] =
-                    adjustHLTime(times[Times.Fajr.ordinal()], times[Times.Sunrise.ordinal()], angles[Times.Fajr.ordinal()], nightTime, true);
-            times[Times.Ishaa.ordinal()] =
-                    adjustHLTime(times[Times.Ishaa.ordinal()], times[Times.Sunset.ordinal()], angles[Times.Ishaa.ordinal()], nightTime, false);
-            times[Times.Maghrib.ordinal()] =
-                    adjustHLTime(times[Times.Maghrib.ordinal()], times[Times.Sunset.ordinal()], angles[Times.Maghrib.ordinal()], nightTime, false);
-        }
-
-
-        // add midnight time
-        if (midnight == Midnight.Standard) {
-            times[Times.Midnight.ordinal()] =
-                    times[Times.Sunset.ordinal()] + Utils.timeDiff(times[Times.Sunset.ordinal()], times[Times.Sunrise.ordinal()]) / 2.0;
-        } else if (midnight == Midnight.Jafari) {
-            times[Times.Midnight.ordinal()] =
-                    times[Times.Sunset.ordinal()] + Utils.timeDiff(times[Times.Sunset.ordinal()], times[Times.Fajr.ordinal()]) / 2.0;
-        }
-
-
-        //  add minute offset and adjust timezone
-        double offset = getTimeZoneOffset();
-        for (int i = 0; i < times.length; i++) {
-            times[i] += minutes[i] / 60.0;
-            times[i] += offset - lng / 15.0;
-
-            while (times[i] > 24) {
-                times[i] -= 24;
-            }
-            while (times[i] < 0) {
-                times[i] += 24;
-            }
-        }
-
-
-        // convert to string
-        strTimes = new String[times.length];
-        for (int i = 0; i < times.length; i++) {
-            strTimes[i] = Utils.toString(times[i]);
-        }
+    public int getTimeMinutes(Times t) {
+        calculate();
+        return times.getTimeMinutes(t);
     }
 
+
     /**
-     * adjust a time for higher latitudes
+     * calculates prayer times for consecutive days, without allocating per day
      * <p>
-     * how it works:
-     * dependend on the calculation method there is a maximum night portion, that might be used from time to base
-     * <p>
-     * (e.g.) if NightMiddle is taken and the calculated fajr takes more than the half night, it will be fixed to midnight
+     * Times are written as minutes since epoch (UTC) to out[d * Times.values().length + t.ordinal()] for the d-th day.
+     * Times which can not be calculated (e.g. Ishaa in higher latitudes without {@link HighLatsAdjustment}) are set to the start of the day,
+     * as {@link #getTime(Times)} returns "00:00" for them.
+     * The timezone offset is taken at local noon of each day, as in {@link PrayTimesEngine#compute(PrayTimesConfig, int, int, int)}.
      *
-     * @param time  time
-     * @param base  base
-     * @param angle angle
-     * @param night night time
-     * @param ccw   true if clock-counter-wise, false otherwise
-     * @return adjusted time
+     * @param year  Year of the first day (e.g. 2017)
+     * @param month Month of the first day (1-12)
+     * @param day   Day of month of the first day
+     * @param days  number of days
+     * @param out   array for the times, must hold at least days * Times.values().length values
      */
-    private double adjustHLTime(double time, double base, double angle, double night, boolean ccw) {
-        double maxPortion = maxNightPortion(angle);
-        double maxDuration = maxPortion * night;
-
-        double timeDiff = (ccw) ? Utils.timeDiff(time, base) : Utils.timeDiff(base, time);
-        if (Double.isNaN(time) || timeDiff > maxPortion)
-            time = base + (ccw ? -maxPortion : maxPortion);
-        return time;
+    public void calculateRange(int year, int month, int day, int days, long[] out) {
+        if (out.length < days * TIMES_COUNT)
+            throw new IllegalArgumentException("out must hold at least " + days * TIMES_COUNT + " values");
+        new PrayTimesEngine.Calculation(getConfig()).computeRange(year, month, day, days, out);
     }
 
     /**
-     * the maximum night portion used for adjusting times in higher latitudes
-     *
-     * @param angle angle
-     * @return night portion
+     * calculate prayer times for a given date
      */
-    private double maxNightPortion(double angle) {
-        double portion = 0;
-        switch (highLats) {
-            case None:
-                portion = 1;
-                break;
-            case AngleBased:
-                portion = 1.0 / 60.0 * angle;
-                break;
-            case OneSeventh:
-                portion = 1.0 / 7.0;
-                break;
-            case NightMiddle:
-                portion = 1.0 / 2.0;
-                break;
+    private void calculate() {
+        if (times == null) {
+            times = PrayTimesEngine.compute(getConfig(), year, month, day);
         }
-        return portion;
     }
 
     /**
@@ -285,122 +188,59 @@ public class PrayTimes implements Serializable {
         Calendar cal = Calendar.getInstance(timeZone);
         //noinspection MagicConstant
         cal.set(year, month - 1, day, 12, 0, 0);
-        long[] qibla = new long[4];
-        qibla[0] = QiblaTimeCalculator.findQiblaTime(cal.getTimeInMillis(), lat, lng, 0);
-        qibla[1] = QiblaTimeCalculator.findQiblaTime(cal.getTimeInMillis(), lat, lng, Math.PI / 2);
-        qibla[2] = QiblaTimeCalculator.findQiblaTime(cal.getTimeInMillis(), lat, lng, -Math.PI / 2);
-        qibla[3] = QiblaTimeCalculator.findQiblaTime(cal.getTimeInMillis(), lat, lng, Math.PI);
-        double[] qiblaD = new double[4];
-        String[] qiblaS = new String[4];
-        double sunrise = times[Times.Sunrise.ordinal()];
-        double sunset = times[Times.Sunset.ordinal()];
-
-        for (int i = 0; i < 4; i++) {
-            cal.setTimeInMillis(qibla[i]);
-            qiblaD[i] = cal.get(Calendar.HOUR_OF_DAY) + cal.get(Calendar.MINUTE) / 60d + cal.get(Calendar.SECOND) / 3600d;
-            if (qiblaD[i] < sunrise || qiblaD[i] > sunset) {
-                qiblaD[i] = 0;
-                qiblaS[i] = null;
-            } else {
-                qiblaS[i] = Utils.toString(qiblaD[i]);
-            }
-
-
-        }
-        QiblaTime qt = new QiblaTime();
-        qt.front = qiblaS[0];
-        qt.right = qiblaS[1];
-        qt.left = qiblaS[2];
-        qt.back = qiblaS[3];
-
-        return qt;
+        return getQiblaTime(new QiblaTimeCalculator(lat, lng), cal, times.getHours(Times.Sunrise), times.getHours(Times.Sunset));
     }
 
-
     /**
-     * compute asr time
-     *
-     * @param factor Shadow Factor
-     * @param time   default  time
-     * @return asr time
-     */
-    private double asrTime(int factor, double time) {
-        double decl = this.sunPositionDeclination(jdate + time);
-        double angle = -DMath.arccot(factor + DMath.tan(Math.abs(lat - decl)));
-        return this.sunAngleTime(angle, time, false);
-    }
-
-
-    /**
-     * compute the time at which sun reaches a specific angle below horizon
-     *
-     * @param angle angle
-     * @param time  default time
-     * @param ccw   true if counter-clock-wise, false otherwise
-     * @return time
-     */
-    private double sunAngleTime(double angle, double time, boolean ccw) {
-        double decl = this.sunPositionDeclination(jdate + time);
-        double noon = this.midDay(time);
-        double t = 1.0 / 15.0 * DMath.arccos((-DMath.sin(angle) - DMath.sin(decl) * DMath.sin(lat)) / (DMath.cos(decl) * DMath.cos(lat)));
-        return noon + (ccw ? -t : t);
-    }
-
-    /**
-     * compute mid-day time
-     *
-     * @param time default time
-     * @return midday time
-     */
-    private double midDay(double time) {
-        double eqt = this.equationOfTime(jdate + time);
-        return DMath.fixHour(12 - eqt);
-    }
-
-    /**
-     * compute equation of time
-     * Ref: http://aa.usno.navy.mil/faq/docs/SunApprox.php
+     * Calculates the qibla times for consecutive days, starting at the set date
+     * <p>
+     * Same as calling {@link #getQiblaTime()} for each day, but the location dependent values are only calculated once.
      *
-     * @param jd julian date
-     * @return equation of time
+     * @param days number of days
+     * @return Qibla Times, one for each day
      */
-    private double equationOfTime(double jd) {
-        double d = jd - 2451545.0;
-        double g = DMath.fixAngle(357.529 + 0.98560028 * d);
-        double q = DMath.fixAngle(280.459 + 0.98564736 * d);
-        double l = DMath.fixAngle(q + 1.915 * DMath.sin(g) + 0.020 * DMath.sin(2 * g));
-        double e = 23.439 - 0.00000036 * d;
-        double ra = DMath.arctan2(DMath.cos(e) * DMath.sin(l), DMath.cos(l)) / 15;
-        return q / 15.0 - DMath.fixHour(ra);
+    public QiblaTime[] getQiblaTimes(int days) {
+        QiblaTimeCalculator calculator = new QiblaTimeCalculator(lat, lng);
+        QiblaTime[] qiblaTimes = new QiblaTime[days];
+        PrayTimesEngine.Calculation calc = new PrayTimesEngine.Calculation(getConfig());
+        Calendar cal = Calendar.getInstance(timeZone);
+        for (int d = 0; d < days; d++) {
+            DayTimes dayTimes = calc.compute(year, month, day + d);
+            //noinspection MagicConstant
+            cal.set(year, month - 1, day + d, 12, 0, 0);
+            qiblaTimes[d] = getQiblaTime(calculator, cal, dayTimes.getHours(Times.Sunrise), dayTimes.getHours(Times.Sunset));
+        }
+        return qiblaTimes;
     }
 
     /**
-     * compute  declination angle of sun
-     * Ref: http://aa.usno.navy.mil/faq/docs/SunApprox.php
-     *
-     * @param jd julian date
-     * @return declination angle of sun
+     * @param cal     noon of the day, will be changed
+     * @param sunrise sunrise in hours
+     * @param sunset  sunset in hours
+     * @return qibla times of the day, only times between sunrise and sunset are set
      */
-    private double sunPositionDeclination(double jd) {
-        double d = jd - 2451545.0;
-        double g = DMath.fixAngle(357.529 + 0.98560028 * d);
-        double q = DMath.fixAngle(280.459 + 0.98564736 * d);
-        double l = DMath.fixAngle(q + 1.915 * DMath.sin(g) + 0.020 * DMath.sin(2 * g));
-        double e = 23.439 - 0.00000036 * d;
-        return DMath.arcsin(DMath.sin(e) * DMath.sin(l));
-    }
+    private static QiblaTime getQiblaTime(QiblaTimeCalculator calculator, Calendar cal, double sunrise, double sunset) {
+        long noon = cal.getTimeInMillis();
+        String[] qiblaS = new String[QIBLA_DIRECTIONS.length];
+        for (int i = 0; i < QIBLA_DIRECTIONS.length; i++) {
+            long qibla = calculator.findQiblaTime(noon, QIBLA_DIRECTIONS[i]);
+            if (qibla == 0) {
+                continue;
+            }
+            cal.setTimeInMillis(qibla);
+            double qiblaD = cal.get(Calendar.HOUR_OF_DAY) + cal.get(Calendar.MINUTE) / 60d + cal.get(Calendar.SECOND) / 3600d;
+            if (qiblaD >= sunrise && qiblaD <= sunset) {
+                qiblaS[i] = Utils.toString(qiblaD);
+            }
+        }
 
+        QiblaTime qt = new QiblaTime();
+        qt.front = qiblaS[0];
+        qt.right = qiblaS[1];
+        qt.left = qiblaS[2];
+        qt.back = qiblaS[3];
 
-    /**
-     * compute sun angle for sunset/sunrise
-     *
-     * @return sun angle of sunset/sunrise
-     */
-    private double riseSetAngle() {
-        //double earthRad = 6371009; // in meters
-        //double angle = DMath.arccos(earthRad/(earthRad+ elv));
-        double angle = 0.0347 * Math.sqrt(elv); // an approximation
-        return 0.833 + angle;
+        return qt;
     }
 
 
@@ -617,16 +457,6 @@ public class PrayTimes implements Serializable {
         clearTimes();
     }
 
-    /**
-     * get Timezone offset for specific date
-     *
-     * @return time zone offset
-     */
-    private double getTimeZoneOffset() {
-        if (timeZone == null) return 0;
-        return timeZone.getOffset(timestamp) / 1000.0 / 60 / 60;
-    }
-
     public TimeZone getTimeZone() {
         return timeZone;
     }
@@ -0,0 +1,90 @@
+/*
+PrayTimes-Java: Prayer Times Java Calculator (ver 0.9)
+
+Copyright (C) 2007-2011 PrayTimes.org (JS Code ver 2.3)
+Copyright (C) 2017 Metin Kale (Java Code)
+
+Developer JS: Hamid Zarrabi-Zadeh
+Developer Java: Metin Kale
+
+License: GNU LGPL v3.0
+
+TERMS OF USE:
+	Permission is granted to use this code, with or
+	without modification, in any website or application
+	provided that credit is given to the original work
+	with a link back to PrayTimes.org.
+
+This program is distributed in the hope that it will
+be useful, but WITHOUT ANY WARRANTY.
+
+PLEASE DO NOT REMOVE THIS COPYRIGHT BLOCK.
+
+*/
+
+package org.metinkale.praytimes;
+
+import java.io.Serializable;
+import java.util.TimeZone;
+
+/**
+ * Immutable configuration of a {@link PrayTimes} (location, method, adjustments and timezone)
+ * <p>
+ * Configs are created with {@link PrayTimes#getConfig()} and can be shared between threads, see {@link PrayTimesEngine}.
+ */
+public final class PrayTimesConfig implements Serializable {
+    private static final long serialVersionUID = 1L;
+    final double lat, lng, elv;
+    final HighLatsAdjustment highLats;
+    final Midnight midnight;
+    final TimeZone timeZone;
+    final int[] minutes;
+    final double[] angles;
+
+    PrayTimesConfig(double lat, double lng, double elv, HighLatsAdjustment highLats, Midnight midnight, TimeZone timeZone,
+                    int[] minutes, double[] angles) {
+        this.lat = lat;
+        this.lng = lng;
+        this.elv = elv;
+        this.highLats = highLats;
+        this.midnight = midnight;
+        this.timeZone = timeZone == null ? null : (TimeZone) timeZone.clone();
+        this.minutes = minutes.clone();
+        this.angles = angles.clone();
+    }
+
+    public double getLatitude() {
+        return lat;
+    }
+
+    public double getLongitude() {
+        return lng;
+    }
+
+    public double getElevation() {
+        return elv;
+    }
+
+    public HighLatsAdjustment getHighLatsAdjustment() {
+        return highLats;
+    }
+
+    public Midnight getMidnightMode() {
+        return midnight;
+    }
+
+    /**
+     * @return a copy of the timezone
+     */
+    public TimeZone getTimeZone() {
+        return timeZone == null ? null : (TimeZone) timeZone.clone();
+    }
+
+    public int getMinuteAdjust(Times t) {
+        return minutes[t.ordinal()];
+    }
+
+    public double getAngle(Times t) {
+        return angles[t.ordinal()];
+    }
+}
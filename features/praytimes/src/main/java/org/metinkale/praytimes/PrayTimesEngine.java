@@ -0,0 +1,501 @@
+/*
+PrayTimes-Java: Prayer Times Java Calculator (ver 0.9)
+
+Copyright (C) 2007-2011 PrayTimes.org (JS Code ver 2.3)
+Copyright (C) 2017 Metin Kale (Java Code)
+
+Developer JS: Hamid Zarrabi-Zadeh
+Developer Java: Metin Kale
+
+License: GNU LGPL v3.0
+
+TERMS OF USE:
+	Permission is granted to use this code, with or
+	without modification, in any website or application
+	provided that credit is given to the original work
+	with a link back to PrayTimes.org.
+
+This program is distributed in the hope that it will
+be useful, but WITHOUT ANY WARRANTY.
+
+PLEASE DO NOT REMOVE THIS COPYRIGHT BLOCK.
+
+*/
+
+package org.metinkale.praytimes;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Stateless calculation of prayer times
+ * <p>
+ * All methods only read the given {@link PrayTimesConfig} and can be called from any thread without locking. Ranges of days
+ * and lists of cities are split over a fork-join pool, small jobs are calculated on the calling thread.
+ */
+public final class PrayTimesEngine {
+    private static final int TIMES_COUNT = Times.values().length;
+    private static final double[] DEFAULT_TIMES = {5 / 24.0, 5 / 24.0, 6 / 24.0, 12 / 24.0, 12 / 24.0, 13 / 24.0, 13 / 24.0, 18 / 24.0, 18 / 24.0, 18 / 24.0, 0};
+    private static final double J1970 = 2440587.5;
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000;
+    // days (or cities) calculated by a single task
+    private static final int THRESHOLD = 16;
+    private static ForkJoinPool sPool;
+
+    private PrayTimesEngine() {
+    }
+
+    /**
+     * calculates the prayer times of a day
+     * <p>
+     * The timezone offset is taken at local noon of the day.
+     *
+     * @param config configuration
+     * @param year   Year (e.g. 2017)
+     * @param month  Month (1-12)
+     * @param day    Day of month, might overflow into the next months
+     * @return times of the day
+     */
+    public static DayTimes compute(PrayTimesConfig config, int year, int month, int day) {
+        return new Calculation(config).compute(year, month, day);
+    }
+
+    /**
+     * calculates the prayer times of consecutive days in parallel
+     *
+     * @param config configuration
+     * @param year   Year of the first day (e.g. 2017)
+     * @param month  Month of the first day (1-12)
+     * @param day    Day of month of the first day
+     * @param days   number of days
+     * @return times, one for each day
+     */
+    public static DayTimes[] computeRange(PrayTimesConfig config, int year, int month, int day, int days) {
+        DayTimes[] result = new DayTimes[days];
+        invoke(new Task(new PrayTimesConfig[]{config}, true, year, month, day, result, 0, days));
+        return result;
+    }
+
+    /**
+     * calculates the prayer times of a day for many configurations (e.g. all cities) in parallel
+     *
+     * @param configs configurations
+     * @param year    Year (e.g. 2017)
+     * @param month   Month (1-12)
+     * @param day     Day of month
+     * @return times, one for each configuration
+     */
+    public static DayTimes[] computeAll(PrayTimesConfig[] configs, int year, int month, int day) {
+        DayTimes[] result = new DayTimes[configs.length];
+        invoke(new Task(configs, false, year, month, day, result, 0, configs.length));
+        return result;
+    }
+
+    private static void invoke(Task task) {
+        if (task.to - task.from <= THRESHOLD) {
+            task.compute();
+        } else {
+            getPool().invoke(task);
+        }
+    }
+
+    private static synchronized ForkJoinPool getPool() {
+        if (sPool == null) {
+            sPool = new ForkJoinPool();
+        }
+        return sPool;
+    }
+
+    /**
+     * convert Gregorian date to Julian day
+     * Ref: Astronomical Algorithms by Jean Meeus
+     *
+     * @param year  year
+     * @param month month
+     * @param day   day
+     * @return julian day
+     */
+    static double julian(int year, int month, int day) {
+        if (month <= 2) {
+            year -= 1;
+            month += 12;
+        }
+        double a = Math.floor(year / 100.0);
+        double b = (2 - a + Math.floor(a / 4.0));
+
+        return (Math.floor(365.25 * (year + 4716)) + Math.floor(30.6001 * (month + 1)) + day + b - 1524.5);
+    }
+
+    /**
+     * calculates result[from..to), either the days of a single config or a single day of all configs
+     */
+    private static final class Task extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final PrayTimesConfig[] configs;
+        private final boolean range;
+        private final int year;
+        private final int month;
+        private final int day;
+        private final DayTimes[] result;
+        private final int from;
+        private final int to;
+
+        Task(PrayTimesConfig[] configs, boolean range, int year, int month, int day, DayTimes[] result, int from, int to) {
+            this.configs = configs;
+            this.range = range;
+            this.year = year;
+            this.month = month;
+            this.day = day;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Task(configs, range, year, month, day, result, from, mid),
+                        new Task(configs, range, year, month, day, result, mid, to));
+                return;
+            }
+
+            if (range) {
+                // one calculation for all days, so the ephemeris is reused
+                Calculation calc = new Calculation(configs[0]);
+                for (int i = from; i < to; i++) {
+                    result[i] = calc.compute(year, month, day + i);
+                }
+            } else {
+                for (int i = from; i < to; i++) {
+                    result[i] = new Calculation(configs[i]).compute(year, month, day);
+                }
+            }
+        }
+    }
+
+    /**
+     * calculation of a single configuration
+     * <p>
+     * Only used by one thread at a time, the last ephemeris is kept for the following calls.
+     */
+    static final class Calculation {
+        private final double lat, lng, elv;
+        private final HighLatsAdjustment highLats;
+        private final Midnight midnight;
+        private final TimeZone timeZone;
+        private final int[] minutes;
+        private final double[] angles;
+        private final PrayTimesConfig config;
+        private SolarEphemeris ephemeris;
+        private Calendar calendar;
+
+        Calculation(PrayTimesConfig config) {
+            this.config = config;
+            lat = config.lat;
+            lng = config.lng;
+            elv = config.elv;
+            highLats = config.highLats;
+            midnight = config.midnight;
+            timeZone = config.timeZone;
+            minutes = config.minutes;
+            angles = config.angles;
+        }
+
+        DayTimes compute(int year, int month, int day) {
+            Calendar cal = getCalendar();
+            //noinspection MagicConstant
+            cal.set(year, month - 1, day, 12, 0, 0);
+            // normalize overflowing days
+            year = cal.get(Calendar.YEAR);
+            month = cal.get(Calendar.MONTH) + 1;
+            day = cal.get(Calendar.DAY_OF_MONTH);
+
+            double[] times = new double[TIMES_COUNT];
+            computeTimes(julian(year, month, day) - lng / (15.0 * 24.0), times);
+
+            //  add minute offset and adjust timezone
+            double offset = getTimeZoneOffset(cal.getTimeInMillis());
+            for (int i = 0; i < times.length; i++) {
+                times[i] = adjustTime(times[i], i, offset);
+            }
+            return new DayTimes(config, year, month, day, times);
+        }
+
+        /**
+         * @see PrayTimes#calculateRange(int, int, int, int, long[])
+         */
+        void computeRange(int year, int month, int day, int days, long[] out) {
+            double[] work = new double[TIMES_COUNT];
+            double jd = julian(year, month, day);
+            long epochDay = Math.round(jd - J1970);
+            for (int d = 0; d < days; d++) {
+                computeTimes(jd + d - lng / (15.0 * 24.0), work);
+
+                int offsetMinutes = timeZone == null ? 0 : getLocalNoonOffset(epochDay + d) / 60000;
+                long dayStart = (epochDay + d) * 24 * 60 - offsetMinutes;
+                for (int i = 0; i < TIMES_COUNT; i++) {
+                    out[d * TIMES_COUNT + i] = dayStart + Math.round(adjustTime(work[i], i, offsetMinutes / 60.0) * 60);
+                }
+            }
+        }
+
+        /**
+         * @param epochDay days since 1970-01-01
+         * @return timezone offset in milliseconds at local noon of the day, same as in {@link #compute(int, int, int)}
+         */
+        private int getLocalNoonOffset(long epochDay) {
+            long utcNoon = epochDay * DAY_MILLIS + DAY_MILLIS / 2;
+            return timeZone.getOffset(utcNoon - timeZone.getOffset(utcNoon));
+        }
+
+        /**
+         * @return a calendar in the timezone of the config, cleared
+         */
+        Calendar getCalendar() {
+            if (calendar == null) {
+                calendar = timeZone != null ? Calendar.getInstance(timeZone) : Calendar.getInstance();
+                calendar.clear();
+            }
+            return calendar;
+        }
+
+        /**
+         * @param millis time
+         * @return timezone offset in hours
+         */
+        double getTimeZoneOffset(long millis) {
+            if (timeZone == null) return 0;
+            return timeZone.getOffset(millis) / 1000.0 / 60 / 60;
+        }
+
+        /**
+         * calculates the times of a day (in day portions, without minute adjustments and timezone)
+         *
+         * @param jdate julian date, corrected by longitude
+         * @param times array for the times
+         */
+        void computeTimes(double jdate, double[] times) {
+            // simple guess
+            System.arraycopy(DEFAULT_TIMES, 0, times, 0, TIMES_COUNT);
+
+            // first all angle based calculations are done
+
+            //Imsak: if angle is 0, use sunrise, given angle otherwhise (if angle is 0, calculation is probably minute based)
+            times[Times.Imsak.ordinal()] =
+                    sunAngleTime(jdate, angles[Times.Imsak.ordinal()] == 0 ? riseSetAngle() : angles[Times.Imsak.ordinal()], times[Times.Imsak.ordinal()], true);
+            //Fajr: if angle is 0, use sunrise, angle otherwhise (if angle is 0, calculation is probably minute based)
+            times[Times.Fajr.ordinal()] =
+                    sunAngleTime(jdate, angles[Times.Fajr.ordinal()] == 0 ? riseSetAngle() : angles[Times.Fajr.ordinal()], times[Times.Fajr.ordinal()], true);
+            // Sunrise: fix calculation
+            times[Times.Sunrise.ordinal()] = sunAngleTime(jdate, riseSetAngle(), times[Times.Sunrise.ordinal()], true);
+            // Zawal: fix calculation
+            times[Times.Zawal.ordinal()] = midDay(jdate, times[Times.Zawal.ordinal()]);
+            // Dhuhr: fix calculation
+            times[Times.Dhuhr.ordinal()] = midDay(jdate, times[Times.Dhuhr.ordinal()]);
+            // Asr Shafi: fix calculation, shadow factor 1
+            times[Times.AsrShafi.ordinal()] = asrTime(jdate, 1, times[Times.AsrShafi.ordinal()]);
+            // Asr Shafi: fix calculation, shadow factor 2
+            times[Times.AsrHanafi.ordinal()] = asrTime(jdate, 2, times[Times.AsrHanafi.ordinal()]);
+            // Sunset: fix calculation
+            times[Times.Sunset.ordinal()] = sunAngleTime(jdate, riseSetAngle(), times[Times.Sunset.ordinal()], false);
+            // Maghrib: if angle is 0, use sunset, given angle otherwhise
+            times[Times.Maghrib.ordinal()] =
+                    sunAngleTime(jdate, angles[Times.Maghrib.ordinal()] == 0 ? riseSetAngle() : angles[Times.Maghrib.ordinal()],
+                            times[Times.Maghrib.ordinal()], false);
+            // Ishaa: if angle is 0, use sunset, given angle otherwhise (if angle is 0, calculation is probably minute based)
+            times[Times.Ishaa.ordinal()] =
+                    sunAngleTime(jdate, angles[Times.Ishaa.ordinal()] == 0 ? riseSetAngle() : angles[Times.Ishaa.ordinal()], times[Times.Ishaa.ordinal()],
+                            false);
+            // midnight will be calculated later
+            // times[Times.Midnight.ordinal()] = 0;
+
+
+            if (highLats != HighLatsAdjustment.None) {
+                double nightTime = Utils.timeDiff(times[Times.Sunset.ordinal()], times[Times.Sunrise.ordinal()]);
+
+                times[Times.Imsak.ordinal()] =
+                        adjustHLTime(times[Times.Imsak.ordinal()], times[Times.Sunrise.ordinal()], angles[Times.Imsak.ordinal()], nightTime, true);
+                times[Times.Fajr.ordinal()] =
+                        adjustHLTime(times[Times.Fajr.ordinal()], times[Times.Sunrise.ordinal()], angles[Times.Fajr.ordinal()], nightTime, true);
+                times[Times.Ishaa.ordinal()] =
+                        adjustHLTime(times[Times.Ishaa.ordinal()], times[Times.Sunset.ordinal()], angles[Times.Ishaa.ordinal()], nightTime, false);
+                times[Times.Maghrib.ordinal()] =
+                        adjustHLTime(times[Times.Maghrib.ordinal()], times[Times.Sunset.ordinal()], angles[Times.Maghrib.ordinal()], nightTime, false);
+            }
+
+
+            // add midnight time
+            if (midnight == Midnight.Standard) {
+                times[Times.Midnight.ordinal()] =
+                        times[Times.Sunset.ordinal()] + Utils.timeDiff(times[Times.Sunset.ordinal()], times[Times.Sunrise.ordinal()]) / 2.0;
+            } else if (midnight == Midnight.Jafari) {
+                times[Times.Midnight.ordinal()] =
+                        times[Times.Sunset.ordinal()] + Utils.timeDiff(times[Times.Sunset.ordinal()], times[Times.Fajr.ordinal()]) / 2.0;
+            }
+        }
+
+        /**
+         * adds the minute offset and adjusts a time to the timezone
+         *
+         * @param time   time
+         * @param index  ordinal of the time
+         * @param offset timezone offset in hours
+         * @return adjusted time in range 0-24
+         */
+        double adjustTime(double time, int index, double offset) {
+            time += minutes[index] / 60.0;
+            time += offset - lng / 15.0;
+
+            while (time > 24) {
+                time -= 24;
+            }
+            while (time < 0) {
+                time += 24;
+            }
+            return time;
+        }
+
+        /**
+         * adjust a time for higher latitudes
+         * <p>
+         * how it works:
+         * dependend on the calculation method there is a maximum night portion, that might be used from time to base
+         * <p>
+         * (e.g.) if NightMiddle is taken and the calculated fajr takes more than the half night, it will be fixed to midnight
+         *
+         * @param time  time
+         * @param base  base
+         * @param angle angle
+         * @param night night time
+         * @param ccw   true if clock-counter-wise, false otherwise
+         * @return adjusted time
+         */
+        private double adjustHLTime(double time, double base, double angle, double night, boolean ccw) {
+            double maxPortion = maxNightPortion(angle);
+            double maxDuration = maxPortion * night;
+
+            double timeDiff = (ccw) ? Utils.timeDiff(time, base) : Utils.timeDiff(base, time);
+            if (Double.isNaN(time) || timeDiff > maxPortion)
+                time = base + (ccw ? -maxPortion : maxPortion);
+            return time;
+        }
+
+        /**
+         * the maximum night portion used for adjusting times in higher latitudes
+         *
+         * @param angle angle
+         * @return night portion
+         */
+        private double maxNightPortion(double angle) {
+            double portion = 0;
+            switch (highLats) {
+                case None:
+                    portion = 1;
+                    break;
+                case AngleBased:
+                    portion = 1.0 / 60.0 * angle;
+                    break;
+                case OneSeventh:
+                    portion = 1.0 / 7.0;
+                    break;
+                case NightMiddle:
+                    portion = 1.0 / 2.0;
+                    break;
+            }
+            return portion;
+        }
+
+        /**
+         * compute asr time
+         *
+         * @param jdate  julian date
+         * @param factor Shadow Factor
+         * @param time   default  time
+         * @return asr time
+         */
+        private double asrTime(double jdate, int factor, double time) {
+            double decl = this.sunPositionDeclination(jdate + time);
+            double angle = -DMath.arccot(factor + DMath.tan(Math.abs(lat - decl)));
+            return this.sunAngleTime(jdate, angle, time, false);
+        }
+
+
+        /**
+         * compute the time at which sun reaches a specific angle below horizon
+         *
+         * @param jdate julian date
+         * @param angle angle
+         * @param time  default time
+         * @param ccw   true if counter-clock-wise, false otherwise
+         * @return time
+         */
+        private double sunAngleTime(double jdate, double angle, double time, boolean ccw) {
+            double decl = this.sunPositionDeclination(jdate + time);
+            double noon = this.midDay(jdate, time);
+            double t = 1.0 / 15.0 * DMath.arccos((-DMath.sin(angle) - DMath.sin(decl) * DMath.sin(lat)) / (DMath.cos(decl) * DMath.cos(lat)));
+            return noon + (ccw ? -t : t);
+        }
+
+        /**
+         * compute mid-day time
+         *
+         * @param jdate julian date
+         * @param time  default time
+         * @return midday time
+         */
+        private double midDay(double jdate, double time) {
+            double eqt = this.equationOfTime(jdate + time);
+            return DMath.fixHour(12 - eqt);
+        }
+
+        /**
+         * compute equation of time
+         *
+         * @param jd julian date
+         * @return equation of time, might be off by 24 hours
+         * @see SolarEphemeris
+         */
+        private double equationOfTime(double jd) {
+            return getEphemeris(jd).getEquationOfTime(jd);
+        }
+
+        /**
+         * compute  declination angle of sun
+         *
+         * @param jd julian date
+         * @return declination angle of sun
+         * @see SolarEphemeris
+         */
+        private double sunPositionDeclination(double jd) {
+            return getEphemeris(jd).getDeclination(jd);
+        }
+
+        /**
+         * the ephemeris of the last call is kept, the times of a day are mostly in the same day
+         */
+        private SolarEphemeris getEphemeris(double jd) {
+            SolarEphemeris ephemeris = this.ephemeris;
+            if (ephemeris == null || !ephemeris.contains(jd)) {
+                ephemeris = SolarEphemeris.get(jd);
+                this.ephemeris = ephemeris;
+            }
+            return ephemeris;
+        }
+
+
+        /**
+         * compute sun angle for sunset/sunrise
+         *
+         * @return sun angle of sunset/sunrise
+         */
+        private double riseSetAngle() {
+            //double earthRad = 6371009; // in meters
+            //double angle = DMath.arccos(earthRad/(earthRad+ elv));
+            double angle = 0.0347 * Math.sqrt(elv); // an approximation
+            return 0.833 + angle;
+        }
+    }
+}
@@ -35,15 +35,42 @@ package org.metinkale.praytimes;
 /**
  * calculates qibla angle based on location and date
  * <p>
- * Note: might be a inefficient solution (searching for correct angle in loop), but you are welcome to help me improving it
- * i do not have enough knowledge in this field, so i had to use existing codes for the sun azimuth calculation
+ * The time is first estimated in closed form: with the declination of the sun fixed, the sun has the qibla azimuth at the hour
+ * angle H with a * sin(H) + b * cos(H) = c. The estimate is then refined with Newton steps on the real azimuth. As soon as the
+ * root is bracketed, steps leaving the bracket are replaced by bisection, so the solver always converges.
+ * <p>
+ * An instance keeps everything depending on the location, use one instance for calculating multiple days.
  */
 class QiblaTimeCalculator {
 
     //==========================Qibla Calculation Code==========================
 
+    // the estimate is usually off by less than a minute, give up if newton leaves this range
+    private final static double MAX_CORRECTION = 2 * 60 * 60 * 1000;
+    private final static double TOLERANCE = 0.000001;
+    private final static double ACCURACY = 1000;
+    private final static int MAX_ITERATIONS = 50;
+
+    private final double phi;
+    private final double lw;
+    private final double sinPhi;
+    private final double cosPhi;
+    private final double qibla;
+    // derivative of the azimuth (per ms), set by getOffset
+    private double derivative;
+
+    QiblaTimeCalculator(double lat, double lng) {
+        phi = rad * lat;
+        lw = rad * -lng;
+        sinPhi = Math.sin(phi);
+        cosPhi = Math.cos(phi);
+        qibla = getAngle(lat, lng);
+    }
+
     /**
      * calculates the qibla angle, for looking to the sun, or turning away from sun
+     * <p>
+     * kept for compatibility with the former static API, {@link PrayTimes} reuses one instance per location instead
      *
      * @param mills     time
      * @param lat       latitude
@@ -54,32 +81,128 @@ class QiblaTimeCalculator {
      * @return time
      */
     static long findQiblaTime(long mills, double lat, double lng, double direction) {
-        long inputMills = mills;
-        double angle = getAngle(lat, lng);
-        if (direction != 0)
-            angle = (angle + direction) % (2 * Math.PI);
-
-        double azimuth = 0;
-        double last = 0;
-        double add = 1;
-        int i = 0;
-        while (Math.abs(angle - azimuth) > 0.0001) {
-            azimuth = Math.PI + getAzimuth(mills, lat, lng);
-            if ((azimuth > angle && angle > last) || (last > angle && angle > azimuth)) {
-                add *= -0.5;
+        return new QiblaTimeCalculator(lat, lng).findQiblaTime(mills, direction);
+    }
+
+    /**
+     * same as {@link #findQiblaTime(long, double, double, double)} for the location of this instance
+     *
+     * @param mills     time, the qibla time closest to it is returned (e.g. noon)
+     * @param direction see {@link #findQiblaTime(long, double, double, double)}
+     * @return time, 0 if the sun does not reach the angle
+     */
+    long findQiblaTime(long mills, double direction) {
+        // azimuths from SunCalc are measured from south
+        double target = wrap(qibla + direction - Math.PI);
+
+        double J = dateToJulianDate(mills);
+        double M = getSolarMeanAnomaly(J);
+        double Ls = getEclipticLongitude(M, getEquationOfCenter(M));
+        double d = getSunDeclination(Ls);
+        double H0 = getSiderealTime(J, lw) - getRightAscension(Ls);
+
+        // tan(target) = sin(H) / (cos(H) * sin(phi) - tan(d) * cos(phi)), written as a * sin(H) + b * cos(H) = c
+        double sinTarget = Math.sin(target);
+        double a = Math.cos(target);
+        double b = -sinPhi * sinTarget;
+        double c = -Math.tan(d) * cosPhi * sinTarget;
+        double r = Math.hypot(a, b);
+        if (r == 0 || Math.abs(c) > r) {
+            return 0;
+        }
+        double asin = Math.asin(c / r);
+        double delta = Math.atan2(b, a);
+
+        double estimate = Double.NaN;
+        for (int i = 0; i < 2; i++) {
+            double H = i == 0 ? asin - delta : Math.PI - asin - delta;
+            // the opposite azimuth has the same tangent
+            if (Math.abs(wrap(getAzimuth(H, phi, d) - target)) > 0.01) {
+                continue;
             }
-            if (azimuth == last) {
-                return 0;
+            double dt = wrap(H - H0) * dayMs / th1;
+            if (Double.isNaN(estimate) || Math.abs(dt) < Math.abs(estimate)) {
+                estimate = dt;
+            }
+        }
+        if (Double.isNaN(estimate)) {
+            return 0;
+        }
+
+        return solve(mills + estimate, target);
+    }
+
+    /**
+     * refines the estimate with safeguarded newton steps
+     *
+     * @return time, 0 if it did not converge
+     */
+    private long solve(double estimate, double target) {
+        double below = Double.NaN;
+        double above = Double.NaN;
+        double belowOffset = 0;
+        double aboveOffset = 0;
+        double t = estimate;
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            double offset = getOffset(t, target);
+            if (Math.abs(offset) < TOLERANCE) {
+                return Math.round(t);
+            }
+            if (offset < 0) {
+                below = t;
+                belowOffset = offset;
+            } else {
+                above = t;
+                aboveOffset = offset;
             }
-            mills += (int) (add * 10000000);
-            last = azimuth;
-            i++;
-            if (i > 100 || Math.abs(inputMills - mills) > 1000 * 60 * 60 * 24) {
+
+            double next = t - offset / derivative;
+            if (!Double.isNaN(below) && !Double.isNaN(above)) {
+                if (Math.abs(above - below) < ACCURACY) {
+                    // near the zenith the azimuth changes too fast for the tolerance. A bracket around the opposite of the
+                    // target, where the offset jumps from PI to -PI, is no root.
+                    return aboveOffset - belowOffset < Math.PI ? Math.round((below + above) / 2) : 0;
+                }
+                if (Double.isNaN(next) || next <= Math.min(below, above) || next >= Math.max(below, above)) {
+                    next = (below + above) / 2;
+                }
+            } else if (Double.isNaN(next) || Math.abs(next - estimate) > MAX_CORRECTION) {
                 return 0;
             }
+            t = next;
         }
+        return 0;
+    }
 
-        return mills;
+    /**
+     * @return difference between the azimuth of the sun and the target (-PI to PI)
+     */
+    private double getOffset(double mills, double target) {
+        double J = mills / dayMs - 0.5 + J1970;
+        double M = getSolarMeanAnomaly(J);
+        double Ls = getEclipticLongitude(M, getEquationOfCenter(M));
+        double d = getSunDeclination(Ls);
+        double H = getSiderealTime(J, lw) - getRightAscension(Ls);
+
+        double sinH = Math.sin(H);
+        double cosH = Math.cos(H);
+        double x = cosH * sinPhi - Math.tan(d) * cosPhi;
+        // d(atan2(sin(H), x))/dH, the declination is nearly constant
+        derivative = (x * cosH + sinH * sinH * sinPhi) / (sinH * sinH + x * x) * th1 / dayMs;
+        return wrap(Math.atan2(sinH, x) - target);
+    }
+
+    /**
+     * @return angle in range -PI to PI
+     */
+    private static double wrap(double angle) {
+        angle %= 2 * Math.PI;
+        if (angle > Math.PI) {
+            angle -= 2 * Math.PI;
+        } else if (angle <= -Math.PI) {
+            angle += 2 * Math.PI;
+        }
+        return angle;
     }
 
 
@@ -174,21 +297,4 @@ class QiblaTimeCalculator {
         return Math.atan2(Math.sin(H),
                 Math.cos(H) * Math.sin(phi) - Math.tan(d) * Math.cos(phi));
     }
-
-
-    private static double getAzimuth(long mills, double lat,
-                                     double lng) {
-        double lw = rad * -lng;
-        double phi = rad * lat;
-        double J = dateToJulianDate(mills);
-        double M = getSolarMeanAnomaly(J);
-        double C = getEquationOfCenter(M);
-        double Ls = getEclipticLongitude(M, C);
-        double d = getSunDeclination(Ls);
-        double a = getRightAscension(Ls);
-        double th = getSiderealTime(J, lw);
-        double H = th - a;
-
-        return getAzimuth(H, phi, d);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,189 @@
+/*
+PrayTimes-Java: Prayer Times Java Calculator (ver 0.9)
+
+Copyright (C) 2007-2011 PrayTimes.org (JS Code ver 2.3)
+Copyright (C) 2017 Metin Kale (Java Code)
+
+Developer JS: Hamid Zarrabi-Zadeh
+Developer Java: Metin Kale
+
+License: GNU LGPL v3.0
+
+TERMS OF USE:
+	Permission is granted to use this code, with or
+	without modification, in any website or application
+	provided that credit is given to the original work
+	with a link back to PrayTimes.org.
+
+This program is distributed in the hope that it will
+be useful, but WITHOUT ANY WARRANTY.
+
+PLEASE DO NOT REMOVE THIS COPYRIGHT BLOCK.
+
+*/
+package org.metinkale.praytimes;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Declination of the sun and equation of time, shared by all {@link PrayTimes}
+ * <p>
+ * Both only depend on the julian date and change slowly. They are calculated at {@link #BUCKETS} + 1 points of each day and
+ * interpolated quadratically in between, which is accurate to less than a millisecond. The last {@link #MAX_DAYS} days are
+ * kept, so all cities and methods calculated for the same dates reuse them.
+ * <p>
+ * Instances are immutable, the cache is synchronized.
+ */
+public final class SolarEphemeris {
+    private static final int BUCKETS = 4;
+    private static final int MAX_DAYS = 64;
+    private static final Map<Long, SolarEphemeris> sCache = new LinkedHashMap<Long, SolarEphemeris>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, SolarEphemeris> eldest) {
+            return size() > MAX_DAYS;
+        }
+    };
+    private static long sHits;
+    private static long sMisses;
+
+    private final long day;
+    private final double[] declination = new double[BUCKETS + 1];
+    private final double[] equationOfTime = new double[BUCKETS + 1];
+
+    private SolarEphemeris(long day) {
+        this.day = day;
+        for (int i = 0; i <= BUCKETS; i++) {
+            double jd = day + i / (double) BUCKETS;
+            declination[i] = calculateDeclination(jd);
+            equationOfTime[i] = calculateEquationOfTime(jd);
+        }
+    }
+
+    /**
+     * @param jd julian date
+     * @return ephemeris of the day containing jd
+     */
+    static SolarEphemeris get(double jd) {
+        long day = (long) Math.floor(jd);
+        synchronized (sCache) {
+            SolarEphemeris ephemeris = sCache.get(day);
+            if (ephemeris != null) {
+                sHits++;
+                return ephemeris;
+            }
+            sMisses++;
+            ephemeris = new SolarEphemeris(day);
+            sCache.put(day, ephemeris);
+            return ephemeris;
+        }
+    }
+
+    /**
+     * @return true if jd is in the day of this ephemeris
+     */
+    boolean contains(double jd) {
+        return jd >= day && jd < day + 1;
+    }
+
+    /**
+     * @param jd julian date, must be in the day of this ephemeris
+     * @return declination angle of sun
+     */
+    double getDeclination(double jd) {
+        double x = (jd - day) * BUCKETS;
+        int i = getFirstPoint(x);
+        return interpolate(declination[i], declination[i + 1], declination[i + 2], x - i);
+    }
+
+    /**
+     * @param jd julian date, must be in the day of this ephemeris
+     * @return equation of time, might be off by 24 hours
+     */
+    double getEquationOfTime(double jd) {
+        double x = (jd - day) * BUCKETS;
+        int i = getFirstPoint(x);
+        double y0 = equationOfTime[i];
+        // the mean longitude and the right ascension do not wrap at the same time
+        double y1 = y0 + DMath.fixHour(equationOfTime[i + 1] - y0 + 12) - 12;
+        double y2 = y1 + DMath.fixHour(equationOfTime[i + 2] - y1 + 12) - 12;
+        return interpolate(y0, y1, y2, x - i);
+    }
+
+    /**
+     * @return first of the three points closest to x
+     */
+    private static int getFirstPoint(double x) {
+        return Math.max(0, Math.min(BUCKETS - 2, (int) Math.round(x) - 1));
+    }
+
+    /**
+     * quadratic interpolation through three equidistant points
+     *
+     * @param t position relative to y0, in distances of the points
+     */
+    private static double interpolate(double y0, double y1, double y2, double t) {
+        return y0 + t * (y1 - y0) + t * (t - 1) / 2 * (y2 - 2 * y1 + y0);
+    }
+
+    /**
+     * @return number of days found in the cache
+     */
+    public static long getHits() {
+        synchronized (sCache) {
+            return sHits;
+        }
+    }
+
+    /**
+     * @return number of days calculated
+     */
+    public static long getMisses() {
+        synchronized (sCache) {
+            return sMisses;
+        }
+    }
+
+    /**
+     * @return hits / lookups, 0 if there was no lookup yet
+     */
+    public static double getHitRate() {
+        synchronized (sCache) {
+            long lookups = sHits + sMisses;
+            return lookups == 0 ? 0 : sHits / (double) lookups;
+        }
+    }
+
+    /**
+     * compute equation of time
+     * Ref: http://aa.usno.navy.mil/faq/docs/SunApprox.php
+     *
+     * @param jd julian date
+     * @return equation of time
+     */
+    static double calculateEquationOfTime(double jd) {
+        double d = jd - 2451545.0;
+        double g = DMath.fixAngle(357.529 + 0.98560028 * d);
+        double q = DMath.fixAngle(280.459 + 0.98564736 * d);
+        double l = DMath.fixAngle(q + 1.915 * DMath.sin(g) + 0.020 * DMath.sin(2 * g));
+        double e = 23.439 - 0.00000036 * d;
+        double ra = DMath.arctan2(DMath.cos(e) * DMath.sin(l), DMath.cos(l)) / 15;
+        return q / 15.0 - DMath.fixHour(ra);
+    }
+
+    /**
+     * compute  declination angle of sun
+     * Ref: http://aa.usno.navy.mil/faq/docs/SunApprox.php
+     *
+     * @param jd julian date
+     * @return declination angle of sun
+     */
+    static double calculateDeclination(double jd) {
+        double d = jd - 2451545.0;
+        double g = DMath.fixAngle(357.529 + 0.98560028 * d);
+        double q = DMath.fixAngle(280.459 + 0.98564736 * d);
+        double l = DMath.fixAngle(q + 1.915 * DMath.sin(g) + 0.020 * DMath.sin(2 * g));
+        double e = 23.439 - 0.00000036 * d;
+        return DMath.arcsin(DMath.sin(e) * DMath.sin(l));
+    }
+}
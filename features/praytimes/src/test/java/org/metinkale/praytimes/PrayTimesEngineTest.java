@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metinkale.praytimes;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class PrayTimesEngineTest {
+    private static final int CITIES = 50;
+    private static final int DAYS = 365;
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 50;
+    private static final Times[] TIMES = Times.values();
+
+    private static PrayTimesConfig[] sConfigs;
+    // times of each city and day, calculated sequentially
+    private static DayTimes[][] sExpected;
+
+    @BeforeClass
+    public static void setup() {
+        // DST starts at 16:00 on October 6th, after local noon, but before noon UTC
+        TimeZone dst = new SimpleTimeZone(10 * 60 * 60 * 1000, "Test/DST", Calendar.OCTOBER, 6, 0, 16 * 60 * 60 * 1000,
+                Calendar.APRIL, 6, 0, 16 * 60 * 60 * 1000);
+        TimeZone[] timeZones = {TimeZone.getTimeZone("Europe/Istanbul"), TimeZone.getTimeZone("America/New_York"),
+                TimeZone.getTimeZone("Australia/Sydney"), TimeZone.getTimeZone("Asia/Kathmandu"), dst};
+
+        Random random = new Random(0);
+        sConfigs = new PrayTimesConfig[CITIES];
+        sExpected = new DayTimes[CITIES][DAYS];
+        for (int i = 0; i < CITIES; i++) {
+            PrayTimes prayTimes = new PrayTimes();
+            prayTimes.setMethod(Method.values()[i % Method.values().length]);
+            prayTimes.setHighLatsAdjustment(HighLatsAdjustment.values()[i % HighLatsAdjustment.values().length]);
+            prayTimes.setTimezone(timeZones[i % timeZones.length]);
+            prayTimes.setCoordinates(random.nextDouble() * 120 - 60, random.nextDouble() * 360 - 180, 0);
+            sConfigs[i] = prayTimes.getConfig();
+            for (int d = 0; d < DAYS; d++) {
+                sExpected[i][d] = PrayTimesEngine.compute(sConfigs[i], 2019, 1, 1 + d);
+            }
+        }
+    }
+
+    private static void assertTimes(DayTimes expected, DayTimes actual) {
+        assertSame(expected.getConfig(), actual.getConfig());
+        assertEquals(expected.getYear(), actual.getYear());
+        assertEquals(expected.getMonth(), actual.getMonth());
+        assertEquals(expected.getDay(), actual.getDay());
+        for (Times t : TIMES) {
+            assertEquals(t.name(), expected.getHours(t), actual.getHours(t), 0);
+        }
+    }
+
+    @Test
+    public void computeRange() {
+        for (int i = 0; i < CITIES; i++) {
+            DayTimes[] times = PrayTimesEngine.computeRange(sConfigs[i], 2019, 1, 1, DAYS);
+            for (int d = 0; d < DAYS; d++) {
+                assertTimes(sExpected[i][d], times[d]);
+            }
+        }
+    }
+
+    @Test
+    public void computeAll() {
+        for (int d = 0; d < DAYS; d += 30) {
+            DayTimes[] times = PrayTimesEngine.computeAll(sConfigs, 2019, 1, 1 + d);
+            for (int i = 0; i < CITIES; i++) {
+                assertTimes(sExpected[i][d], times[i]);
+            }
+        }
+    }
+
+    @Test
+    public void calculateRange() {
+        long[] out = new long[DAYS * TIMES.length];
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        utc.clear();
+        utc.set(2019, Calendar.JANUARY, 1);
+        long firstDay = utc.getTimeInMillis() / (24 * 60 * 60 * 1000);
+        for (int i = 0; i < CITIES; i++) {
+            new PrayTimesEngine.Calculation(sConfigs[i]).computeRange(2019, 1, 1, DAYS, out);
+            Calendar cal = Calendar.getInstance(sConfigs[i].timeZone);
+            for (int d = 0; d < DAYS; d++) {
+                // the offset at local noon, as in compute()
+                cal.clear();
+                cal.set(2019, Calendar.JANUARY, 1 + d, 12, 0, 0);
+                long dayStart = (firstDay + d) * 24 * 60 - (cal.get(Calendar.ZONE_OFFSET) + cal.get(Calendar.DST_OFFSET)) / 60000;
+                for (Times t : TIMES) {
+                    assertEquals("city " + i + " day " + d + " " + t, sExpected[i][d].getTimeMinutes(t), out[d * TIMES.length + t.ordinal()] - dayStart);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void concurrentCalls() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                final Random random = new Random(thread);
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int n = 0; n < ITERATIONS; n++) {
+                            int city = random.nextInt(CITIES);
+                            int day = random.nextInt(DAYS);
+                            switch (n % 3) {
+                                case 0:
+                                    assertTimes(sExpected[city][day], PrayTimesEngine.compute(sConfigs[city], 2019, 1, 1 + day));
+                                    break;
+                                case 1:
+                                    DayTimes[] range = PrayTimesEngine.computeRange(sConfigs[city], 2019, 1, 1, DAYS);
+                                    for (int d = 0; d < DAYS; d++) {
+                                        assertTimes(sExpected[city][d], range[d]);
+                                    }
+                                    break;
+                                default:
+                                    DayTimes[] all = PrayTimesEngine.computeAll(sConfigs, 2019, 1, 1 + day);
+                                    for (int i = 0; i < CITIES; i++) {
+                                        assertTimes(sExpected[i][day], all[i]);
+                                    }
+                                    break;
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // rethrow the AssertionError of the thread
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Error)
+                        throw (Error) cause;
+                    throw new AssertionError(cause);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.metinkale.prayer.times.alarm;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.metinkale.prayer.times.times.DayTable;
+import com.metinkale.prayer.times.times.Source;
+import com.metinkale.prayer.times.times.Times;
+import com.metinkale.prayer.times.times.Vakit;
+
+import org.joda.time.LocalDate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Finding the next alarm of 200 cities with 6 enabled alarms each, after one city changed and after all cities changed.
+ * The latter is what every call cost before NextAlarmIndex.
+ */
+@RunWith(AndroidJUnit4.class)
+public class NextAlarmIndexBenchmark {
+    private static final int CITIES = 200;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Before
+    public void setUp() {
+        Times.getTimes();
+        for (int i = 1; i <= CITIES; i++) {
+            Times city = new BenchmarkTimes(-i);
+            for (Alarm alarm : city.getUserAlarms()) {
+                alarm.setEnabled(true);
+            }
+        }
+        NextAlarmIndex.invalidateAll();
+        assertNotNull(NextAlarmIndex.getNextAlarm());
+    }
+
+    @After
+    public void tearDown() {
+        Times.clearTemporaryTimes();
+        NextAlarmIndex.invalidateAll();
+    }
+
+    @Test
+    public void oneCityChanged() {
+        int i = 0;
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            NextAlarmIndex.invalidate(-(i++ % CITIES + 1));
+            NextAlarmIndex.getNextAlarm();
+        }
+    }
+
+    @Test
+    public void allCitiesChanged() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            NextAlarmIndex.invalidateAll();
+            NextAlarmIndex.getNextAlarm();
+        }
+    }
+
+    /**
+     * temporary city (negative id, so it is never saved) with fixed times, shifted by a minute per city
+     */
+    private static class BenchmarkTimes extends Times {
+        BenchmarkTimes(long id) {
+            super(id);
+        }
+
+        @Override
+        public Source getSource() {
+            return Source.CSV;
+        }
+
+        @Override
+        protected String getStrTime(LocalDate date, Vakit time) {
+            return DayTable.toString(300 + time.ordinal() * 150 + (int) (-getID() % 60));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.metinkale.prayer.times.times;
+
+import android.os.Debug;
+import android.util.Log;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.metinkale.prayer.App;
+import com.metinkale.prayer.utils.FastTokenizer;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares listing the children of a city in the binary index with parsing the raw tsv lines, as CitiesSet did before.
+ * The Diyanet name fix of CitiesSet is left out, which only favors the tsv.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CitiesIndexBenchmark {
+    private static final String TAG = "CitiesIndexBenchmark";
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private CitiesIndex index;
+    private int parent;
+
+    @Before
+    public void setUp() throws IOException {
+        index = CitiesIndex.open(Source.Diyanet);
+        for (Entry e : index.list(0)) {
+            if ("Türkiye".equals(e.getName())) {
+                parent = (int) (e.getId() >> 32);
+            }
+        }
+        assertNotEquals(0, parent);
+        assertEquals(listTsv(parent).size(), index.list(parent).size());
+    }
+
+    @Test
+    public void listIndex() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            index.list(parent);
+        }
+    }
+
+    @Test
+    public void listTsv() throws IOException {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            listTsv(parent);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void allocations() throws IOException {
+        Debug.startAllocCounting();
+        try {
+            Debug.resetThreadAllocCount();
+            index.list(parent);
+            int indexCount = Debug.getThreadAllocCount();
+
+            Debug.resetThreadAllocCount();
+            listTsv(parent);
+            int tsvCount = Debug.getThreadAllocCount();
+
+            Log.i(TAG, "allocations: index " + indexCount + ", tsv " + tsvCount);
+            assertTrue(indexCount < tsvCount);
+        } finally {
+            Debug.stopAllocCounting();
+        }
+    }
+
+    private static List<Entry> listTsv(int parent) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(App.get().getAssets().open(Source.Diyanet.cities + ".tsv")))) {
+            String country = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                FastTokenizer st = new FastTokenizer(line, "\t");
+                Entry e = new Entry();
+                long id = st.nextInt();
+                e.setId(id << 32 | (long) Source.Diyanet.citiesId);
+                long p = st.nextInt();
+                e.setParent(p << 32 | (long) Source.Diyanet.citiesId);
+                e.setLat(st.nextDouble());
+                e.setLng(st.nextDouble());
+                e.setKey(st.nextString());
+                e.setName(st.nextString());
+                e.setSource(Source.Diyanet);
+                if (p == 0) {
+                    country = e.getName();
+                } else {
+                    e.setCountry(country);
+                }
+                if (p == parent) entries.add(e);
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.metinkale.prayer.times.times;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.metinkale.prayer.App;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Compares the nearest city from the k-d tree of the binary index with a haversine scan over all cities of the parsed tsv.
+ * The tsv is parsed before the measurement, which only favors the scan.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CitiesNearestBenchmark {
+    private static final int LOCATIONS = 100;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private CitiesIndex index;
+    // cities with a key and coordinates, the same the index contains
+    private double[] lats;
+    private double[] lngs;
+    private int count;
+    private double[] queryLats = new double[LOCATIONS];
+    private double[] queryLngs = new double[LOCATIONS];
+
+    @Before
+    public void setUp() throws IOException {
+        index = CitiesIndex.open(Source.Diyanet);
+        parseTsv();
+
+        Random random = new Random(0);
+        for (int i = 0; i < LOCATIONS; i++) {
+            queryLats[i] = random.nextDouble() * 110 - 50;
+            queryLngs[i] = random.nextDouble() * 360 - 180;
+        }
+
+        // equally distant cities may differ, so only the distances are compared
+        for (int i = 0; i < LOCATIONS; i++) {
+            Entry entry = index.nearest(queryLats[i], queryLngs[i]);
+            assertNotNull(entry);
+            int row = nearestTsv(queryLats[i], queryLngs[i]);
+            assertEquals(CitiesIndex.distance(queryLats[i], queryLngs[i], lats[row], lngs[row]),
+                    CitiesIndex.distance(queryLats[i], queryLngs[i], entry.getLat(), entry.getLng()), 0.01);
+        }
+    }
+
+    @Test
+    public void nearestIndex() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (int i = 0; i < LOCATIONS; i++) {
+                index.nearest(queryLats[i], queryLngs[i]);
+            }
+        }
+    }
+
+    @Test
+    public void nearestTsv() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (int i = 0; i < LOCATIONS; i++) {
+                nearestTsv(queryLats[i], queryLngs[i]);
+            }
+        }
+    }
+
+    private int nearestTsv(double lat, double lng) {
+        int best = -1;
+        double bestDist = Double.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            double dist = CitiesIndex.distance(lat, lng, lats[i], lngs[i]);
+            if (dist < bestDist) {
+                best = i;
+                bestDist = dist;
+            }
+        }
+        return best;
+    }
+
+    private void parseTsv() throws IOException {
+        lats = new double[1024];
+        lngs = new double[1024];
+        count = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(App.get().getAssets().open(Source.Diyanet.cities + ".tsv")))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                String[] cols = line.split("\t", -1);
+                // the index stores the coordinates as floats
+                double lat = cols[2].isEmpty() ? 0 : Float.parseFloat(cols[2]);
+                double lng = cols[3].isEmpty() ? 0 : Float.parseFloat(cols[3]);
+                if (cols[4].isEmpty() || (lat == 0 && lng == 0)) continue;
+                if (count == lats.length) {
+                    lats = Arrays.copyOf(lats, count * 2);
+                    lngs = Arrays.copyOf(lngs, count * 2);
+                }
+                lats[count] = lat;
+                lngs[count] = lng;
+                count++;
+            }
+        }
+    }
+}
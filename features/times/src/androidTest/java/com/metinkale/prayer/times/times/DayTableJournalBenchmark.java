@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.metinkale.prayer.times.times;
+
+import android.content.SharedPreferences;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.gson.Gson;
+import com.metinkale.prayer.App;
+
+import org.joda.time.LocalDate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Saves one synced day in each of 12 cities holding half a year of times, once with the journal and once as the whole
+ * city json in SharedPreferences, as TimesBase.save() did before
+ */
+@RunWith(AndroidJUnit4.class)
+public class DayTableJournalBenchmark {
+    private static final int CITIES = 12;
+    private static final int DAYS = 183;
+    private static final long FIRST_ID = 1_000_000;
+    private static final LocalDate EPOCH = new LocalDate(1970, 1, 1);
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final DayTableJournal[] journals = new DayTableJournal[CITIES];
+    private final Map<String, Map<String, String>> legacy = new HashMap<>();
+    private final Gson gson = new Gson();
+    private SharedPreferences prefs;
+    private int firstDay;
+    private int day;
+
+    @Before
+    public void setUp() throws InterruptedException {
+        prefs = App.get().getSharedPreferences("benchmark", 0);
+        firstDay = (int) (System.currentTimeMillis() / 86400000L);
+        for (int i = 0; i < CITIES; i++) {
+            DayTableJournal.delete(FIRST_ID + i);
+        }
+        awaitWrites();
+
+        for (int i = 0; i < CITIES; i++) {
+            DayTable table = new DayTable();
+            Map<String, String> map = new HashMap<>();
+            for (int d = firstDay; d < firstDay + DAYS; d++) {
+                for (int column = 0; column < DayTable.COLUMNS; column++) {
+                    table.set(d, column, minutes(d, column));
+                    map.put(key(d, column), DayTable.toString(minutes(d, column)));
+                }
+            }
+            journals[i] = DayTableJournal.open(FIRST_ID + i, table);
+            legacy.put("id" + (FIRST_ID + i), map);
+        }
+        awaitWrites();
+
+        DayTableJournal reopened = DayTableJournal.open(FIRST_ID, null);
+        assertEquals(DAYS, reopened.getTable().countCompleteDays(firstDay, Integer.MAX_VALUE));
+        day = firstDay + DAYS;
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        for (int i = 0; i < CITIES; i++) {
+            DayTableJournal.delete(FIRST_ID + i);
+        }
+        awaitWrites();
+        prefs.edit().clear().commit();
+    }
+
+    @Test
+    public void journal() throws InterruptedException {
+        int[] values = new int[DayTable.COLUMNS * 3];
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            int d = day++;
+            for (int column = 0; column < DayTable.COLUMNS; column++) {
+                values[column * 3] = d;
+                values[column * 3 + 1] = column;
+                values[column * 3 + 2] = minutes(d, column);
+            }
+            for (DayTableJournal journal : journals) {
+                journal.setAll(values, DayTable.COLUMNS);
+            }
+            awaitWrites();
+        }
+    }
+
+    @Test
+    public void json() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            int d = day++;
+            for (Map.Entry<String, Map<String, String>> city : legacy.entrySet()) {
+                for (int column = 0; column < DayTable.COLUMNS; column++) {
+                    city.getValue().put(key(d, column), DayTable.toString(minutes(d, column)));
+                }
+                // commit() instead of apply(), so the write is measured like the one of the journal
+                prefs.edit().putString(city.getKey(), gson.toJson(city.getValue())).commit();
+            }
+        }
+    }
+
+    private static int minutes(int day, int column) {
+        return 300 + column * 100 + day % 30;
+    }
+
+    private static String key(int day, int column) {
+        String col = column == DayTable.SABAH ? "SABAH" : column == DayTable.ASR_THANI ? "ASRTHANI" : String.valueOf(column);
+        return EPOCH.plusDays(day).toString() + "-" + col;
+    }
+
+    private static void awaitWrites() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        DayTableJournal.runAfterWrites(latch::countDown);
+        latch.await();
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.metinkale.prayer.times.times.sources;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Parses the recorded responses in sharedTest/resources with the streaming parsers and with the string based parsing
+ * they replaced. Both include decoding the response.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ResponseParserBenchmark {
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void diyanet() throws IOException {
+        byte[] response = fixture("diyanet.xml");
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            DiyanetTimes.parse(new ByteArrayInputStream(response), new ParsedTimes());
+        }
+    }
+
+    @Test
+    public void diyanetLegacy() throws IOException {
+        byte[] response = fixture("diyanet.xml");
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            LegacyParsers.diyanet(new String(response, "UTF-8"), new ParsedTimes());
+        }
+    }
+
+    @Test
+    public void igmg() throws IOException {
+        byte[] response = fixture("igmg.html");
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            IGMGTimes.parse(new ByteArrayInputStream(response), new ParsedTimes());
+        }
+    }
+
+    @Test
+    public void igmgLegacy() throws IOException {
+        byte[] response = fixture("igmg.html");
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            LegacyParsers.igmg(new String(response, "UTF-8"), new ParsedTimes());
+        }
+    }
+
+    @Test
+    public void morocco() throws IOException {
+        byte[] response = fixture("morocco.html");
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            MoroccoTimes.parse(new ByteArrayInputStream(response), new ParsedTimes());
+        }
+    }
+
+    @Test
+    public void moroccoLegacy() throws IOException {
+        byte[] response = fixture("morocco.html");
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            LegacyParsers.morocco(new String(response, "UTF-8"), new ParsedTimes());
+        }
+    }
+
+    private static byte[] fixture(String name) throws IOException {
+        try (InputStream in = ResponseParserBenchmark.class.getResourceAsStream(name)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+}
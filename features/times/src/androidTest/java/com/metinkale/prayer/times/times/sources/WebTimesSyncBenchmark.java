@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.metinkale.prayer.times.times.sources;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.metinkale.prayer.times.times.DayTableJournal;
+import com.metinkale.prayer.times.times.Times;
+import com.metinkale.prayer.times.times.Vakit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Time from a sync of the recorded 30 day Diyanet response until its times are persisted, once collected in a
+ * {@link WebTimes.Batch} as {@link WebTimesSync} does and once written value by value as before the batch.
+ * The download is left out.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WebTimesSyncBenchmark {
+    private static final long ID = -1_000_000;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private FixtureTimes city;
+
+    @Before
+    public void setUp() throws IOException, InterruptedException {
+        DayTableJournal.delete(ID);
+        awaitWrites();
+        city = new FixtureTimes(ID, fixture("diyanet.xml"));
+        city.setId("benchmark");
+
+        WebTimes.Batch batch = new WebTimes.Batch();
+        assertTrue(city.sync(batch));
+        assertEquals(30 * Vakit.LENGTH, batch.getCount());
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        city.delete();
+        Times.clearTemporaryTimes();
+        awaitWrites();
+    }
+
+    @Test
+    public void batch() throws Exception {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            WebTimes.Batch batch = new WebTimes.Batch();
+            city.sync(batch);
+            // not successful, so cleanTimes() does not remove the days of the fixture, which are in the past
+            city.apply(batch, false);
+            awaitWrites();
+        }
+    }
+
+    @Test
+    public void perValue() throws Exception {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            city.sync();
+            awaitWrites();
+        }
+    }
+
+    private static void awaitWrites() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        DayTableJournal.runAfterWrites(latch::countDown);
+        latch.await();
+    }
+
+    private static byte[] fixture(String name) throws IOException {
+        try (InputStream in = WebTimesSyncBenchmark.class.getResourceAsStream(name)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * temporary Diyanet city (negative id, so it is never saved), which syncs from the recorded response
+     */
+    private static class FixtureTimes extends DiyanetTimes {
+        private final byte[] response;
+
+        FixtureTimes(long id, byte[] response) {
+            super(id);
+            this.response = response;
+        }
+
+        @Override
+        protected boolean sync() throws IOException {
+            return parse(new ByteArrayInputStream(response), this::putDay) > 25;
+        }
+    }
+}
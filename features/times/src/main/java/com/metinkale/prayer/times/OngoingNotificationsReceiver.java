@@ -43,19 +43,17 @@ import androidx.annotation.NonNull;
 import com.crashlytics.android.Crashlytics;
 import com.metinkale.prayer.Preferences;
 import com.metinkale.prayer.receiver.InternalBroadcastReceiver;
+import com.metinkale.prayer.receiver.TimeTickReceiver;
 import com.metinkale.prayer.service.ForegroundService;
 import com.metinkale.prayer.times.fragments.TimesFragment;
 import com.metinkale.prayer.times.times.Times;
+import com.metinkale.prayer.times.times.TimesSnapshot;
 import com.metinkale.prayer.times.times.Vakit;
 import com.metinkale.prayer.times.utils.NotificationUtils;
 import com.metinkale.prayer.utils.LocaleUtils;
 
 import org.joda.time.DateTime;
-import org.joda.time.LocalDate;
-import org.joda.time.LocalDateTime;
 import org.joda.time.LocalTime;
-import org.joda.time.Period;
-import org.joda.time.PeriodType;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -77,7 +75,13 @@ public class OngoingNotificationsReceiver extends InternalBroadcastReceiver impl
 
         NotificationManager notMan = (NotificationManager) getContext().getSystemService(Context.NOTIFICATION_SERVICE);
 
-        LocalDate cal = LocalDate.now();
+        boolean icon = Preferences.SHOW_ONGOING_ICON.get();
+        boolean number = Preferences.SHOW_ONGOING_NUMBER.get();
+        Crashlytics.setBool("showIcon", icon);
+        Crashlytics.setBool("showNumber", number);
+
+        boolean chronometer = Build.VERSION.SDK_INT >= 24 && Preferences.COUNTDOWN_TYPE.get().equals(Preferences.COUNTDOWN_TYPE_SHOW_SECONDS);
+        long nextChange = Long.MAX_VALUE;
 
         List<Pair<Integer, Notification>> notifications = new ArrayList<>();
         for (Times t : Times.getTimes()) {
@@ -86,11 +90,8 @@ public class OngoingNotificationsReceiver extends InternalBroadcastReceiver impl
                 continue;
             }
 
-
-            boolean icon = Preferences.SHOW_ONGOING_ICON.get();
-            boolean number = Preferences.SHOW_ONGOING_NUMBER.get();
-            Crashlytics.setBool("showIcon", icon);
-            Crashlytics.setBool("showNumber", number);
+            TimesSnapshot snapshot = TimesSnapshot.get(t);
+            nextChange = Math.min(nextChange, snapshot.getNextChange());
 
             RemoteViews views = new RemoteViews(getContext().getPackageName(), R.layout.notification_layout);
 
@@ -105,12 +106,12 @@ public class OngoingNotificationsReceiver extends InternalBroadcastReceiver impl
             int[] timeIds = {R.id.time0, R.id.time1, R.id.time2, R.id.time3, R.id.time4, R.id.time5};
             int[] vakitIds = {R.id.fajr, R.id.sun, R.id.zuhr, R.id.asr, R.id.maghrib, R.id.ishaa};
 
-            int marker = t.getCurrentTime();
+            int marker = snapshot.getCurrentTime();
             if (Preferences.VAKIT_INDICATOR_TYPE.get().equals("next")) {
                 marker = marker + 1;
             }
             for (Vakit vakit : Vakit.values()) {
-                LocalTime time = t.getTime(cal, vakit.ordinal()).toLocalTime();
+                LocalTime time = snapshot.getTime(vakit.ordinal()).toLocalTime();
                 if (marker == vakit.ordinal()) {
                     views.setTextViewText(vakitIds[vakit.ordinal()], Html.fromHtml("<strong>" + vakit.getString() + "</strong>"));
                     if (Preferences.CLOCK_12H.get()) {
@@ -131,11 +132,11 @@ public class OngoingNotificationsReceiver extends InternalBroadcastReceiver impl
                 }
             }
 
-            DateTime nextTime = t.getTime(cal, t.getNextTime()).toDateTime();
-            if (Build.VERSION.SDK_INT >= 24 && Preferences.COUNTDOWN_TYPE.get().equals(Preferences.COUNTDOWN_TYPE_SHOW_SECONDS)) {
-                views.setChronometer(R.id.countdown, nextTime.getMillis() - (System.currentTimeMillis() - SystemClock.elapsedRealtime()), null, true);
+            long nextTime = snapshot.getTimeMillis(snapshot.getNextTime());
+            if (chronometer) {
+                views.setChronometer(R.id.countdown, nextTime - (System.currentTimeMillis() - SystemClock.elapsedRealtime()), null, true);
             } else {
-                String txt = LocaleUtils.formatPeriod(DateTime.now(), nextTime, false);
+                String txt = LocaleUtils.formatPeriod(DateTime.now(), new DateTime(nextTime), false);
                 views.setString(R.id.countdown, "setFormat", txt);
                 views.setChronometer(R.id.countdown, 0, txt, false);
             }
@@ -150,7 +151,7 @@ public class OngoingNotificationsReceiver extends InternalBroadcastReceiver impl
             if (!icon) {
                 builder.setSmallIcon(R.drawable.ic_placeholder);
             } else if (number && Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-                builder.setSmallIcon(Icon.createWithBitmap(getIconFromMinutes(t)));
+                builder.setSmallIcon(Icon.createWithBitmap(getIconFromMinutes(snapshot)));
             } else {
                 builder.setSmallIcon(R.drawable.ic_abicon);
             }
@@ -177,6 +178,12 @@ public class OngoingNotificationsReceiver extends InternalBroadcastReceiver impl
         }
 
         if (!notifications.isEmpty()) {
+            // the countdown (or the icon) changes every minute, unless the chronometer counts down by itself
+            if (!chronometer || (icon && number && Build.VERSION.SDK_INT >= Build.VERSION_CODES.M)) {
+                nextChange = TimeTickReceiver.NEXT_MINUTE;
+            }
+            TimeTickReceiver.requestTick(nextChange);
+
             for (int i = 0; i < notifications.size(); i++) {
                 Pair<Integer, Notification> pair = notifications.get(i);
                 if (i == 0 && Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
@@ -192,8 +199,8 @@ public class OngoingNotificationsReceiver extends InternalBroadcastReceiver impl
     }
 
 
-    private Bitmap getIconFromMinutes(Times t) {
-        int left = new Period(LocalDateTime.now(), t.getTime(LocalDate.now(), t.getNextTime()), PeriodType.minutes()).getMinutes();
+    private Bitmap getIconFromMinutes(TimesSnapshot snapshot) {
+        int left = snapshot.getMinutesLeft();
         Resources r = getContext().getResources();
 
         int size = (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 24, r.getDisplayMetrics());
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.metinkale.prayer.times.alarm;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.LongSparseArray;
+import androidx.core.util.Pair;
+
+import com.metinkale.prayer.times.times.Times;
+
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDateTime;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Next alarm of each city, ordered by time
+ * <p>
+ * A city is only recalculated if it was invalidated (its settings, alarms or times changed) or its next alarm has passed,
+ * so finding the next alarm over all cities does not recalculate every alarm of every city.
+ */
+public class NextAlarmIndex {
+    private static final TreeSet<Entry> sQueue = new TreeSet<>();
+    private static final LongSparseArray<Entry> sEntries = new LongSparseArray<>();
+    // not guarded by the lock, invalidate() is called while holding the lock of a city
+    private static final Set<Long> sDirty = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private static volatile boolean sBuilt;
+    @Nullable
+    private static DateTimeZone sZone;
+
+    private static class Entry implements Comparable<Entry> {
+        private final long cityId;
+        @NonNull
+        private final Alarm alarm;
+        @NonNull
+        private final LocalDateTime time;
+        private final long millis;
+
+        private Entry(long cityId, @NonNull Alarm alarm, @NonNull LocalDateTime time) {
+            this.cityId = cityId;
+            this.alarm = alarm;
+            this.time = time;
+            millis = time.toDate().getTime();
+        }
+
+        @Override
+        public int compareTo(@NonNull Entry o) {
+            int comp = Long.compare(millis, o.millis);
+            return comp != 0 ? comp : Long.compare(cityId, o.cityId);
+        }
+    }
+
+    /**
+     * must be called if settings, alarms or times of a city have changed
+     */
+    public static void invalidate(long cityId) {
+        sDirty.add(cityId);
+    }
+
+    public static void invalidateAll() {
+        sBuilt = false;
+    }
+
+    /**
+     * @return the next enabled alarm of all cities and its time
+     */
+    @Nullable
+    public static Pair<Alarm, LocalDateTime> getNextAlarm() {
+        // load the cities before locking, loading might invalidate cities
+        List<Times> cities = Times.getTimes();
+
+        synchronized (NextAlarmIndex.class) {
+            if (sZone != DateTimeZone.getDefault()) {
+                sZone = DateTimeZone.getDefault();
+                sBuilt = false;
+            }
+
+            if (!sBuilt) {
+                sBuilt = true;
+                sDirty.clear();
+                sQueue.clear();
+                sEntries.clear();
+                for (Times city : cities) {
+                    update(city);
+                }
+            } else {
+                for (Iterator<Long> it = sDirty.iterator(); it.hasNext(); ) {
+                    long id = it.next();
+                    it.remove();
+                    remove(id);
+                    update(find(cities, id));
+                }
+            }
+
+            long now = System.currentTimeMillis();
+            while (!sQueue.isEmpty() && sQueue.first().millis <= now) {
+                Entry passed = sQueue.first();
+                remove(passed.cityId);
+                Entry next = update(find(cities, passed.cityId));
+                if (next != null && next.millis <= now) {
+                    // should not happen (e.g. times changed without invalidating), never loop forever, but check it again next time
+                    remove(next.cityId);
+                    sDirty.add(next.cityId);
+                }
+            }
+
+            if (sQueue.isEmpty())
+                return null;
+
+            Entry first = sQueue.first();
+            Times city = find(cities, first.cityId);
+            if (city != null)
+                first.alarm.setCity(city);
+            return new Pair<>(first.alarm, first.time);
+        }
+    }
+
+    @Nullable
+    private static Times find(@NonNull List<Times> cities, long id) {
+        for (Times city : cities) {
+            if (city != null && city.getID() == id)
+                return city;
+        }
+        return null;
+    }
+
+    private static void remove(long cityId) {
+        Entry entry = sEntries.get(cityId);
+        if (entry != null) {
+            sQueue.remove(entry);
+            sEntries.remove(cityId);
+        }
+    }
+
+    /**
+     * recalculates the next alarm of a city
+     */
+    @Nullable
+    private static Entry update(@Nullable Times city) {
+        if (city == null)
+            return null;
+        remove(city.getID());
+
+        Alarm alarm = null;
+        LocalDateTime time = null;
+        for (Alarm a : city.getUserAlarms()) {
+            if (!a.isEnabled()) continue;
+            LocalDateTime nextAlarm = a.getNextAlarm();
+            if (nextAlarm == null) continue;
+            if (time == null || time.isAfter(nextAlarm)) {
+                alarm = a;
+                time = nextAlarm;
+            }
+        }
+        if (alarm == null)
+            return null;
+
+        Entry entry = new Entry(city.getID(), alarm, time);
+        sEntries.put(entry.cityId, entry);
+        sQueue.add(entry);
+        return entry;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.metinkale.prayer.times.gson;
+
+import android.util.Base64;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+import com.metinkale.prayer.times.times.DayTable;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * stores a {@link DayTable} as Base64 String of its binary representation,
+ * the old format (a JSON object of "yyyy-MM-dd-n" keys and "HH:mm" values) is migrated on read
+ */
+public class DayTableSerializer implements JsonSerializer<DayTable>, JsonDeserializer<DayTable> {
+
+    @Nullable
+    @Override
+    public JsonElement serialize(DayTable table, Type arg1, JsonSerializationContext arg2) {
+        return table == null ? null : new JsonPrimitive(Base64.encodeToString(table.toBytes(), Base64.NO_WRAP));
+    }
+
+    @NonNull
+    @Override
+    public DayTable deserialize(@NonNull JsonElement json, Type arg1, JsonDeserializationContext arg2) {
+        if (json.isJsonObject()) {
+            Map<String, String> map = new HashMap<>();
+            for (Map.Entry<String, JsonElement> entry : ((JsonObject) json).entrySet()) {
+                if (entry.getValue().isJsonPrimitive())
+                    map.put(entry.getKey(), entry.getValue().getAsString());
+            }
+            return DayTable.fromMap(map);
+        }
+        if (json.isJsonPrimitive()) {
+            try {
+                return DayTable.fromBytes(Base64.decode(json.getAsString(), Base64.NO_WRAP));
+            } catch (IllegalArgumentException ignore) {
+                // corrupt data, times will be synced again
+            }
+        }
+        return new DayTable();
+    }
+}
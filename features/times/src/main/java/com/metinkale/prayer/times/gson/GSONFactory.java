@@ -20,6 +20,7 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.metinkale.prayer.base.BuildConfig;
 import com.metinkale.prayer.times.alarm.sounds.Sound;
+import com.metinkale.prayer.times.times.DayTable;
 import com.metinkale.prayer.times.times.Source;
 import com.metinkale.prayer.times.times.Times;
 
@@ -46,6 +47,7 @@ public class GSONFactory {
         b.registerTypeAdapter(boolean.class, booleanSerializer);
         b.registerTypeAdapter(TimeZone.class, new TimezoneSerializer());
         b.registerTypeAdapter(Sound.class, new SoundSerializer());
+        b.registerTypeAdapter(DayTable.class, new DayTableSerializer());
 
         return b.create();
     }
@@ -21,18 +21,25 @@ import android.os.Handler;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.collection.LruCache;
 
+import com.crashlytics.android.Crashlytics;
 import com.metinkale.prayer.utils.Geocoder;
 
+import java.io.IOException;
 import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
 
 public class Cities {
+    // maximum distance (in km) of a city to be suggested for a location
+    private static final double MAX_DISTANCE = 200;
+    private static final int MAX_CACHED_ENTRIES = 2000;
 
     @NonNull
     private static SoftReference<Cities> mInstance = new SoftReference<>(null);
@@ -40,6 +47,17 @@ public class Cities {
     private Handler mHandler = new Handler();
     @NonNull
     private Executor mThread = Executors.newSingleThreadExecutor();
+    @NonNull
+    private final EnumMap<Source, CitiesIndex> mIndexes = new EnumMap<>(Source.class);
+    private final EnumSet<Source> mMissingIndexes = EnumSet.noneOf(Source.class);
+    // recently listed children by parent id, sized by number of entries
+    @NonNull
+    private final LruCache<Long, List<Entry>> mPages = new LruCache<Long, List<Entry>>(MAX_CACHED_ENTRIES) {
+        @Override
+        protected int sizeOf(@NonNull Long key, @NonNull List<Entry> value) {
+            return Math.max(1, value.size());
+        }
+    };
 
     private Cities() {
     }
@@ -64,9 +82,14 @@ public class Cities {
     }
 
 
+    /**
+     * searches for cities, the callback might be called multiple times with a growing list:
+     * first with the matches of each source as soon as they are found, and finally with the results ranked by the geocoder result
+     */
     public void search(final String q, @NonNull final Callback<List<Entry>> callback) {
+        mThread.execute(() -> search(q, null, callback));
         Geocoder.search(q, result -> mThread.execute(() -> {
-            final List<Entry> search = search(q, result);
+            final List<Entry> search = search(q, result, null);
             if (result != null) {
                 Entry calc = new Entry();
                 calc.setSource(Source.Calc);
@@ -126,97 +149,83 @@ public class Cities {
             }
             return entries;
         }
-        CitiesSet cities = new CitiesSet((int) ((id << 32) >> 32));
-        for (Entry e : cities) {
-
-            if (e != null && e.getParent() == id)
-                entries.add((Entry) e.clone());
+        List<Entry> page = mPages.get(id);
+        if (page == null) {
+            int citiesId = (int) id;
+            for (Source source : Source.values()) {
+                if (source.citiesId != citiesId) continue;
+                CitiesIndex index = getIndex(source);
+                if (index != null) {
+                    page = index.list((int) (id >> 32));
+                    mPages.put(id, page);
+                }
+            }
         }
+        if (page != null)
+            entries.addAll(page);
         return entries;
     }
 
     @NonNull
     private List<Entry> search(double lat, double lng) throws SQLException {
-
-        EnumMap<Source, Entry> map = new EnumMap<>(Source.class);
+        List<Entry> entries = new ArrayList<>();
         for (Source source : Source.values()) {
             if (source.citiesId == 0) continue;
-            CitiesSet entries = new CitiesSet(source);
-            for (Entry entry : entries) {
-                if (entry == null || entry.getKey() == null) continue;
-                Source s = entry.getSource();
-                Entry e = map.get(s);
-                double latDist = Math.abs(lat - entry.getLat());
-                double lngDist = Math.abs(lng - entry.getLng());
-                if (e == null) {
-                    if (latDist < 2 && lngDist < 2)
-                        map.put(s, (Entry) entry.clone());
-                } else {
-                    if (latDist + lngDist < Math.abs(lat - e.getLat()) + Math.abs(lng - e.getLng())) {
-                        map.put(s, (Entry) entry.clone());
-                    }
-                }
+            CitiesIndex index = getIndex(source);
+            if (index == null) continue;
+            Entry entry = index.nearest(lat, lng);
+            if (entry != null && CitiesIndex.distance(lat, lng, entry.getLat(), entry.getLng()) < MAX_DISTANCE) {
+                entries.add(entry);
             }
         }
-        return new ArrayList<>(map.values());
+        return entries;
+    }
 
+    @Nullable
+    private synchronized CitiesIndex getIndex(@NonNull Source source) {
+        if (mMissingIndexes.contains(source)) return null;
+        CitiesIndex index = mIndexes.get(source);
+        if (index == null) {
+            try {
+                index = CitiesIndex.open(source);
+                mIndexes.put(source, index);
+            } catch (IOException e) {
+                // the asset will not appear later, so only report it once
+                mMissingIndexes.add(source);
+                Crashlytics.logException(e);
+            }
+        }
+        return index;
     }
 
 
     @NonNull
-    private List<Entry> search(String q, @Nullable Geocoder.Result result) throws SQLException {
-        EnumMap<Source, Entry> name = new EnumMap<>(Source.class);
-        EnumMap<Source, Entry> pos = new EnumMap<>(Source.class);
+    private List<Entry> search(String q, @Nullable Geocoder.Result result, @Nullable Callback<List<Entry>> progress) throws SQLException {
+        List<Entry> items = new ArrayList<>();
+        boolean hasPos = result != null && result.getLat() != 0 && result.getLon() != 0;
+        double lat = hasPos ? result.getLat() : Double.NaN;
+        double lng = hasPos ? result.getLon() : Double.NaN;
 
-        q = Entry.normalize(q);
+        q = Entry.normalize(q.replace('+', ' '));
         for (Source source : Source.values()) {
             if (source.citiesId == 0) continue;
-            CitiesSet entries = new CitiesSet(source);
-            for (Entry entry : entries) {
-                if (entry == null || entry.getKey() == null) continue;
-                Source s = entry.getSource();
-                if (s == null) continue;
-                String norm = entry.getNormalized();
-                boolean contains = norm.contains(q);
-
-                if (!contains && result != null && !name.containsKey(s) && result.getLat() != 0 && result.getLon() != 0) {
-                    Entry e = pos.get(s);
-                    double latDist = Math.abs(result.getLat() - entry.getLat());
-                    double lngDist = Math.abs(result.getLon() - entry.getLng());
-                    if (e == null) {
-                        if (latDist < 2 && lngDist < 2)
-                            pos.put(s, (Entry) entry.clone());
-                    } else {
-                        if (latDist + lngDist < Math.abs(result.getLat() - e.getLat()) + Math.abs(result.getLon() - e.getLng())) {
-                            pos.put(s, (Entry) entry.clone());
-                        }
-                    }
-                }
-
-                if (!contains) continue;
-
-                Entry e = name.get(s);
-                if (e == null) {
-                    name.put(s, (Entry) entry.clone());
-                    continue;
-                }
-
-                if (result != null) {
-                    double latDist = Math.abs(result.getLat() - entry.getLat());
-                    double lngDist = Math.abs(result.getLon() - entry.getLng());
-                    if (latDist + lngDist < Math.abs(result.getLat() - e.getLat()) + Math.abs(result.getLon() - e.getLng())) {
-                        name.put(s, (Entry) entry.clone());
-                    }
-                }
-
+            CitiesIndex index = getIndex(source);
+            if (index == null) continue;
+
+            Entry entry = index.search(q, lat, lng);
+            if (entry == null && hasPos) {
+                entry = index.nearest(lat, lng);
+                if (entry != null && CitiesIndex.distance(lat, lng, entry.getLat(), entry.getLng()) >= MAX_DISTANCE)
+                    entry = null;
+            }
+            if (entry == null) continue;
 
+            items.add(entry);
+            if (progress != null) {
+                final List<Entry> partial = new ArrayList<>(items);
+                mHandler.post(() -> progress.onResult(partial));
             }
         }
-        List<Entry> items = new ArrayList<>(name.values());
-        for (Entry e : pos.values()) {
-            Source s = e.getSource();
-            if (!name.containsKey(s)) items.add(e);
-        }
         return items;
 
     }
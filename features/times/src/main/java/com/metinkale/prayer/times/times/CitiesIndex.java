@@ -0,0 +1,394 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.metinkale.prayer.times.times;
+
+import android.content.res.AssetFileDescriptor;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.metinkale.prayer.App;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Index of the cities of a {@link Source}, generated by tools/citiesfetcher (CitiesIndexer) at build time. See there for the format.
+ * <p>
+ * The file is memory-mapped, only the coordinates of the k-d tree are copied to the heap.
+ * Rows are read directly from the mapped columns, an {@link Entry} is only created for rows which are returned.
+ * Children of a parent are a contiguous range in the adjacency table.
+ * Points are unit vectors, so the nearest point by chord distance is also the nearest by great-circle distance.
+ * Name search uses trigram posting lists of the normalized names, so only matching cities are touched.
+ */
+class CitiesIndex {
+    private static final int MAGIC = 0x43495831;
+    private static final double EARTH_RADIUS = 6371.0088;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final String TURKEY = "TÜRKİYE";
+
+    private final Source source;
+    private final ByteBuffer buffer;
+    private final int rows;
+    private final int idColumn;
+    private final int parentColumn;
+    private final int latColumn;
+    private final int lngColumn;
+    private final int keyColumn;
+    private final int nameColumn;
+    private final int countryColumn;
+    private final int normalizedColumn;
+
+    private final int geoCount;
+    private final float[] x;
+    private final float[] y;
+    private final float[] z;
+    private final int geoRows;
+
+    private final int gramCount;
+    private final int grams;
+    private final int postingStarts;
+    private final int postings;
+
+    private final int parentCount;
+    private final int parentIds;
+    private final int childStarts;
+    private final int children;
+
+    private final int pool;
+
+    private CitiesIndex(Source source, ByteBuffer buffer) throws IOException {
+        this.source = source;
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC)
+            throw new IOException("bad cities index for " + source.name());
+        rows = buffer.getInt(4);
+        int pos = 8;
+        idColumn = pos;
+        pos += rows * 4;
+        parentColumn = pos;
+        pos += rows * 4;
+        latColumn = pos;
+        pos += rows * 4;
+        lngColumn = pos;
+        pos += rows * 4;
+        keyColumn = pos;
+        pos += rows * 4;
+        nameColumn = pos;
+        pos += rows * 4;
+        countryColumn = pos;
+        pos += rows * 4;
+        normalizedColumn = pos;
+        pos += rows * 4;
+
+        // coordinates are read on every visited node, so we copy them out of the mapped buffer
+        geoCount = buffer.getInt(pos);
+        pos += 4;
+        x = new float[geoCount];
+        y = new float[geoCount];
+        z = new float[geoCount];
+        for (float[] axis : new float[][]{x, y, z}) {
+            for (int i = 0; i < geoCount; i++, pos += 4) {
+                axis[i] = buffer.getFloat(pos);
+            }
+        }
+        geoRows = pos;
+        pos += geoCount * 4;
+
+        gramCount = buffer.getInt(pos);
+        pos += 4;
+        grams = pos;
+        pos += gramCount * 8;
+        postingStarts = pos;
+        pos += (gramCount + 1) * 4;
+        postings = pos;
+        pos += buffer.getInt(postingStarts + gramCount * 4) * 4;
+
+        parentCount = buffer.getInt(pos);
+        pos += 4;
+        parentIds = pos;
+        pos += parentCount * 4;
+        childStarts = pos;
+        pos += (parentCount + 1) * 4;
+        children = pos;
+        pos += rows * 4;
+
+        pool = pos + 4;
+    }
+
+    @NonNull
+    static CitiesIndex open(@NonNull Source source) throws IOException {
+        try (AssetFileDescriptor afd = App.get().getAssets().openFd(source.cities + ".idx");
+             FileInputStream in = afd.createInputStream()) {
+            FileChannel channel = in.getChannel();
+            return new CitiesIndex(source, channel.map(FileChannel.MapMode.READ_ONLY, afd.getStartOffset(), afd.getLength()));
+        }
+    }
+
+    /**
+     * @param parent id of the parent, as in the cities file
+     * @return all children of parent
+     */
+    @NonNull
+    List<Entry> list(int parent) {
+        List<Entry> entries = new ArrayList<>();
+        int lo = 0;
+        int hi = parentCount - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int value = buffer.getInt(parentIds + mid * 4);
+            if (value < parent) lo = mid + 1;
+            else if (value > parent) hi = mid - 1;
+            else {
+                int start = buffer.getInt(childStarts + mid * 4);
+                int end = buffer.getInt(childStarts + mid * 4 + 4);
+                for (int i = start; i < end; i++) {
+                    entries.add(entry(buffer.getInt(children + i * 4)));
+                }
+                break;
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * @return the nearest city, or null if the index is empty
+     */
+    @Nullable
+    Entry nearest(double lat, double lng) {
+        if (geoCount == 0) return null;
+        double rlat = Math.toRadians(lat);
+        double rlng = Math.toRadians(lng);
+        double[] q = {Math.cos(rlat) * Math.cos(rlng), Math.cos(rlat) * Math.sin(rlng), Math.sin(rlat)};
+        double[] best = {Double.MAX_VALUE, -1};
+        nearest(q, 0, geoCount, 0, best);
+        return entry(buffer.getInt(geoRows + (int) best[1] * 4));
+    }
+
+    private void nearest(double[] q, int lo, int hi, int depth, double[] best) {
+        if (lo >= hi) return;
+        int mid = (lo + hi) >>> 1;
+        double dx = q[0] - x[mid];
+        double dy = q[1] - y[mid];
+        double dz = q[2] - z[mid];
+        double dist = dx * dx + dy * dy + dz * dz;
+        if (dist < best[0]) {
+            best[0] = dist;
+            best[1] = mid;
+        }
+
+        double diff;
+        switch (depth % 3) {
+            case 0:
+                diff = dx;
+                break;
+            case 1:
+                diff = dy;
+                break;
+            default:
+                diff = dz;
+        }
+
+        if (diff < 0) {
+            nearest(q, lo, mid, depth + 1, best);
+            if (diff * diff < best[0]) nearest(q, mid + 1, hi, depth + 1, best);
+        } else {
+            nearest(q, mid + 1, hi, depth + 1, best);
+            if (diff * diff < best[0]) nearest(q, lo, mid, depth + 1, best);
+        }
+    }
+
+    /**
+     * Searches the best matching city for a query. Exact matches are preferred to prefix matches, prefix matches to word prefix
+     * matches and those to any other substring matches. Equally ranked cities are ordered by distance to lat/lng (if given)
+     *
+     * @param query normalized query, see {@link Entry#normalize(String)}
+     * @param lat   latitude or NaN
+     * @param lng   longitude or NaN
+     * @return the best match or null
+     */
+    @Nullable
+    Entry search(@NonNull String query, double lat, double lng) {
+        byte[] q = query.getBytes(UTF8);
+        int best = -1;
+        int bestRank = Integer.MAX_VALUE;
+        double bestDist = Double.MAX_VALUE;
+
+        int[] candidates = candidates(query);
+        int count = candidates == null ? rows : candidates.length;
+        for (int i = 0; i < count; i++) {
+            int row = candidates == null ? i : candidates[i];
+            int rank = rank(row, q);
+            if (rank < 0 || rank > bestRank) continue;
+
+            double dist = Double.isNaN(lat) ? 0 : distance(lat, lng, buffer.getFloat(latColumn + row * 4), buffer.getFloat(lngColumn + row * 4));
+            if (rank < bestRank || dist < bestDist) {
+                best = row;
+                bestRank = rank;
+                bestDist = dist;
+            }
+        }
+        return best < 0 ? null : entry(best);
+    }
+
+    /**
+     * @return rows which contain all trigrams of the query (sorted), or null if every row has to be checked
+     */
+    @Nullable
+    private int[] candidates(@NonNull String query) {
+        if (query.length() < 3) return null;
+        int[] result = null;
+        for (int i = 0; i + 3 <= query.length(); i++) {
+            int gram = findTrigram((long) query.charAt(i) << 32 | (long) query.charAt(i + 1) << 16 | query.charAt(i + 2));
+            if (gram < 0) return new int[0];
+            int start = buffer.getInt(postingStarts + gram * 4);
+            int end = buffer.getInt(postingStarts + gram * 4 + 4);
+            result = intersect(result, start, end);
+            if (result.length == 0) break;
+        }
+        return result;
+    }
+
+    private int findTrigram(long gram) {
+        int lo = 0;
+        int hi = gramCount - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long value = buffer.getLong(grams + mid * 8);
+            if (value < gram) lo = mid + 1;
+            else if (value > gram) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    @NonNull
+    private int[] intersect(@Nullable int[] rows, int start, int end) {
+        if (rows == null) {
+            rows = new int[end - start];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = buffer.getInt(postings + (start + i) * 4);
+            }
+            return rows;
+        }
+
+        int size = 0;
+        int j = start;
+        for (int i = 0; i < rows.length && j < end; ) {
+            int row = buffer.getInt(postings + j * 4);
+            if (rows[i] < row) i++;
+            else if (rows[i] > row) j++;
+            else {
+                rows[size++] = row;
+                i++;
+                j++;
+            }
+        }
+        int[] result = new int[size];
+        System.arraycopy(rows, 0, result, 0, size);
+        return result;
+    }
+
+    /**
+     * @return 0 for an exact match, 1 for a prefix, 2 for a word prefix, 3 for any other match and -1 if the name does not contain the query
+     */
+    private int rank(int row, @NonNull byte[] q) {
+        int offset = buffer.getInt(normalizedColumn + row * 4);
+        if (offset < 0) return -1;
+        int start = pool + offset + 2;
+        int length = stringLength(offset);
+
+        outer:
+        for (int i = 0; i + q.length <= length; i++) {
+            for (int j = 0; j < q.length; j++) {
+                if (buffer.get(start + i + j) != q[j]) continue outer;
+            }
+            if (i == 0) return length == q.length ? 0 : 1;
+            byte prev = buffer.get(start + i - 1);
+            return prev == ' ' || prev == '-' || prev == '(' ? 2 : 3;
+        }
+        return -1;
+    }
+
+    @NonNull
+    private Entry entry(int row) {
+        Entry e = new Entry();
+        e.setSource(source);
+        e.setId((long) buffer.getInt(idColumn + row * 4) << 32 | (long) source.citiesId);
+        e.setParent((long) buffer.getInt(parentColumn + row * 4) << 32 | (long) source.citiesId);
+        e.setLat(buffer.getFloat(latColumn + row * 4));
+        e.setLng(buffer.getFloat(lngColumn + row * 4));
+        e.setKey(string(buffer.getInt(keyColumn + row * 4)));
+        e.setName(string(buffer.getInt(nameColumn + row * 4)));
+        e.setCountry(string(buffer.getInt(countryColumn + row * 4)));
+
+        if (source == Source.Diyanet) {
+            boolean isTR = TURKEY.equals(e.getName()) || TURKEY.equals(e.getCountry()) || (e.getKey() != null && e.getKey().startsWith("2_"));
+            e.setName(fixDiyanetName(e.getName(), isTR));
+            if (e.getCountry() != null)
+                e.setCountry(fixDiyanetName(e.getCountry(), TURKEY.equals(e.getCountry())));
+        }
+        return e;
+    }
+
+    /**
+     * Diyanet names are upper case, only keep the first letter of each word upper case
+     */
+    @NonNull
+    private static String fixDiyanetName(@NonNull String name, boolean isTR) {
+        String[] words = name.split(" ");
+        for (int i = 0; i < words.length; i++) {
+            if (words[i].isEmpty()) continue;
+            words[i] = words[i].charAt(0) + words[i].substring(1).toLowerCase(isTR ? new Locale("TR") : Locale.ENGLISH);
+        }
+
+        return TextUtils.join(" ", words);
+    }
+
+    private int stringLength(int offset) {
+        return buffer.getShort(pool + offset) & 0xFFFF;
+    }
+
+    @Nullable
+    private String string(int offset) {
+        if (offset < 0) return null;
+        int length = stringLength(offset);
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(pool + offset + 2 + i);
+        }
+        return new String(bytes, UTF8);
+    }
+
+    /**
+     * @return great-circle distance in kilometers
+     */
+    static double distance(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS * Math.asin(Math.sqrt(Math.min(1, a)));
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.metinkale.prayer.times.times;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.joda.time.DateTimeConstants;
+import org.joda.time.chrono.ISOChronology;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Times of consecutive days, stored as minutes of the day in a single short[]
+ * <p>
+ * The values of a day are at (day - firstDay) * COLUMNS, columns are the {@link Vakit} ordinals, {@link #SABAH} and {@link #ASR_THANI}.
+ * Missing values are 0 (same as "00:00", which is never stored).
+ */
+public final class DayTable {
+    public static final int SABAH = Vakit.LENGTH;
+    public static final int ASR_THANI = Vakit.LENGTH + 1;
+    public static final int COLUMNS = Vakit.LENGTH + 2;
+
+    private static final short VERSION = 1;
+
+    private int firstDay;
+    private int days;
+    @NonNull
+    private short[] data = new short[0];
+
+    /**
+     * @param epochDay days since 1970-01-01
+     * @param column   column
+     * @return minutes of the day, 0 if not available
+     */
+    public synchronized int get(int epochDay, int column) {
+        int day = epochDay - firstDay;
+        if (day < 0 || day >= days)
+            return 0;
+        return data[day * COLUMNS + column];
+    }
+
+    /**
+     * @param epochDay days since 1970-01-01
+     * @param column   column
+     * @param minutes  minutes of the day, 0 to remove the value
+     */
+    public synchronized void set(int epochDay, int column, int minutes) {
+        if (days == 0) {
+            firstDay = epochDay;
+        } else if (epochDay < firstDay) {
+            int shift = firstDay - epochDay;
+            ensureCapacity(days + shift);
+            System.arraycopy(data, 0, data, shift * COLUMNS, days * COLUMNS);
+            Arrays.fill(data, 0, shift * COLUMNS, (short) 0);
+            firstDay = epochDay;
+            days += shift;
+        }
+
+        int day = epochDay - firstDay;
+        if (day >= days) {
+            ensureCapacity(day + 1);
+            days = day + 1;
+        }
+        data[day * COLUMNS + column] = (short) minutes;
+    }
+
+    /**
+     * @return number of days the table would span after setting epochDay
+     */
+    public synchronized long getSpan(int epochDay) {
+        if (days == 0)
+            return 1;
+        return Math.max((long) firstDay + days, (long) epochDay + 1) - Math.min(firstDay, epochDay);
+    }
+
+    private void ensureCapacity(int days) {
+        if (data.length >= days * COLUMNS)
+            return;
+        // grow by a month at least, days are usually added in batches
+        data = Arrays.copyOf(data, Math.max(days, this.days + 31) * COLUMNS);
+    }
+
+    /**
+     * @return true if all {@link Vakit} times of the day are available
+     */
+    public synchronized boolean isComplete(int epochDay) {
+        int day = epochDay - firstDay;
+        if (day < 0 || day >= days)
+            return false;
+        for (int i = day * COLUMNS, end = i + Vakit.LENGTH; i < end; i++) {
+            if (data[i] <= 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return number of complete days starting with epochDay, at most max
+     */
+    public synchronized int countCompleteDays(int epochDay, int max) {
+        int count = 0;
+        while (count < max && isComplete(epochDay + count)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return first day of the complete range containing epochDay, epochDay + 1 if epochDay itself is not complete
+     */
+    public synchronized int getFirstCompleteDay(int epochDay) {
+        while (isComplete(epochDay)) {
+            epochDay--;
+        }
+        return epochDay + 1;
+    }
+
+    /**
+     * @return last day of the complete range containing epochDay, epochDay - 1 if epochDay itself is not complete
+     */
+    public synchronized int getLastCompleteDay(int epochDay) {
+        while (isComplete(epochDay)) {
+            epochDay++;
+        }
+        return epochDay - 1;
+    }
+
+    /**
+     * removes all days before epochDay
+     */
+    public synchronized void removeBefore(int epochDay) {
+        int remove = epochDay - firstDay;
+        if (remove <= 0)
+            return;
+        if (remove >= days) {
+            clear();
+            return;
+        }
+        days -= remove;
+        data = Arrays.copyOfRange(data, remove * COLUMNS, (remove + days) * COLUMNS);
+        firstDay = epochDay;
+    }
+
+    public synchronized void clear() {
+        firstDay = 0;
+        days = 0;
+        data = new short[0];
+    }
+
+    public synchronized boolean isEmpty() {
+        return days == 0;
+    }
+
+
+    /**
+     * @return binary representation (version, columns, first day, day count, values), see {@link #fromBytes(byte[])}
+     */
+    @NonNull
+    public synchronized byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(12 + days * COLUMNS * 2);
+        buffer.putShort(VERSION);
+        buffer.putShort((short) COLUMNS);
+        buffer.putInt(firstDay);
+        buffer.putInt(days);
+        buffer.asShortBuffer().put(data, 0, days * COLUMNS);
+        return buffer.array();
+    }
+
+    @NonNull
+    public static DayTable fromBytes(@NonNull byte[] bytes) {
+        DayTable table = new DayTable();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.remaining() < 12 || buffer.getShort() != VERSION)
+            return table;
+        int columns = buffer.getShort();
+        int firstDay = buffer.getInt();
+        int days = buffer.getInt();
+        if (days <= 0 || columns <= 0 || buffer.remaining() < (long) days * columns * 2)
+            return table;
+
+        table.firstDay = firstDay;
+        table.days = days;
+        table.data = new short[days * COLUMNS];
+        for (int day = 0; day < days; day++) {
+            for (int column = 0; column < columns; column++) {
+                short value = buffer.getShort();
+                if (column < COLUMNS)
+                    table.data[day * COLUMNS + column] = value;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * migrates the old format, a map with keys like "2019-05-01-3", "2019-05-01-SABAH" or "2019-05-01-ASRTHANI"
+     */
+    @NonNull
+    public static DayTable fromMap(@NonNull Map<String, String> map) {
+        DayTable table = new DayTable();
+        ISOChronology chrono = ISOChronology.getInstanceUTC();
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            String key = entry.getKey();
+            if (key == null || key.length() < 12)
+                continue;
+            int minutes = parse(entry.getValue());
+            if (minutes <= 0)
+                continue;
+
+            String col = key.substring(11);
+            int column;
+            if ("SABAH".equals(col)) {
+                column = SABAH;
+            } else if ("ASRTHANI".equals(col)) {
+                column = ASR_THANI;
+            } else if (col.length() == 1 && col.charAt(0) >= '0' && col.charAt(0) < '0' + Vakit.LENGTH) {
+                column = col.charAt(0) - '0';
+            } else {
+                continue;
+            }
+
+            try {
+                long millis = chrono.getDateTimeMillis(Integer.parseInt(key.substring(0, 4)), Integer.parseInt(key.substring(5, 7)),
+                        Integer.parseInt(key.substring(8, 10)), 0);
+                table.set((int) (millis / DateTimeConstants.MILLIS_PER_DAY), column, minutes);
+            } catch (RuntimeException ignore) {
+                // invalid key
+            }
+        }
+        return table;
+    }
+
+    /**
+     * @param str time like "HH:mm" or "H:mm", a trailing "*" is ignored
+     * @return minutes of the day, 0 if str can not be parsed
+     */
+    public static int parse(@Nullable String str) {
+        if (str == null)
+            return 0;
+        int colon = str.indexOf(':');
+        if (colon <= 0 || colon + 3 > str.length())
+            return 0;
+        int h = 0;
+        for (int i = 0; i < colon; i++) {
+            char c = str.charAt(i);
+            if (c < '0' || c > '9')
+                return 0;
+            h = h * 10 + c - '0';
+        }
+        char m1 = str.charAt(colon + 1);
+        char m2 = str.charAt(colon + 2);
+        if (m1 < '0' || m1 > '9' || m2 < '0' || m2 > '9')
+            return 0;
+        return h * 60 + (m1 - '0') * 10 + (m2 - '0');
+    }
+
+    /**
+     * @param minutes minutes of the day
+     * @return time in format "HH:mm"
+     */
+    @NonNull
+    public static String toString(int minutes) {
+        char[] chars = {(char) ('0' + minutes / 600), (char) ('0' + minutes / 60 % 10), ':', (char) ('0' + minutes % 60 / 10),
+                (char) ('0' + minutes % 10)};
+        return new String(chars);
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.metinkale.prayer.times.times;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.util.AtomicFile;
+
+import com.crashlytics.android.Crashlytics;
+import com.metinkale.prayer.App;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Persists a {@link DayTable} in its own file, so saving new times does not rewrite the whole city
+ * <p>
+ * The file starts with a snapshot (int length + {@link DayTable#toBytes()}), followed by the changes made since then
+ * (int day, byte column, short minutes). After enough changes the file is compacted into a new snapshot.
+ * If a record is invalid or incomplete (e.g. the app was killed while appending), replaying stops there and the file is compacted.
+ */
+public final class DayTableJournal {
+    private static final int RECORD_SIZE = 7;
+    private static final int MAX_RECORDS = 512;
+    // a record further away from the other days is treated as corrupt, as it would allocate a huge table
+    private static final int MAX_DAYS = 10 * 366;
+    private static final Executor sExecutor = Executors.newSingleThreadExecutor();
+
+    @NonNull
+    private final AtomicFile file;
+    @NonNull
+    private final DayTable table;
+    private int[] pending = new int[3 * 64];
+    private int pendingCount;
+    private int records;
+    private boolean compact;
+    private boolean scheduled;
+
+    private DayTableJournal(@NonNull File file, @NonNull DayTable table, int records) {
+        this.file = new AtomicFile(file);
+        this.table = table;
+        this.records = records;
+    }
+
+    @NonNull
+    private static File getFile(long id) {
+        return new File(App.get().getFilesDir(), "times_" + id + ".log");
+    }
+
+    /**
+     * reads the table of a city
+     *
+     * @param id     id of the city
+     * @param legacy table to use if there is no file yet, e.g. times stored in the city json by older versions
+     */
+    @NonNull
+    public static DayTableJournal open(long id, @Nullable DayTable legacy) {
+        File file = getFile(id);
+        ByteBuffer buffer;
+        try {
+            buffer = ByteBuffer.wrap(new AtomicFile(file).readFully());
+        } catch (FileNotFoundException ignore) {
+            if (legacy != null && !legacy.isEmpty()) {
+                DayTableJournal journal = new DayTableJournal(file, legacy, 0);
+                journal.compact();
+                return journal;
+            }
+            return new DayTableJournal(file, new DayTable(), 0);
+        } catch (IOException e) {
+            Crashlytics.logException(e);
+            return new DayTableJournal(file, new DayTable(), 0);
+        }
+
+        int length = buffer.remaining() >= 4 ? buffer.getInt() : -1;
+        if (length < 0 || length > buffer.remaining()) {
+            Crashlytics.logException(new IOException("invalid snapshot in " + file.getName()));
+            DayTableJournal journal = new DayTableJournal(file, new DayTable(), 0);
+            journal.compact();
+            return journal;
+        }
+        byte[] snapshot = new byte[length];
+        buffer.get(snapshot);
+        DayTable table = DayTable.fromBytes(snapshot);
+
+        int records = 0;
+        boolean valid = true;
+        while (buffer.remaining() >= RECORD_SIZE) {
+            int day = buffer.getInt();
+            int column = buffer.get();
+            int minutes = buffer.getShort();
+            if (column < 0 || column >= DayTable.COLUMNS || table.getSpan(day) > MAX_DAYS) {
+                valid = false;
+                break;
+            }
+            table.set(day, column, minutes);
+            records++;
+        }
+
+        DayTableJournal journal = new DayTableJournal(file, table, records);
+        if (!valid || buffer.hasRemaining()) {
+            // e.g. a record which was only partially appended, everything behind it would be misaligned
+            Crashlytics.logException(new IOException("invalid record in " + file.getName()));
+            journal.compact();
+        }
+        return journal;
+    }
+
+    public static void delete(long id) {
+        sExecutor.execute(() -> new AtomicFile(getFile(id)).delete());
+    }
+
+    /**
+     * runs the task after everything set until now was written
+     */
+    public static void runAfterWrites(@NonNull Runnable task) {
+        sExecutor.execute(task);
+    }
+
+    @NonNull
+    public DayTable getTable() {
+        return table;
+    }
+
+    /**
+     * sets a value and writes it to the journal
+     */
+    public synchronized void set(int epochDay, int column, int minutes) {
+        table.set(epochDay, column, minutes);
+        if (compact)
+            return;
+        if (pendingCount * 3 == pending.length) {
+            pending = Arrays.copyOf(pending, pending.length * 2);
+        }
+        pending[pendingCount * 3] = epochDay;
+        pending[pendingCount * 3 + 1] = column;
+        pending[pendingCount * 3 + 2] = minutes;
+        pendingCount++;
+        schedule();
+    }
+
+    /**
+     * sets multiple values and writes them to the journal at once
+     *
+     * @param values (int day, int column, int minutes) for each value
+     * @param count  number of values
+     */
+    public synchronized void setAll(@NonNull int[] values, int count) {
+        for (int i = 0; i < count; i++) {
+            table.set(values[i * 3], values[i * 3 + 1], values[i * 3 + 2]);
+        }
+        if (compact)
+            return;
+        if ((pendingCount + count) * 3 > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pending.length * 2, (pendingCount + count) * 3));
+        }
+        System.arraycopy(values, 0, pending, pendingCount * 3, count * 3);
+        pendingCount += count;
+        schedule();
+    }
+
+    /**
+     * writes a new snapshot, must be called after changing the table directly (e.g. removing days)
+     */
+    public synchronized void compact() {
+        compact = true;
+        pendingCount = 0;
+        schedule();
+    }
+
+    private void schedule() {
+        if (!scheduled) {
+            scheduled = true;
+            sExecutor.execute(this::flush);
+        }
+    }
+
+    private void flush() {
+        int[] records;
+        int count;
+        boolean compact;
+        synchronized (this) {
+            scheduled = false;
+            compact = this.compact || this.records + pendingCount > MAX_RECORDS;
+            records = pending;
+            count = pendingCount;
+            pending = new int[3 * 64];
+            pendingCount = 0;
+            this.compact = false;
+            this.records = compact ? 0 : this.records + count;
+        }
+
+        try {
+            if (compact) {
+                writeSnapshot();
+            } else {
+                append(records, count);
+            }
+        } catch (IOException e) {
+            Crashlytics.logException(e);
+        }
+    }
+
+    private void writeSnapshot() throws IOException {
+        byte[] snapshot = table.toBytes();
+        FileOutputStream out = file.startWrite();
+        try {
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeInt(snapshot.length);
+            data.write(snapshot);
+            data.flush();
+            file.finishWrite(out);
+        } catch (IOException e) {
+            file.failWrite(out);
+            throw e;
+        }
+    }
+
+    private void append(int[] records, int count) throws IOException {
+        if (!file.getBaseFile().exists()) {
+            writeSnapshot();
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(count * RECORD_SIZE);
+        for (int i = 0; i < count; i++) {
+            buffer.putInt(records[i * 3]);
+            buffer.put((byte) records[i * 3 + 1]);
+            buffer.putShort((short) records[i * 3 + 2]);
+        }
+        try (FileOutputStream out = new FileOutputStream(file.getBaseFile(), true)) {
+            out.write(buffer.array());
+        }
+    }
+}
@@ -17,7 +17,6 @@
 package com.metinkale.prayer.times.times;
 
 import androidx.annotation.DrawableRes;
-import androidx.annotation.RawRes;
 
 import com.metinkale.prayer.App;
 import com.metinkale.prayer.times.R;
@@ -40,27 +39,35 @@ import java.util.Locale;
  * Created by metin on 03.04.2016.
  */
 public enum Source {
-    Calc(R.string.calculated, 0, CalcTimes.class), Diyanet("Diyanet.gov.tr", R.drawable.ic_ditib, R.raw.diyanet, DiyanetTimes.class, "tr"),
-    @Deprecated Fazilet("FaziletTakvimi.com", R.drawable.ic_fazilet, 0, FaziletTimes.class),
-    IGMG("IGMG.org", R.drawable.ic_igmg, R.raw.igmg, IGMGTimes.class),
-    Semerkand("SemerkandTakvimi.com", R.drawable.ic_semerkand, R.raw.semerkand, SemerkandTimes.class),
-    NVC("NamazVakti.com", R.drawable.ic_namazvakticom, R.raw.nvc, NVCTimes.class),
-    Morocco("habous.gov.ma", R.drawable.ic_morocco, R.raw.morocco, MoroccoTimes.class, "ma"),
-    Malaysia("e-solat.gov.my", R.drawable.ic_malaysia, R.raw.malaysia, MalaysiaTimes.class, "my"),
-    Indonesia("Kemenag.go.id", R.drawable.ic_indonesia, R.raw.indonesia, IndonesiaTimes.class, "id"),
-    London("Londonprayertimes.com", 0, R.raw.london, LondonTimes.class, "gb"), CSV("CSV", 0, 0, CSVTimes.class);
+    Calc(R.string.calculated, 0, CalcTimes.class), Diyanet("Diyanet.gov.tr", R.drawable.ic_ditib, "diyanet", DiyanetTimes.class, "tr"),
+    @Deprecated Fazilet("FaziletTakvimi.com", R.drawable.ic_fazilet, null, FaziletTimes.class),
+    IGMG("IGMG.org", R.drawable.ic_igmg, "igmg", IGMGTimes.class),
+    Semerkand("SemerkandTakvimi.com", R.drawable.ic_semerkand, "semerkand", SemerkandTimes.class),
+    NVC("NamazVakti.com", R.drawable.ic_namazvakticom, null, NVCTimes.class),
+    Morocco("habous.gov.ma", R.drawable.ic_morocco, "morocco", MoroccoTimes.class, "ma"),
+    Malaysia("e-solat.gov.my", R.drawable.ic_malaysia, "malaysia", MalaysiaTimes.class, "my"),
+    Indonesia("Kemenag.go.id", R.drawable.ic_indonesia, "indonesia", IndonesiaTimes.class, "id"),
+    London("Londonprayertimes.com", 0, "london", LondonTimes.class, "gb"), CSV("CSV", 0, null, CSVTimes.class);
     
     public final Class<? extends Times> clz;
     public final int drawableId;
     public final String name;
+    /**
+     * name of the cities index in the assets (see tools/citiesfetcher), null if the source has no cities
+     */
+    public final String cities;
+    /**
+     * identifies the source in {@link Entry#getId()}, 0 if the source has no cities
+     */
     public final int citiesId;
     public final String[] prioCountries;
     
-    Source(String name, @DrawableRes int drawableId, @RawRes int citiesId, Class<? extends Times> clz, String... prio) {
+    Source(String name, @DrawableRes int drawableId, String cities, Class<? extends Times> clz, String... prio) {
         this.name = name;
         this.drawableId = drawableId;
         this.clz = clz;
-        this.citiesId = citiesId;
+        this.cities = cities;
+        this.citiesId = cities == null ? 0 : ordinal() + 1;
         this.prioCountries = prio;
     }
     
@@ -70,6 +77,7 @@ public enum Source {
         this.drawableId = resIcon;
         this.clz = clz;
         this.prioCountries = prio;
+        cities = null;
         citiesId = 0;
     }
 }
\ No newline at end of file
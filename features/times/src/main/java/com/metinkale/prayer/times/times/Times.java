@@ -22,29 +22,44 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.util.Pair;
 
+import com.crashlytics.android.Crashlytics;
 import com.metinkale.prayer.App;
 import com.metinkale.prayer.Preferences;
 import com.metinkale.prayer.times.alarm.Alarm;
 import com.metinkale.prayer.times.alarm.AlarmService;
+import com.metinkale.prayer.times.alarm.NextAlarmIndex;
 import com.metinkale.prayer.times.times.sources.FaziletTimes;
 import com.metinkale.prayer.utils.livedata.LiveDataAwareList;
 
+import org.joda.time.DateTimeConstants;
+import org.joda.time.DateTimeZone;
 import org.joda.time.LocalDate;
 import org.joda.time.LocalDateTime;
-import org.joda.time.LocalTime;
-import org.joda.time.Period;
-import org.joda.time.PeriodType;
+import org.joda.time.chrono.ISOChronology;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public abstract class Times extends TimesBase {
 
 
     @NonNull
     private final static LiveDataAwareList<Times> sTimes = new LiveDataAwareList<>();
+    private final static ThreadPoolExecutor sLoader;
+
+    static {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        sLoader = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        sLoader.allowCoreThreadTimeOut(true);
+    }
 
 
     protected Times(long id) {
@@ -80,30 +95,56 @@ public abstract class Times extends TimesBase {
     @NonNull
     public static LiveDataAwareList<Times> getTimes() {
         if (sTimes.isEmpty()) {
-            SharedPreferences prefs = App.get().getSharedPreferences("cities", 0);
-
-            Set<String> keys = prefs.getAll().keySet();
-            for (String key : keys) {
-                if (key.startsWith("id")) {
-                    Times t = TimesBase.from(Long.parseLong(key.substring(2)));
-                    if (t instanceof FaziletTimes) {
-                        prefs.edit().remove(key).apply();
-                    } else if (t != null) {
-                        sTimes.add(t);
-                    }
+            synchronized (sTimes) {
+                if (sTimes.isEmpty()) {
+                    loadTimes();
                 }
             }
+        }
 
+        return sTimes;
 
-            if (!sTimes.isEmpty()) {
-                clearTemporaryTimes();
-                sort();
+    }
+
+    /**
+     * decodes the stored cities in parallel, their times are loaded lazily (see {@link #preload()})
+     */
+    private static void loadTimes() {
+        SharedPreferences prefs = App.get().getSharedPreferences("cities", 0);
+
+        List<Callable<Times>> tasks = new ArrayList<>();
+        Set<String> keys = prefs.getAll().keySet();
+        for (String key : keys) {
+            if (key.startsWith("id")) {
+                long id = Long.parseLong(key.substring(2));
+                tasks.add(() -> TimesBase.from(id));
             }
+        }
 
+        List<Times> times = new ArrayList<>();
+        try {
+            for (Future<Times> future : sLoader.invokeAll(tasks)) {
+                Times t = future.get();
+                if (t instanceof FaziletTimes) {
+                    prefs.edit().remove("id" + t.getID()).apply();
+                } else if (t != null) {
+                    times.add(t);
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            Crashlytics.logException(e);
         }
+        sTimes.addAll(times);
 
-        return sTimes;
 
+        if (!sTimes.isEmpty()) {
+            clearTemporaryTimes();
+            sort();
+
+            for (Times t : sTimes) {
+                sLoader.execute(t::preload);
+            }
+        }
     }
 
     public static void sort() {
@@ -128,43 +169,11 @@ public abstract class Times extends TimesBase {
 
 
     public static void setAlarms() {
-        Pair<Alarm, LocalDateTime> nextAlarm = getNextAlarm();
+        Pair<Alarm, LocalDateTime> nextAlarm = NextAlarmIndex.getNextAlarm();
         if (nextAlarm != null && nextAlarm.first != null && nextAlarm.second != null)
             AlarmService.setAlarm(App.get(), nextAlarm);
     }
 
-
-    @Nullable
-    private static Pair<Alarm, LocalDateTime> getNextAlarm(Times t) {
-        Alarm alarm = null;
-        LocalDateTime time = null;
-        for (Alarm a : t.getUserAlarms()) {
-            if (!a.isEnabled()) continue;
-            LocalDateTime nextAlarm = a.getNextAlarm();
-            if (nextAlarm == null) continue;
-            if (time == null || time.isAfter(nextAlarm)) {
-                alarm = a;
-                time = nextAlarm;
-            }
-        }
-        if (alarm == null)
-            return null;
-        alarm.setCity(t);
-        return new Pair<>(alarm, time);
-    }
-
-    @Nullable
-    private static Pair<Alarm, LocalDateTime> getNextAlarm() {
-        Pair<Alarm, LocalDateTime> pair = null;
-        for (Times t : Times.getTimes()) {
-            Pair<Alarm, LocalDateTime> nextAlarm = getNextAlarm(t);
-            if (pair == null || pair.second == null || (nextAlarm != null && nextAlarm.second != null && pair.second.isAfter(nextAlarm.second))) {
-                pair = nextAlarm;
-            }
-        }
-        return pair;
-    }
-
     @NonNull
     public LocalDateTime getSabahTime(@NonNull LocalDate date) {
         return parseTime(date, getSabah(date));
@@ -177,42 +186,113 @@ public abstract class Times extends TimesBase {
 
     @NonNull
     public LocalDateTime getTime(@NonNull LocalDate date, int time) {
+        return new LocalDateTime(getLocalMillis(toEpochDay(date), time), ISOChronology.getInstanceUTC());
+    }
+
+    /**
+     * same as {@link #getTime(LocalDate, int)}, but without String parsing and object allocations
+     *
+     * @param epochDay days since 1970-01-01
+     * @param time     index of the time, values out of 0-5 are moved to the previous/next days
+     * @return time in millis since epoch
+     */
+    public long getTimeMillis(int epochDay, int time) {
+        return DateTimeZone.getDefault().convertLocalToUTC(getLocalMillis(epochDay, time), false);
+    }
+
+    /**
+     * times of consecutive days, for bulk reads like exports
+     *
+     * @param epochDay first day, days since 1970-01-01
+     * @param days     number of days
+     * @param out      local (wall) time of day in minutes for each time, out[day * Vakit.LENGTH + time], same as
+     *                 {@link #getTime(LocalDate, int)}.toLocalTime()
+     */
+    public void getTimes(int epochDay, int days, @NonNull int[] out) {
+        for (int d = 0; d < days; d++) {
+            for (int t = 0; t < Vakit.LENGTH; t++) {
+                long millis = getLocalMillis(epochDay + d, t) % DateTimeConstants.MILLIS_PER_DAY;
+                if (millis < 0)
+                    millis += DateTimeConstants.MILLIS_PER_DAY;
+                out[d * Vakit.LENGTH + t] = (int) (millis / DateTimeConstants.MILLIS_PER_MINUTE);
+            }
+        }
+    }
+
+    /**
+     * @return local (wall) time in millis since 1970-01-01T00:00
+     */
+    private long getLocalMillis(int epochDay, int time) {
         while (time < 0) {
-            date = date.minusDays(1);
+            epochDay--;
             time += Vakit.LENGTH;
         }
 
         while (time >= Vakit.LENGTH) {
-            date = date.plusDays(1);
+            epochDay++;
             time -= Vakit.LENGTH;
         }
-        LocalDateTime dt = parseTime(date, getStrTime(date, Vakit.getByIndex(time))).plusMinutes(getMinuteAdj()[time]);
+        long millis = toLocalMillis(epochDay, getMinuteOfDay(epochDay, Vakit.getByIndex(time)))
+                + getMinuteAdj()[time] * (long) DateTimeConstants.MILLIS_PER_MINUTE;
 
 
-        int h = dt.getHourOfDay();
+        long h = (millis % DateTimeConstants.MILLIS_PER_DAY + DateTimeConstants.MILLIS_PER_DAY) % DateTimeConstants.MILLIS_PER_DAY
+                / DateTimeConstants.MILLIS_PER_HOUR;
         if ((time >= Vakit.DHUHR.ordinal()) && (h < 5)) {
-            dt = dt.plusDays(1);
+            millis += DateTimeConstants.MILLIS_PER_DAY;
         }
-        return dt;
+        return millis;
     }
 
     private LocalDateTime parseTime(@NonNull LocalDate date, String str) {
-        if (str == null || str.equals("00:00")) {
-            return LocalDate.now().toLocalDateTime(LocalTime.MIDNIGHT);
-        }
+        return new LocalDateTime(toLocalMillis(toEpochDay(date), parseMinutes(str)), ISOChronology.getInstanceUTC());
+    }
 
-        if (str.startsWith("24")) {
-            str = "00" + str.substring(2);
+    /**
+     * @param minutes minutes of the day, 0 or less if the time is not available
+     * @return local (wall) time in millis since 1970-01-01T00:00, the start of today if the time is not available
+     */
+    private long toLocalMillis(int epochDay, int minutes) {
+        if (minutes <= 0) {
+            return today() * (long) DateTimeConstants.MILLIS_PER_DAY;
         }
 
-        LocalDateTime timeCal = date.toLocalDateTime(new LocalTime(str));
+        long millis = epochDay * (long) DateTimeConstants.MILLIS_PER_DAY
+                + (minutes % DateTimeConstants.MINUTES_PER_DAY) * (long) DateTimeConstants.MILLIS_PER_MINUTE;
 
         // add timezone drift
         double drift = getTZFix();
-        timeCal = timeCal.plusMinutes((int) Math.round(drift * 60));
+        millis += Math.round(drift * 60) * DateTimeConstants.MILLIS_PER_MINUTE;
+
+        return millis;
+    }
+
+    /**
+     * @param str time in format "HH:mm"
+     * @return minutes of the day, 0 if str is null
+     */
+    protected static int parseMinutes(@Nullable String str) {
+        if (str == null || str.length() < 5) {
+            return 0;
+        }
+        return ((str.charAt(0) - '0') * 10 + (str.charAt(1) - '0')) * 60
+                + (str.charAt(3) - '0') * 10 + (str.charAt(4) - '0');
+    }
 
+    /**
+     * @return days since 1970-01-01 of date
+     */
+    public static int toEpochDay(@NonNull LocalDate date) {
+        return (int) (ISOChronology.getInstanceUTC().getDateTimeMillis(date.getYear(), date.getMonthOfYear(), date.getDayOfMonth(), 0)
+                / DateTimeConstants.MILLIS_PER_DAY);
+    }
 
-        return timeCal;
+    /**
+     * @return days since 1970-01-01 of the current day in the default timezone
+     */
+    public static int today() {
+        long now = System.currentTimeMillis();
+        return (int) ((now + DateTimeZone.getDefault().getOffset(now)) / DateTimeConstants.MILLIS_PER_DAY);
     }
 
 
@@ -221,29 +301,30 @@ public abstract class Times extends TimesBase {
     }
 
     public int getNextTime() {
-        LocalDate today = LocalDate.now();
-        LocalDateTime now = LocalDateTime.now();
+        int today = today();
+        long now = System.currentTimeMillis();
         int vakit = Vakit.FAJR.ordinal();
-        while (!getTime(today, vakit).isAfter(now)) {
+        while (getTimeMillis(today, vakit) <= now) {
             vakit++;
         }
         return vakit;
     }
 
     public boolean isKerahat() {
-        LocalDateTime now = LocalDateTime.now();
+        int today = today();
+        long now = System.currentTimeMillis();
 
-        int untilSun = new Period(getTime(now.toLocalDate(), Vakit.SUN.ordinal()), now, PeriodType.minutes()).getMinutes();
+        long untilSun = (now - getTimeMillis(today, Vakit.SUN.ordinal())) / DateTimeConstants.MILLIS_PER_MINUTE;
         if (untilSun >= 0 && untilSun < Preferences.KERAHAT_SUNRISE.get()) {
             return true;
         }
 
-        int untilDhuhr = new Period(now, getTime(now.toLocalDate(), Vakit.DHUHR.ordinal()), PeriodType.minutes()).getMinutes();
+        long untilDhuhr = (getTimeMillis(today, Vakit.DHUHR.ordinal()) - now) / DateTimeConstants.MILLIS_PER_MINUTE;
         if ((untilDhuhr >= 0) && (untilDhuhr < (Preferences.KERAHAT_ISTIWA.get()))) {
             return true;
         }
 
-        int untilMaghrib = new Period(now, getTime(now.toLocalDate(), Vakit.MAGHRIB.ordinal()), PeriodType.minutes()).getMinutes();
+        long untilMaghrib = (getTimeMillis(today, Vakit.MAGHRIB.ordinal()) - now) / DateTimeConstants.MILLIS_PER_MINUTE;
         return (untilMaghrib >= 0) && (untilMaghrib < (Preferences.KERAHAT_SUNSET.get()));
     }
 
@@ -273,6 +354,25 @@ public abstract class Times extends TimesBase {
     protected abstract String getStrTime(LocalDate date, Vakit time);
 
 
+    /**
+     * loads data which is not needed for the list of cities (e.g. synced times) in advance, called on a background thread
+     */
+    protected void preload() {
+    }
+
+
+    /**
+     * numeric variant of {@link #getStrTime(LocalDate, Vakit)}, sources should override it if they can provide the time without formatting it
+     *
+     * @param epochDay days since 1970-01-01
+     * @param time     Time
+     * @return minutes of the day, 0 if not available
+     */
+    protected int getMinuteOfDay(int epochDay, Vakit time) {
+        return parseMinutes(getStrTime(new LocalDate(epochDay * (long) DateTimeConstants.MILLIS_PER_DAY, ISOChronology.getInstanceUTC()), time));
+    }
+
+
     /**
      * if the Times source has seperate Imsak/Fajr times, this can be used to provide the extra Fajr value
      *
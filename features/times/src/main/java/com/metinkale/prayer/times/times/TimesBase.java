@@ -22,15 +22,19 @@ import android.os.Looper;
 import androidx.annotation.NonNull;
 import androidx.collection.ArraySet;
 
+import com.google.gson.Gson;
 import com.metinkale.prayer.App;
+import com.metinkale.prayer.receiver.TimeTickReceiver;
 import com.metinkale.prayer.times.LocationReceiver;
 import com.metinkale.prayer.times.alarm.Alarm;
+import com.metinkale.prayer.times.alarm.NextAlarmIndex;
 import com.metinkale.prayer.times.gson.GSONFactory;
 import com.metinkale.prayer.utils.livedata.TransientLiveData;
 
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
@@ -38,9 +42,12 @@ import java.util.Set;
  */
 public abstract class TimesBase extends TransientLiveData<Times> {
 
+    private static final Gson GSON = GSONFactory.build();
+
     private transient final SharedPreferences prefs;
     private transient long ID;//all ids created since 07.04.2018 fit into int, consider switching to int at sometime
     private transient boolean deleted;
+    private final transient AtomicInteger changes = new AtomicInteger();
 
     private String name;
     private String source;
@@ -59,9 +66,18 @@ public abstract class TimesBase extends TransientLiveData<Times> {
     private final transient Runnable mApplyPrefs = new Runnable() {
         @Override
         public void run() {
-            String json = GSONFactory.build().toJson(TimesBase.this);
+            String json = GSON.toJson(TimesBase.this);
             prefs.edit().putString("id" + ID, json).apply();
             setValue((Times) TimesBase.this);
+            TimeTickReceiver.sendTick(App.get());
+        }
+    };
+
+    private final transient Runnable mNotify = new Runnable() {
+        @Override
+        public void run() {
+            setValue((Times) TimesBase.this);
+            TimeTickReceiver.sendTick(App.get());
         }
     };
 
@@ -131,7 +147,7 @@ public abstract class TimesBase extends TransientLiveData<Times> {
     protected static Times from(long id) {
         String json = App.get().getSharedPreferences("cities", 0).getString("id" + id, null);
         try {
-            Times t = GSONFactory.build().fromJson(json, Times.class);
+            Times t = GSON.fromJson(json, Times.class);
             t.setID(id);
             return t;
         } catch (Exception e) {
@@ -145,20 +161,45 @@ public abstract class TimesBase extends TransientLiveData<Times> {
         deleted = true;
 
         prefs.edit().remove("id" + ID).apply();
+        NextAlarmIndex.invalidate(ID);
+        TimesSnapshot.remove(ID);
 
         //noinspection SuspiciousMethodCalls
         Times.getTimes().remove(this);
     }
 
     public synchronized void save() {
+        changes.incrementAndGet();
         if (ID < 0 || deleted) {
             return;
         }
+        NextAlarmIndex.invalidate(ID);
         App.get().getHandler().removeCallbacks(mApplyPrefs);
         App.get().getHandler().post(mApplyPrefs);
     }
 
 
+    /**
+     * notifies observers without saving, for data which is persisted separately
+     */
+    protected void notifyChanged() {
+        changes.incrementAndGet();
+        if (deleted) {
+            return;
+        }
+        NextAlarmIndex.invalidate(ID);
+        App.get().getHandler().removeCallbacks(mNotify);
+        App.get().getHandler().post(mNotify);
+    }
+
+
+    /**
+     * @return a counter, which is increased on every change of the city
+     */
+    public int getChangeCount() {
+        return changes.get();
+    }
+
     public boolean isDeleted() {
         return deleted;
     }
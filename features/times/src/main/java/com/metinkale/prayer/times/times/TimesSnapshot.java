@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.metinkale.prayer.times.times;
+
+import androidx.annotation.NonNull;
+import androidx.collection.LongSparseArray;
+
+import com.metinkale.prayer.Preferences;
+
+import org.joda.time.DateTimeConstants;
+import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
+
+/**
+ * State of a city in the current minute (current/next time, the times around today, kerahat)
+ * <p>
+ * Everything updated on a time tick (ongoing notifications, widgets) should use this instead of calculating the times again.
+ * Snapshots are cached until the minute changes or the city is changed.
+ */
+public final class TimesSnapshot {
+    private static final LongSparseArray<TimesSnapshot> sCache = new LongSparseArray<>();
+
+    @NonNull
+    private final Times city;
+    private final long minute;
+    private final int changes;
+    private final int next;
+    private final int minutesLeft;
+    private final boolean kerahat;
+    private final long midnight;
+    private final long kerahatChange;
+    // yesterdays ishaa (-1) to tomorrows fajr (6)
+    private final LocalDateTime[] times = new LocalDateTime[Vakit.LENGTH + 2];
+    private final long[] millis = new long[Vakit.LENGTH + 2];
+
+    @NonNull
+    public static TimesSnapshot get(@NonNull Times city) {
+        long minute = System.currentTimeMillis() / DateTimeConstants.MILLIS_PER_MINUTE;
+        synchronized (sCache) {
+            TimesSnapshot snapshot = sCache.get(city.getID());
+            if (snapshot == null || snapshot.city != city || snapshot.minute != minute || snapshot.changes != city.getChangeCount()) {
+                snapshot = new TimesSnapshot(city, minute);
+                if (!city.isDeleted())
+                    sCache.put(city.getID(), snapshot);
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * removes the cached snapshot of a deleted city
+     */
+    static void remove(long id) {
+        synchronized (sCache) {
+            sCache.remove(id);
+        }
+    }
+
+    private TimesSnapshot(@NonNull Times city, long minute) {
+        this.city = city;
+        this.minute = minute;
+        changes = city.getChangeCount();
+
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < times.length; i++) {
+            times[i] = city.getTime(today, i - 1);
+            millis[i] = times[i].toDate().getTime();
+        }
+        next = city.getNextTime();
+        minutesLeft = (int) ((getTimeMillis(next) - System.currentTimeMillis()) / DateTimeConstants.MILLIS_PER_MINUTE);
+        kerahat = city.isKerahat();
+        midnight = today.plusDays(1).toDateTimeAtStartOfDay().getMillis();
+
+        // the other bounds of kerahat are times
+        long now = System.currentTimeMillis();
+        long[] bounds = {getTimeMillis(Vakit.SUN.ordinal()) + Preferences.KERAHAT_SUNRISE.get() * DateTimeConstants.MILLIS_PER_MINUTE,
+                getTimeMillis(Vakit.DHUHR.ordinal()) - Preferences.KERAHAT_ISTIWA.get() * DateTimeConstants.MILLIS_PER_MINUTE,
+                getTimeMillis(Vakit.MAGHRIB.ordinal()) - Preferences.KERAHAT_SUNSET.get() * DateTimeConstants.MILLIS_PER_MINUTE};
+        long change = Long.MAX_VALUE;
+        for (long bound : bounds) {
+            if (bound > now && bound < change)
+                change = bound;
+        }
+        kerahatChange = change;
+    }
+
+    @NonNull
+    public Times getCity() {
+        return city;
+    }
+
+    /**
+     * @see Times#getCurrentTime()
+     */
+    public int getCurrentTime() {
+        return next - 1;
+    }
+
+    /**
+     * @see Times#getNextTime()
+     */
+    public int getNextTime() {
+        return next;
+    }
+
+    /**
+     * @return minutes until the next time
+     */
+    public int getMinutesLeft() {
+        return minutesLeft;
+    }
+
+    /**
+     * @see Times#isKerahat()
+     */
+    public boolean isKerahat() {
+        return kerahat;
+    }
+
+    /**
+     * @return millis of the next time, midnight or start/end of kerahat, whatever comes first. Nothing of this snapshot
+     * changes before, except of the minutes left.
+     */
+    public long getNextChange() {
+        return Math.min(Math.min(getTimeMillis(next), midnight), kerahatChange);
+    }
+
+    /**
+     * @param time index of the time, relative to today
+     * @return same as {@link Times#getTime(LocalDate, int)} for today
+     */
+    @NonNull
+    public LocalDateTime getTime(int time) {
+        if (time >= -1 && time <= Vakit.LENGTH) {
+            return times[time + 1];
+        }
+        return city.getTime(LocalDate.now(), time);
+    }
+
+    /**
+     * @param time index of the time, relative to today
+     * @return time in millis since epoch
+     */
+    public long getTimeMillis(int time) {
+        if (time >= -1 && time <= Vakit.LENGTH) {
+            return millis[time + 1];
+        }
+        return city.getTime(LocalDate.now(), time).toDate().getTime();
+    }
+}
@@ -31,10 +31,16 @@ import com.metinkale.prayer.times.times.Times;
 import com.metinkale.prayer.times.times.Vakit;
 import com.metinkale.prayer.utils.UUID;
 
+import org.joda.time.Chronology;
+import org.joda.time.DateTimeConstants;
 import org.joda.time.LocalDate;
+import org.joda.time.chrono.ISOChronology;
+import org.metinkale.praytimes.DayTimes;
 import org.metinkale.praytimes.HighLatsAdjustment;
 import org.metinkale.praytimes.Method;
 import org.metinkale.praytimes.PrayTimes;
+import org.metinkale.praytimes.PrayTimesConfig;
+import org.metinkale.praytimes.PrayTimesEngine;
 
 import java.util.TimeZone;
 
@@ -46,6 +52,8 @@ public class CalcTimes extends Times {
     private double[] customMethodParams = null;
     private PrayTimes prayTimes;
     private AsrType asrType = AsrType.Shafi;
+    // last calculated day, times are read from several threads (widgets, alarms, UI)
+    private transient volatile DayTimes dayTimes;
 
     public void setTimezone(TimeZone timeZone) {
         prayTimes.setTimezone(timeZone);
@@ -185,31 +193,72 @@ public class CalcTimes extends Times {
         return Source.Calc;
     }
 
+    /**
+     * @return times of the day, calculated with the current config of {@link #getPrayTimes()}
+     */
+    @NonNull
+    private DayTimes getDayTimes(int year, int month, int day) {
+        PrayTimesConfig config = getPrayTimes().getConfig();
+        DayTimes times = dayTimes;
+        if (times == null || times.getConfig() != config || !times.isDate(year, month, day)) {
+            times = PrayTimesEngine.compute(config, year, month, day);
+            dayTimes = times;
+        }
+        return times;
+    }
+
+    @NonNull
+    private DayTimes getDayTimes(@NonNull LocalDate date) {
+        return getDayTimes(date.getYear(), date.getMonthOfYear(), date.getDayOfMonth());
+    }
+
     @Override
     protected String getStrTime(@NonNull LocalDate date, Vakit time) {
-        getPrayTimes().setDate(date.getYear(), date.getMonthOfYear(), date.getDayOfMonth());
+        DayTimes times = getDayTimes(date);
         switch (time) {
             case FAJR:
-                return getPrayTimes().getTime(org.metinkale.praytimes.Times.Imsak);
+                return times.getTime(org.metinkale.praytimes.Times.Imsak);
             case SUN:
-                return getPrayTimes().getTime(org.metinkale.praytimes.Times.Sunrise);
+                return times.getTime(org.metinkale.praytimes.Times.Sunrise);
             case DHUHR:
-                return getPrayTimes().getTime(org.metinkale.praytimes.Times.Dhuhr);
+                return times.getTime(org.metinkale.praytimes.Times.Dhuhr);
             case ASR:
-                return getPrayTimes()
-                        .getTime(asrType == AsrType.Hanafi ? org.metinkale.praytimes.Times.AsrHanafi : org.metinkale.praytimes.Times.AsrShafi);
+                return times.getTime(asrType == AsrType.Hanafi ? org.metinkale.praytimes.Times.AsrHanafi : org.metinkale.praytimes.Times.AsrShafi);
             case MAGHRIB:
-                return getPrayTimes().getTime(org.metinkale.praytimes.Times.Maghrib);
+                return times.getTime(org.metinkale.praytimes.Times.Maghrib);
             case ISHAA:
-                return getPrayTimes().getTime(org.metinkale.praytimes.Times.Ishaa);
+                return times.getTime(org.metinkale.praytimes.Times.Ishaa);
         }
         return null;
     }
 
+    @Override
+    protected int getMinuteOfDay(int epochDay, Vakit time) {
+        long millis = epochDay * (long) DateTimeConstants.MILLIS_PER_DAY;
+        Chronology chrono = ISOChronology.getInstanceUTC();
+        DayTimes times = getDayTimes(chrono.year().get(millis), chrono.monthOfYear().get(millis), chrono.dayOfMonth().get(millis));
+        switch (time) {
+            case FAJR:
+                return times.getTimeMinutes(org.metinkale.praytimes.Times.Imsak);
+            case SUN:
+                return times.getTimeMinutes(org.metinkale.praytimes.Times.Sunrise);
+            case DHUHR:
+                return times.getTimeMinutes(org.metinkale.praytimes.Times.Dhuhr);
+            case ASR:
+                return times.getTimeMinutes(asrType == AsrType.Hanafi ? org.metinkale.praytimes.Times.AsrHanafi : org.metinkale.praytimes.Times.AsrShafi);
+            case MAGHRIB:
+                return times.getTimeMinutes(org.metinkale.praytimes.Times.Maghrib);
+            case ISHAA:
+                return times.getTimeMinutes(org.metinkale.praytimes.Times.Ishaa);
+        }
+        return 0;
+    }
+
     @Override
     public String getSabah(LocalDate date) {
-        String imsak = getPrayTimes().getTime(org.metinkale.praytimes.Times.Imsak);
-        String fajr = getPrayTimes().getTime(org.metinkale.praytimes.Times.Fajr);
+        DayTimes times = getDayTimes(date);
+        String imsak = times.getTime(org.metinkale.praytimes.Times.Imsak);
+        String fajr = times.getTime(org.metinkale.praytimes.Times.Fajr);
         if (!imsak.equals(fajr)) {
             return fajr;
         }
@@ -219,7 +268,7 @@ public class CalcTimes extends Times {
     @Override
     public String getAsrThani(LocalDate date) {
         if (asrType == AsrType.Both) {
-            return getPrayTimes().getTime(org.metinkale.praytimes.Times.AsrHanafi);
+            return getDayTimes(date).getTime(org.metinkale.praytimes.Times.AsrHanafi);
         }
         return null;
     }
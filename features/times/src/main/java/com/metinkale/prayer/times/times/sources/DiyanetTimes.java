@@ -26,6 +26,9 @@ import com.metinkale.prayer.times.times.Vakit;
 
 import org.joda.time.LocalDate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
 import java.util.concurrent.ExecutionException;
 
 public class DiyanetTimes extends WebTimes {
@@ -47,71 +50,73 @@ public class DiyanetTimes extends WebTimes {
     }
 
 
-    protected boolean sync() throws ExecutionException, InterruptedException {
+    protected boolean sync() throws ExecutionException, InterruptedException, IOException {
         String id = getId();
         id = id.substring(id.lastIndexOf("_") + 1); // backwarts compability
 
-        String result = Ion.with(App.get()).load("http://namazvakti.diyanet.gov.tr/wsNamazVakti.svc").userAgent(App.getUserAgent())
+        InputStream in = Ion.with(App.get()).load("http://namazvakti.diyanet.gov.tr/wsNamazVakti.svc").userAgent(App.getUserAgent())
                 .setHeader("Content-Type", "text/xml; charset=utf-8").setHeader("SOAPAction", "http://tempuri.org/IwsNamazVakti/AylikNamazVakti")
                 .setStringBody(
                         "<v:Envelope xmlns:i=\"http://www.w3.org/2001/XMLSchema-instance\" xmlns:d=\"http://www.w3.org/2001/XMLSchema\" xmlns:c=\"http://schemas.xmlsoap.org/soap/encoding/\" xmlns:v=\"http://schemas.xmlsoap.org/soap/envelope/\">" +
                                 "<v:Header /><v:Body>" + "<AylikNamazVakti xmlns=\"http://tempuri.org/\" id=\"o0\" c:root=\"1\">" +
                                 "<IlceID i:type=\"d:int\">" + id + "</IlceID>" +
                                 "<username i:type=\"d:string\">namazuser</username>" + "<password i:type=\"d:string\">NamVak!14</password>" +
-                                "</AylikNamazVakti></v:Body></v:Envelope>").asString().get();
+                                "</AylikNamazVakti></v:Body></v:Envelope>").asInputStream().get();
 
-        result = result.substring(result.indexOf("<a:NamazVakti>") + 14);
-        result = result.substring(0, result.indexOf("</AylikNamazVaktiResult>"));
-        String[] days = result.split("</a:NamazVakti><a:NamazVakti>");
-        int i = 0;
-        for (String day : days) {
-            String[] parts = day.split("><a:");
+        return parse(in, this::putDay) > 25;
+    }
 
-            String[] times = new String[6];
-            String date = null;
-            for (String part : parts) {
-                if (!part.contains(">"))
-                    continue;
-                String name = part.substring(0, part.indexOf('>'));
-                if (name.contains(":"))
-                    name = name.substring(name.indexOf(':') + 1);
-                String content = part.substring(part.indexOf('>') + 1);
-                content = content.substring(0, content.indexOf('<'));
-                switch (name) {
-                    case "Imsak":
-                        times[0] = content;
-                        break;
-                    case "Gunes":
-                        times[1] = content;
-                        break;
-                    case "Ogle":
-                        times[2] = content;
-                        break;
-                    case "Ikindi":
-                        times[3] = content;
-                        break;
-                    case "Aksam":
-                        times[4] = content;
-                        break;
-                    case "Yatsi":
-                        times[5] = content;
-                        break;
-                    case "MiladiTarihKisa":
-                        date = content;
-                        break;
+    /**
+     * parses the days of an AylikNamazVakti response
+     *
+     * @return number of days
+     */
+    static int parse(@NonNull InputStream in, @NonNull ResponseScanner.DayReceiver receiver) throws IOException {
+        int i = 0;
+        int[] times = new int[Vakit.LENGTH];
+        try (ResponseScanner scanner = new ResponseScanner(in)) {
+            while (scanner.skipTo("<a:NamazVakti>")) {
+                Arrays.fill(times, 0);
+                String date = null;
+                String tag;
+                while ((tag = scanner.nextTag()) != null && !tag.equals("/a:NamazVakti")) {
+                    // closing tags have the same names, but no content behind them
+                    if (tag.startsWith("/"))
+                        continue;
+                    String name = tag.substring(tag.indexOf(':') + 1);
+                    switch (name) {
+                        case "Imsak":
+                            times[0] = scanner.readTime();
+                            break;
+                        case "Gunes":
+                            times[1] = scanner.readTime();
+                            break;
+                        case "Ogle":
+                            times[2] = scanner.readTime();
+                            break;
+                        case "Ikindi":
+                            times[3] = scanner.readTime();
+                            break;
+                        case "Aksam":
+                            times[4] = scanner.readTime();
+                            break;
+                        case "Yatsi":
+                            times[5] = scanner.readTime();
+                            break;
+                        case "MiladiTarihKisa":
+                            date = scanner.readText();
+                            break;
+                    }
                 }
+                if (date == null)
+                    continue;
+                String[] d = date.split("\\.");
+                LocalDate ld = new LocalDate(Integer.parseInt(d[2]), Integer.parseInt(d[1]), Integer.parseInt(d[0]));
+                receiver.onDay(ld, times);
+                i++;
             }
-            String[] d = date.split("\\.");
-            LocalDate ld = new LocalDate(Integer.parseInt(d[2]), Integer.parseInt(d[1]), Integer.parseInt(d[0]));
-            setTime(ld, Vakit.FAJR, times[0]);
-            setTime(ld, Vakit.SUN, times[1]);
-            setTime(ld, Vakit.DHUHR, times[2]);
-            setTime(ld, Vakit.ASR, times[3]);
-            setTime(ld, Vakit.MAGHRIB, times[4]);
-            setTime(ld, Vakit.ISHAA, times[5]);
-            i++;
         }
-        return i > 25;
+        return i;
     }
 
 
@@ -27,6 +27,8 @@ import com.metinkale.prayer.times.times.Vakit;
 import org.joda.time.IllegalFieldValueException;
 import org.joda.time.LocalDate;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.concurrent.ExecutionException;
 
 public class IGMGTimes extends WebTimes {
@@ -35,6 +37,8 @@ public class IGMGTimes extends WebTimes {
     // old API url shows wrong times, so we have to wipe times
     // TODO delete after some time
     private boolean fixedApiUrl = false;
+    // classes of the times in the order of Vakit
+    private static final String[] FIELDS = {"imsak", "gunes", "ogle", "ikindi", "aksam", "yatsi"};
 
     @SuppressWarnings({"unused", "WeakerAccess"})
     public IGMGTimes() {
@@ -63,7 +67,16 @@ public class IGMGTimes extends WebTimes {
         return super.getStrTime(date, time);
     }
 
-    protected boolean sync() throws ExecutionException, InterruptedException {
+    @Override
+    protected int getMinuteOfDay(int epochDay, Vakit time) {
+        if (!fixedApiUrl) {
+            clearTimes();
+            fixedApiUrl = true;
+        }
+        return super.getMinuteOfDay(epochDay, time);
+    }
+
+    protected boolean sync() throws ExecutionException, InterruptedException, IOException {
         String path = getId().replace("nix", "-1");
         String[] a = path.split("_");
         int id = Integer.parseInt(a[0]);
@@ -81,50 +94,80 @@ public class IGMGTimes extends WebTimes {
                 M = 1;
                 Y++;
             }
-            String result = Ion.with(App.get())
+            InputStream in = Ion.with(App.get())
                     .load("POST", "https://www.igmg.org/wp-content/themes/igmg/include/gebetskalender_ajax_api.php")
                     .userAgent(App.getUserAgent())
                     .setTimeout(3000)
                     .setBodyParameter("show_ajax_variable", "" + id)
                     .setBodyParameter("show_month", "" + (M - 1))
-                    .asString()
+                    .asInputStream()
                     .get();
 
-            result = result.substring(result.indexOf("<div class='zeiten'>") + 20);
-            String[] zeiten = result.split("</div><div class='zeiten'>");
-            for (String zeit : zeiten) {
-                if (zeit.contains("turkish")) {
-                    continue;
-                }
-                String tarih = extractLine(zeit.substring(zeit.indexOf("tarih")));
-                String imsak = extractLine(zeit.substring(zeit.indexOf("imsak")));
-                String gunes = extractLine(zeit.substring(zeit.indexOf("gunes")));
-                String ogle = extractLine(zeit.substring(zeit.indexOf("ogle")));
-                String ikindi = extractLine(zeit.substring(zeit.indexOf("ikindi")));
-                String aksam = extractLine(zeit.substring(zeit.indexOf("aksam")));
-                String yatsi = extractLine(zeit.substring(zeit.indexOf("yatsi")));
-
-                int _d = Integer.parseInt(tarih.substring(0, 2));
-                int _m = Integer.parseInt(tarih.substring(3, 5));
-                int _y = Integer.parseInt(tarih.substring(6, 10));
-                try {
-                    LocalDate localDate = new LocalDate(_y, _m, _d);
-                    setTime(localDate, Vakit.FAJR, imsak);
-                    setTime(localDate, Vakit.SUN, gunes);
-                    setTime(localDate, Vakit.DHUHR, ogle);
-                    setTime(localDate, Vakit.ASR, ikindi);
-                    setTime(localDate, Vakit.MAGHRIB, aksam);
-                    setTime(localDate, Vakit.ISHAA, yatsi);
-                    i++;
-                } catch (IllegalFieldValueException ignore) {
-                }
-            }
+            i += parse(in, this::putDay);
+        }
 
 
+        return i > 25;
+    }
+
+    /**
+     * parses the days of a response for one month
+     *
+     * @return number of days
+     */
+    static int parse(@NonNull InputStream in, @NonNull ResponseScanner.DayReceiver receiver) throws IOException {
+        int i = 0;
+        try (ResponseScanner scanner = new ResponseScanner(in)) {
+            if (!scanner.skipTo("<div class='zeiten'>"))
+                return 0;
+            Day day = new Day();
+            String tag;
+            while ((tag = scanner.nextTag()) != null) {
+                if (tag.equals("div class='zeiten'")) {
+                    if (apply(day, receiver))
+                        i++;
+                    day = new Day();
+                } else if (tag.contains("turkish")) {
+                    day.turkish = true;
+                } else if (day.date == null && tag.contains("tarih")) {
+                    day.date = scanner.readText();
+                } else {
+                    for (int t = 0; t < FIELDS.length; t++) {
+                        if (day.times[t] == 0 && tag.contains(FIELDS[t])) {
+                            day.times[t] = scanner.readTime();
+                            break;
+                        }
+                    }
+                }
+            }
+            if (apply(day, receiver))
+                i++;
         }
+        return i;
+    }
 
+    private static boolean apply(@NonNull Day day, @NonNull ResponseScanner.DayReceiver receiver) {
+        if (day.turkish || day.date == null || day.date.length() < 10)
+            return false;
+        int _d = Integer.parseInt(day.date.substring(0, 2));
+        int _m = Integer.parseInt(day.date.substring(3, 5));
+        int _y = Integer.parseInt(day.date.substring(6, 10));
+        try {
+            LocalDate localDate = new LocalDate(_y, _m, _d);
+            receiver.onDay(localDate, day.times);
+            return true;
+        } catch (IllegalFieldValueException ignore) {
+            return false;
+        }
+    }
 
-        return i > 25;
+    /**
+     * a day of the response, the fields of a day are identified by their classes
+     */
+    private static class Day {
+        private String date;
+        private boolean turkish;
+        private final int[] times = new int[Vakit.LENGTH];
     }
 
 }
\ No newline at end of file
@@ -26,6 +26,8 @@ import com.metinkale.prayer.utils.LocaleUtils;
 
 import org.joda.time.LocalDate;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Locale;
 import java.util.concurrent.ExecutionException;
 
@@ -60,7 +62,7 @@ public class MoroccoTimes extends WebTimes {
         return name;
     }
 
-    protected boolean sync() throws ExecutionException, InterruptedException {
+    protected boolean sync() throws ExecutionException, InterruptedException, IOException {
         LocalDate ldate = LocalDate.now();
         int rY = ldate.getYear();
         int Y = rY;
@@ -72,47 +74,45 @@ public class MoroccoTimes extends WebTimes {
                 M = 1;
                 Y++;
             }
-            String result = Ion.with(App.get())
+            InputStream in = Ion.with(App.get())
                     .load("http://www.habous.gov.ma/prieres/defaultmois.php?ville=" + getId() + "&mois=" + M)
                     .userAgent(App.getUserAgent())
                     .setTimeout(3000)
-                    .asString()
+                    .asInputStream()
                     .get();
-            String temp = result.substring(result.indexOf("colspan=\"4\" class=\"cournt\""));
-            temp = temp.substring(temp.indexOf(">") + 1);
-            temp = temp.substring(0, temp.indexOf("<")).replace(" ", "");
-            int month = Integer.parseInt(temp.substring(0, temp.indexOf("/")));
-            int year = Integer.parseInt(temp.substring(temp.indexOf("/") + 1));
-            result = result.substring(result.indexOf("<td>") + 4);
-            result = result.replace(" ", "").replace("\t", "").replace("\n", "").replace("\r", "");
-            String[] zeiten = result.split("<td>");
-            for (int i = 0; i < zeiten.length; i++) {
-                int day = Integer.parseInt(extract(zeiten[i]));
-                String imsak = extract(zeiten[++i]);
-                String gunes = extract(zeiten[++i]);
-                String ogle = extract(zeiten[++i]);
-                String ikindi = extract(zeiten[++i]);
-                String aksam = extract(zeiten[++i]);
-                String yatsi = extract(zeiten[++i]);
-
-                LocalDate localDate = new LocalDate(year, month, day);
-                setTime(localDate, Vakit.FAJR, imsak);
-                setTime(localDate, Vakit.SUN, gunes);
-                setTime(localDate, Vakit.DHUHR, ogle);
-                setTime(localDate, Vakit.ASR, ikindi);
-                setTime(localDate, Vakit.MAGHRIB, aksam);
-                setTime(localDate, Vakit.ISHAA, yatsi);
-                x++;
-            }
-
-
+            x += parse(in, this::putDay);
         }
 
 
         return x > 25;
     }
 
-    private String extract(@NonNull String s) {
-        return s.substring(0, s.indexOf("<"));
+    /**
+     * parses the days of a response for one month
+     *
+     * @return number of days
+     */
+    static int parse(@NonNull InputStream in, @NonNull ResponseScanner.DayReceiver receiver) throws IOException {
+        int x = 0;
+        try (ResponseScanner scanner = new ResponseScanner(in)) {
+            if (!scanner.skipTo("colspan=\"4\" class=\"cournt\"") || !scanner.skipTo(">"))
+                return 0;
+            String temp = scanner.readText().replace(" ", "");
+            int month = Integer.parseInt(temp.substring(0, temp.indexOf("/")));
+            int year = Integer.parseInt(temp.substring(temp.indexOf("/") + 1));
+
+            // each day is a row of 7 cells: day of month, times
+            int[] times = new int[Vakit.LENGTH];
+            while (scanner.skipTo("<td>")) {
+                int day = Integer.parseInt(scanner.readText());
+                for (int t = 0; t < times.length; t++) {
+                    times[t] = scanner.skipTo("<td>") ? scanner.readTime() : 0;
+                }
+                receiver.onDay(new LocalDate(year, month, day), times);
+                x++;
+            }
+        }
+        return x;
     }
+
 }
\ No newline at end of file
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.metinkale.prayer.times.times.sources;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.metinkale.prayer.times.times.Vakit;
+
+import org.joda.time.LocalDate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+
+/**
+ * Reads HTML/XML responses incrementally, without loading them into a String
+ * <p>
+ * The scanner only knows tags and the text between them, which is all the sources need. Entities are not decoded.
+ */
+final class ResponseScanner implements Closeable {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * receives the days parsed from a response
+     */
+    interface DayReceiver {
+        /**
+         * @param minutes minute of the day of each {@link Vakit}, 0 if missing. The array is reused for the next day.
+         */
+        void onDay(@NonNull LocalDate date, @NonNull int[] minutes);
+    }
+
+    @NonNull
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder builder = new StringBuilder();
+    private int pos;
+    private int limit;
+
+    ResponseScanner(@NonNull InputStream in) {
+        reader = new InputStreamReader(in, UTF8);
+    }
+
+    /**
+     * ensures at least count chars are in the buffer, if the response is long enough
+     *
+     * @return false if the response ended before
+     */
+    private boolean fill(int count) throws IOException {
+        if (limit - pos >= count)
+            return true;
+        System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+        limit -= pos;
+        pos = 0;
+        while (limit < count) {
+            int read = reader.read(buffer, limit, buffer.length - limit);
+            if (read < 0)
+                return false;
+            limit += read;
+        }
+        return true;
+    }
+
+    /**
+     * skips everything up to and including the marker
+     *
+     * @return false if the response does not contain the marker anymore
+     */
+    boolean skipTo(@NonNull String marker) throws IOException {
+        int length = marker.length();
+        while (fill(length)) {
+            if (matches(marker)) {
+                pos += length;
+                return true;
+            }
+            pos++;
+        }
+        pos = limit;
+        return false;
+    }
+
+    private boolean matches(@NonNull String marker) {
+        for (int i = 0; i < marker.length(); i++) {
+            if (buffer[pos + i] != marker.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * skips to the next tag and reads its content (name and attributes without the brackets), e.g. "a:Imsak" or
+     * "div class='zeiten'"
+     *
+     * @return the tag, closing tags start with '/', null at the end of the response
+     */
+    @Nullable
+    String nextTag() throws IOException {
+        if (!skipTo("<"))
+            return null;
+        builder.setLength(0);
+        while (fill(1)) {
+            char c = buffer[pos++];
+            if (c == '>')
+                return builder.toString();
+            builder.append(c);
+        }
+        return null;
+    }
+
+    /**
+     * reads the text up to the next tag, the tag itself is not consumed
+     *
+     * @return the trimmed text
+     */
+    @NonNull
+    String readText() throws IOException {
+        builder.setLength(0);
+        while (fill(1) && buffer[pos] != '<') {
+            builder.append(buffer[pos++]);
+        }
+        return builder.toString().trim();
+    }
+
+    /**
+     * reads a time ("HH:mm") from the text up to the next tag, the tag itself is not consumed
+     *
+     * @return minute of the day, 0 if the text is not a time
+     */
+    int readTime() throws IOException {
+        int h = -1;
+        int m = -1;
+        int digits = 0;
+        boolean valid = true;
+        while (fill(1) && buffer[pos] != '<') {
+            char c = buffer[pos++];
+            if (c >= '0' && c <= '9') {
+                if (m < 0) {
+                    h = (h < 0 ? 0 : h * 10) + c - '0';
+                } else if (digits < 2) {
+                    m = m * 10 + c - '0';
+                    digits++;
+                }
+            } else if (c == ':' && h >= 0 && m < 0) {
+                m = 0;
+            } else if (!Character.isWhitespace(c) && (m < 0 || digits < 2)) {
+                valid = false;
+            }
+        }
+        if (!valid || h < 0 || digits < 2)
+            return 0;
+        return h * 60 + m;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
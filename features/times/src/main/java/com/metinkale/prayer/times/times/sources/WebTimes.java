@@ -21,10 +21,7 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.collection.ArrayMap;
-import androidx.collection.ArraySet;
 
-import com.crashlytics.android.Crashlytics;
 import com.crashlytics.android.answers.Answers;
 import com.crashlytics.android.answers.CustomEvent;
 import com.evernote.android.job.Job;
@@ -32,27 +29,33 @@ import com.evernote.android.job.JobManager;
 import com.evernote.android.job.JobRequest;
 import com.metinkale.prayer.App;
 import com.metinkale.prayer.times.R;
+import com.metinkale.prayer.times.times.DayTable;
+import com.metinkale.prayer.times.times.DayTableJournal;
 import com.metinkale.prayer.times.times.Source;
 import com.metinkale.prayer.times.times.Times;
 import com.metinkale.prayer.times.times.Vakit;
-import com.metinkale.prayer.utils.FastParser;
 import com.metinkale.prayer.utils.UUID;
 
 import org.joda.time.LocalDate;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 public abstract class WebTimes extends Times {
 
-    @NonNull
-    protected ArrayMap<String, String> times = new ArrayMap<>();
+    // times were stored in the city json by older versions, they are only read to migrate them into the DayTableJournal
+    @Nullable
+    private DayTable times;
+    @Nullable
+    private transient DayTableJournal journal;
     private String id;
     private int jobId = -1;
     private long lastSync;
+    // collects the times of a running sync(Batch), set and read only by the sync thread (setTime() is only called from sync())
+    @Nullable
+    private transient Batch batch;
 
     protected WebTimes(long id) {
         super(id);
@@ -92,11 +95,34 @@ public abstract class WebTimes extends Times {
     @Override
     public void delete() {
         super.delete();
+        DayTableJournal.delete(getID());
         if (jobId != -1)
             JobManager.instance().cancel(jobId);
     }
 
 
+    @NonNull
+    private synchronized DayTableJournal getJournal() {
+        if (journal == null) {
+            journal = DayTableJournal.open(getID(), times);
+            if (times != null) {
+                times = null;
+                save();
+            }
+        }
+        return journal;
+    }
+
+    @Override
+    protected void preload() {
+        getJournal();
+    }
+
+    @NonNull
+    private DayTable getDays() {
+        return getJournal().getTable();
+    }
+
     String extractLine(String str) {
         str = str.substring(str.indexOf(">") + 1);
         str = str.substring(0, str.indexOf("</"));
@@ -105,44 +131,77 @@ public abstract class WebTimes extends Times {
 
     @Nullable
     protected String getStrTime(LocalDate date, Vakit time) {
-        String str = times.get(date.toString("yyyy-MM-dd") + "-" + time.ordinal());
-        if (str == null || str.isEmpty() || str.contains("00:00")) {
+        int minutes = getDays().get(toEpochDay(date), time.ordinal());
+        if (minutes <= 0) {
             return "00:00";
         }
-        return str.replace("*", "");
+        return DayTable.toString(minutes);
+    }
+
+    @Override
+    protected int getMinuteOfDay(int epochDay, Vakit time) {
+        return getDays().get(epochDay, time.ordinal());
     }
 
     @Nullable
     @Override
     protected String getSabah(LocalDate date) {
-        return times.get(date.toString("yyyy-MM-dd") + "-SABAH");
+        int minutes = getDays().get(toEpochDay(date), DayTable.SABAH);
+        return minutes <= 0 ? null : DayTable.toString(minutes);
     }
 
     @Nullable
     @Override
     protected String getAsrThani(LocalDate date) {
-        return times.get(date.toString("yyyy-MM-dd") + "-ASRSANI");
+        int minutes = getDays().get(toEpochDay(date), DayTable.ASR_THANI);
+        return minutes <= 0 ? null : DayTable.toString(minutes);
     }
 
     protected void setTime(@NonNull LocalDate date, Vakit time, @NonNull String value) {
-        if (isDeleted() || value.contains("00:00"))
-            return;
-        times.put(date.toString("yyyy-MM-dd") + "-" + time.ordinal(), value.replace("*", ""));
-        save();
+        setTime(date, time.ordinal(), value);
     }
 
     protected void setSabah(@NonNull LocalDate date, @NonNull String value) {
-        if (isDeleted() || value.contains("00:00"))
-            return;
-        times.put(date.toString("yyyy-MM-dd") + "-SABAH", value.replace("*", ""));
-        save();
+        setTime(date, DayTable.SABAH, value);
     }
 
     protected void setAsrThani(@NonNull LocalDate date, @NonNull String value) {
-        if (isDeleted() || value.contains("00:00"))
+        setTime(date, DayTable.ASR_THANI, value);
+    }
+
+    /**
+     * @param minutes minute of the day, e.g. from {@link ResponseScanner#readTime()}
+     */
+    protected void setTime(@NonNull LocalDate date, Vakit time, int minutes) {
+        setTime(date, time.ordinal(), minutes);
+    }
+
+    private void setTime(@NonNull LocalDate date, int column, @NonNull String value) {
+        if (value.contains("00:00"))
             return;
-        times.put(date.toString("yyyy-MM-dd") + "-ASRTHANI", value.replace("*", ""));
-        save();
+        setTime(date, column, DayTable.parse(value));
+    }
+
+    /**
+     * sets all times of a day
+     *
+     * @param minutes minute of the day of each {@link Vakit}, values &lt;= 0 are ignored
+     */
+    protected void putDay(@NonNull LocalDate date, @NonNull int[] minutes) {
+        for (Vakit vakit : Vakit.values()) {
+            setTime(date, vakit.ordinal(), minutes[vakit.ordinal()]);
+        }
+    }
+
+    private void setTime(@NonNull LocalDate date, int column, int minutes) {
+        if (isDeleted() || minutes <= 0)
+            return;
+        if (batch != null) {
+            batch.add(toEpochDay(date), column, minutes);
+            return;
+        }
+        getJournal().set(toEpochDay(date), column, minutes);
+        notifyChanged();
     }
 
     public String getId() {
@@ -161,7 +220,37 @@ public abstract class WebTimes extends Times {
     }
 
 
-    abstract boolean sync() throws ExecutionException, InterruptedException;
+    abstract boolean sync() throws ExecutionException, InterruptedException, IOException;
+
+    /**
+     * syncs the times into the batch instead of this city
+     */
+    boolean sync(@NonNull Batch batch) throws ExecutionException, InterruptedException, IOException {
+        this.batch = batch;
+        try {
+            return sync();
+        } finally {
+            this.batch = null;
+        }
+    }
+
+    /**
+     * writes the times of a sync
+     */
+    void apply(@NonNull Batch batch, boolean success) {
+        if (isDeleted())
+            return;
+        write(batch);
+        if (success)
+            cleanTimes();
+    }
+
+    private void write(@NonNull Batch batch) {
+        if (batch.getCount() > 0 && !isDeleted()) {
+            getJournal().setAll(batch.getValues(), batch.getCount());
+            notifyChanged();
+        }
+    }
 
     public void syncAsync() {
 
@@ -173,72 +262,24 @@ public abstract class WebTimes extends Times {
         if (getId() == null)
             return;
 
-        new Thread("SyncWebTimes" + getId()) {
-            @Override
-            public void run() {
-                try {
-                    if (sync()) {
-                        App.get().getHandler().post(Times::setAlarms);
-                        cleanTimes();
-                    }
-                } catch (Exception e) {
-                    Crashlytics.logException(e);
-                }
-            }
-        }.start();
+        WebTimesSync.enqueue(this);
     }
 
 
     private int getSyncedDays() {
-        LocalDate date = LocalDate.now().plusDays(1);
-        int i = 0;
-        while (i < 45) {
-            String prefix = date.toString("yyyy-MM-dd") + "-";
-            String[] times = {this.times.get(prefix + 0), this.times.get(prefix + 1), this.times.get(prefix + 2), this.times.get(prefix + 3),
-                    this.times.get(prefix + 4), this.times.get(prefix + 5)};
-            for (String time : times) {
-                if (time == null || time.contains("00:00"))
-                    return i;
-            }
-            i++;
-            date = date.plusDays(1);
-        }
-        return i;
-
+        return getDays().countCompleteDays(today() + 1, 45);
     }
 
     @NonNull
     public LocalDate getFirstSyncedDay() {
-        LocalDate date = LocalDate.now();
-        int i = 0;
-        while (true) {
-            String prefix = date.toString("yyyy-MM-dd") + "-";
-            String[] times = {this.times.get(prefix + 0), this.times.get(prefix + 1), this.times.get(prefix + 2), this.times.get(prefix + 3),
-                    this.times.get(prefix + 4), this.times.get(prefix + 5)};
-            for (String time : times) {
-                if (time == null || time.contains("00:00") || i > this.times.size())
-                    return date.plusDays(1);
-            }
-            i++;
-            date = date.minusDays(1);
-        }
+        int today = today();
+        return LocalDate.now().plusDays(getDays().getFirstCompleteDay(today) - today);
     }
 
     @NonNull
     public LocalDate getLastSyncedDay() {
-        LocalDate date = LocalDate.now();
-        int i = 0;
-        while (true) {
-            String prefix = date.toString("yyyy-MM-dd") + "-";
-            String[] times = {this.times.get(prefix + 0), this.times.get(prefix + 1), this.times.get(prefix + 2), this.times.get(prefix + 3),
-                    this.times.get(prefix + 4), this.times.get(prefix + 5)};
-            for (String time : times) {
-                if (time == null || time.contains("00:00") || i > this.times.size())
-                    return date.minusDays(1);
-            }
-            i++;
-            date = date.plusDays(1);
-        }
+        int today = today();
+        return LocalDate.now().plusDays(getDays().getLastCompleteDay(today) - today);
     }
 
 
@@ -294,30 +335,40 @@ public abstract class WebTimes extends Times {
     }
 
     private void cleanTimes() {
-        Set<String> keys = new ArraySet<>();
-        keys.addAll(times.keySet());
-        LocalDate date = LocalDate.now();
-        int y = date.getYear();
-        int m = date.getMonthOfYear();
-        List<String> remove = new ArrayList<>();
-        for (String key : keys) {
-            if (key == null)
-                continue;
-            int year = FastParser.parseInt(key.substring(0, 4));
-            if (year < y)
-                keys.remove(key);
-            else if (year == y) {
-                int month = FastParser.parseInt(key.substring(5, 7));
-                if (month < m)
-                    remove.add(key);
+        getDays().removeBefore(toEpochDay(LocalDate.now().withDayOfMonth(1)));
+        getJournal().compact();
+    }
+
+    protected void clearTimes() {
+        getDays().clear();
+        getJournal().compact();
+    }
+
+    /**
+     * times collected by a sync, see {@link #sync(Batch)} (int day, int column, int minutes)
+     */
+    static final class Batch {
+        private int[] values = new int[3 * 64];
+        private int count;
+
+        void add(int epochDay, int column, int minutes) {
+            if (count * 3 == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
             }
+            values[count * 3] = epochDay;
+            values[count * 3 + 1] = column;
+            values[count * 3 + 2] = minutes;
+            count++;
         }
-        times.removeAll(remove);
 
-    }
+        @NonNull
+        int[] getValues() {
+            return values;
+        }
 
-    protected void clearTimes() {
-        times.clear();
+        int getCount() {
+            return count;
+        }
     }
 
 }
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.metinkale.prayer.times.times.sources;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.collection.ArrayMap;
+
+import com.crashlytics.android.Crashlytics;
+import com.metinkale.prayer.App;
+import com.metinkale.prayer.times.times.DayTableJournal;
+import com.metinkale.prayer.times.times.Source;
+import com.metinkale.prayer.times.times.Times;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the syncs of all {@link WebTimes} on a bounded pool
+ * <p>
+ * Each source only gets a few syncs at a time, the others wait in a queue of their source. Cities with the same source and id
+ * share one request: the times are downloaded once, collected in a {@link WebTimes.Batch} and then written to every city with a
+ * single notification.
+ */
+final class WebTimesSync {
+    private static final int THREADS = 4;
+    private static final int THREADS_PER_SOURCE = 2;
+    private static final ThreadPoolExecutor sExecutor;
+
+    // all guarded by WebTimesSync.class
+    private static final ArrayMap<String, Request> sRequests = new ArrayMap<>();
+    private static final ArrayMap<Source, ArrayDeque<Request>> sWaiting = new ArrayMap<>();
+    private static final ArrayMap<Source, Integer> sRunning = new ArrayMap<>();
+    private static int sQueued;
+    private static int sMaxQueued;
+    private static int sSyncs;
+    private static int sCoalesced;
+    private static int sFailed;
+    private static long sLatencyMillis;
+    private static long sMaxLatencyMillis;
+    private static int sPersisted;
+    private static long sPersistMillis;
+
+    static {
+        sExecutor = new ThreadPoolExecutor(THREADS, THREADS, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        sExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    private WebTimesSync() {
+    }
+
+    private static final class Request implements Runnable {
+        @NonNull
+        private final String key;
+        @NonNull
+        private final Source source;
+        private final List<WebTimes> cities = new ArrayList<>(1);
+        private final long enqueued = SystemClock.elapsedRealtime();
+
+        private Request(@NonNull String key, @NonNull Source source) {
+            this.key = key;
+            this.source = source;
+        }
+
+        @Override
+        public void run() {
+            WebTimes leader;
+            synchronized (WebTimesSync.class) {
+                sQueued--;
+                leader = cities.get(0);
+            }
+
+            WebTimes.Batch batch = new WebTimes.Batch();
+            boolean success = false;
+            try {
+                success = leader.sync(batch);
+            } catch (Exception e) {
+                Crashlytics.logException(e);
+            }
+
+            List<WebTimes> cities;
+            synchronized (WebTimesSync.class) {
+                // cities added from now on start a new request
+                sRequests.remove(key);
+                cities = new ArrayList<>(this.cities);
+            }
+
+            for (WebTimes city : cities) {
+                try {
+                    city.apply(batch, success);
+                } catch (Exception e) {
+                    Crashlytics.logException(e);
+                }
+            }
+            if (success) {
+                App.get().getHandler().post(Times::setAlarms);
+            }
+            DayTableJournal.runAfterWrites(() -> persisted(this));
+
+            finish(this, success);
+        }
+    }
+
+    /**
+     * syncs the city, or joins a request of another city with the same source and id
+     */
+    static void enqueue(@NonNull WebTimes city) {
+        Source source = city.getSource();
+        String key = source.name() + ":" + city.getId();
+        synchronized (WebTimesSync.class) {
+            Request request = sRequests.get(key);
+            if (request != null) {
+                if (!request.cities.contains(city))
+                    request.cities.add(city);
+                sCoalesced++;
+                return;
+            }
+
+            request = new Request(key, source);
+            request.cities.add(city);
+            sRequests.put(key, request);
+            sQueued++;
+            sMaxQueued = Math.max(sMaxQueued, sQueued);
+
+            int running = getRunning(source);
+            if (running < THREADS_PER_SOURCE) {
+                sRunning.put(source, running + 1);
+                sExecutor.execute(request);
+            } else {
+                ArrayDeque<Request> waiting = sWaiting.get(source);
+                if (waiting == null) {
+                    waiting = new ArrayDeque<>();
+                    sWaiting.put(source, waiting);
+                }
+                waiting.add(request);
+            }
+        }
+    }
+
+    private static int getRunning(@NonNull Source source) {
+        Integer running = sRunning.get(source);
+        return running == null ? 0 : running;
+    }
+
+    private static void finish(@NonNull Request request, boolean success) {
+        String stats;
+        synchronized (WebTimesSync.class) {
+            long latency = SystemClock.elapsedRealtime() - request.enqueued;
+            sSyncs++;
+            if (!success)
+                sFailed++;
+            sLatencyMillis += latency;
+            sMaxLatencyMillis = Math.max(sMaxLatencyMillis, latency);
+
+            // the slot of the source is passed to the next waiting request
+            ArrayDeque<Request> waiting = sWaiting.get(request.source);
+            Request next = waiting == null ? null : waiting.poll();
+            if (next != null) {
+                sExecutor.execute(next);
+            } else {
+                sRunning.put(request.source, getRunning(request.source) - 1);
+            }
+            stats = getStats();
+        }
+        Crashlytics.setString("syncStats", stats);
+    }
+
+    private static void persisted(@NonNull Request request) {
+        String stats;
+        synchronized (WebTimesSync.class) {
+            sPersisted++;
+            sPersistMillis += SystemClock.elapsedRealtime() - request.enqueued;
+            stats = getStats();
+        }
+        Crashlytics.setString("syncStats", stats);
+    }
+
+    @NonNull
+    private static String getStats() {
+        return "syncs=" + sSyncs + " failed=" + sFailed + " coalesced=" + sCoalesced + " queued=" + sQueued + " maxQueued=" + sMaxQueued
+                + " avgMs=" + (sSyncs == 0 ? 0 : sLatencyMillis / sSyncs) + " maxMs=" + sMaxLatencyMillis
+                + " persistMs=" + (sPersisted == 0 ? 0 : sPersistMillis / sPersisted);
+    }
+}
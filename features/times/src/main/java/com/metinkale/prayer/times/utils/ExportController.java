@@ -17,6 +17,7 @@
 package com.metinkale.prayer.times.utils;
 
 import android.app.DatePickerDialog;
+import android.app.ProgressDialog;
 import android.content.Context;
 import android.content.Intent;
 import android.graphics.Canvas;
@@ -24,9 +25,11 @@ import android.graphics.Paint;
 import android.graphics.drawable.Drawable;
 import android.graphics.pdf.PdfDocument;
 import android.net.Uri;
+import android.os.AsyncTask;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.core.content.FileProvider;
 
@@ -37,29 +40,214 @@ import com.metinkale.prayer.times.times.Vakit;
 import com.metinkale.prayer.times.times.sources.WebTimes;
 import com.metinkale.prayer.utils.LocaleUtils;
 
+import org.joda.time.Chronology;
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeConstants;
 import org.joda.time.LocalDate;
+import org.joda.time.chrono.ISOChronology;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-
-import static com.metinkale.prayer.times.times.Vakit.ASR;
-import static com.metinkale.prayer.times.times.Vakit.DHUHR;
-import static com.metinkale.prayer.times.times.Vakit.FAJR;
-import static com.metinkale.prayer.times.times.Vakit.ISHAA;
-import static com.metinkale.prayer.times.times.Vakit.MAGHRIB;
-import static com.metinkale.prayer.times.times.Vakit.SUN;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 
 public class ExportController {
-    public static void exportPDF(Context ctx, Times times, @NonNull LocalDate from, @NonNull LocalDate to) throws IOException {
+    // days whose times are read at once
+    private static final int CHUNK_DAYS = 31;
+    private static final int PAGE_WIDTH = 595;
+    private static final int PAGE_HEIGHT = 842;
+    private static final int PADDING = 30;
+    private static final int ROW_HEIGHT = 20;
+
+    /**
+     * exports the times off the UI thread and shares the file
+     */
+    private static class ExportTask extends AsyncTask<Void, Integer, File> {
+        @NonNull
+        private final Context ctx;
+        @NonNull
+        private final Times times;
+        private final boolean pdf;
+        private final int from;
+        private final int days;
+        @NonNull
+        private final ProgressDialog dialog;
+        @Nullable
+        private IOException exception;
+
+        ExportTask(@NonNull Context ctx, @NonNull Times times, boolean pdf, @NonNull LocalDate from, @NonNull LocalDate to) {
+            this.ctx = ctx;
+            this.times = times;
+            this.pdf = pdf;
+            this.from = Times.toEpochDay(from);
+            this.days = Math.max(1, Times.toEpochDay(to) - this.from + 1);
+            dialog = new ProgressDialog(ctx);
+            dialog.setProgressStyle(ProgressDialog.STYLE_HORIZONTAL);
+            dialog.setCancelable(false);
+            dialog.setCanceledOnTouchOutside(false);
+            dialog.setMax(days);
+        }
+
+        @Override
+        protected void onPreExecute() {
+            dialog.show();
+        }
+
+        @Nullable
+        @Override
+        protected File doInBackground(Void... voids) {
+            try {
+                return pdf ? exportPDF(ctx, times, from, days, this::publishProgress) : exportCSV(ctx, times, from, days, this::publishProgress);
+            } catch (IOException e) {
+                exception = e;
+                return null;
+            }
+        }
+
+        @Override
+        protected void onProgressUpdate(Integer... values) {
+            dialog.setProgress(values[0]);
+        }
+
+        @Override
+        protected void onPostExecute(@Nullable File file) {
+            if (dialog.isShowing()) {
+                dialog.dismiss();
+            }
+            if (file == null) {
+                if (exception != null) {
+                    exception.printStackTrace();
+                    Crashlytics.logException(exception);
+                }
+                Toast.makeText(ctx, R.string.error, Toast.LENGTH_SHORT).show();
+                return;
+            }
+
+            Intent shareIntent = new Intent();
+            shareIntent.setAction(Intent.ACTION_SEND);
+            shareIntent.setType(pdf ? "application/pdf" : "name/csv");
+
+            Uri uri = FileProvider.getUriForFile(ctx, ctx.getString(R.string.FILE_PROVIDER_AUTHORITIES), file);
+            shareIntent.putExtra(Intent.EXTRA_STREAM, uri);
+
+            ctx.startActivity(Intent.createChooser(shareIntent, ctx.getResources().getText(R.string.export)));
+        }
+    }
+
+    private interface ProgressListener {
+        /**
+         * @param days number of exported days
+         */
+        void onProgress(int days);
+    }
+
+    @NonNull
+    private static File getOutputFile(@NonNull Context ctx, @NonNull Times times, @NonNull String extension) {
+        File outputDir = ctx.getCacheDir();
+        if (!outputDir.exists())
+            outputDir.mkdirs();
+        File outputFile = new File(outputDir, times.getName().replace(" ", "_") + extension);
+        if (outputFile.exists())
+            outputFile.delete();
+        return outputFile;
+    }
+
+    /**
+     * appends the date as in {@link LocalDate#toString(String)}
+     *
+     * @param iso true for "yyyy-MM-dd", false for "dd.MM.yyyy"
+     */
+    private static void appendDate(@NonNull StringBuilder builder, int epochDay, boolean iso) {
+        long millis = epochDay * (long) DateTimeConstants.MILLIS_PER_DAY;
+        Chronology chrono = ISOChronology.getInstanceUTC();
+        int year = chrono.year().get(millis);
+        int month = chrono.monthOfYear().get(millis);
+        int day = chrono.dayOfMonth().get(millis);
+        if (iso) {
+            builder.append(year).append('-');
+            appendTwoDigits(builder, month);
+            builder.append('-');
+            appendTwoDigits(builder, day);
+        } else {
+            appendTwoDigits(builder, day);
+            builder.append('.');
+            appendTwoDigits(builder, month);
+            builder.append('.').append(year);
+        }
+    }
+
+    /**
+     * appends the time as in {@link org.joda.time.LocalTime#toString()}, e.g. "05:12:00.000"
+     */
+    private static void appendTime(@NonNull StringBuilder builder, int minutes) {
+        appendTwoDigits(builder, minutes / 60);
+        builder.append(':');
+        appendTwoDigits(builder, minutes % 60);
+        builder.append(":00.000");
+    }
+
+    private static void appendTwoDigits(@NonNull StringBuilder builder, int value) {
+        builder.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    @NonNull
+    private static File exportPDF(@NonNull Context ctx, @NonNull Times times, int from, int days, @NonNull ProgressListener listener)
+            throws IOException {
         PdfDocument document = new PdfDocument();
+        Paint paint = new Paint();
+        int cw = (PAGE_WIDTH - PADDING - PADDING) / 7;
+        int[] values = new int[CHUNK_DAYS * Vakit.LENGTH];
+        StringBuilder builder = new StringBuilder();
+
+        PdfDocument.Page page = null;
+        int pageNumber = 0;
+        int y = 0;
+        for (int chunk = 0; chunk < days; chunk += CHUNK_DAYS) {
+            int chunkDays = Math.min(CHUNK_DAYS, days - chunk);
+            times.getTimes(from + chunk, chunkDays, values);
+            for (int d = 0; d < chunkDays; d++) {
+                if (page == null || y + ROW_HEIGHT > PAGE_HEIGHT - PADDING) {
+                    if (page != null)
+                        document.finishPage(page);
+                    pageNumber++;
+                    page = document.startPage(new PdfDocument.PageInfo.Builder(PAGE_WIDTH, PAGE_HEIGHT, pageNumber).create());
+                    y = pageNumber == 1 ? drawHeader(ctx, times, page.getCanvas(), paint) : PADDING;
+                    drawColumns(ctx, page.getCanvas(), paint, y, cw);
+                }
 
-        PdfDocument.PageInfo pageInfo;
-        int pw = 595;
-        int ph = 842;
-        pageInfo = new PdfDocument.PageInfo.Builder(pw, ph, 1).create();
-        PdfDocument.Page page = document.startPage(pageInfo);
+                Canvas canvas = page.getCanvas();
+                y += ROW_HEIGHT;
+                builder.setLength(0);
+                appendDate(builder, from + chunk + d, false);
+                canvas.drawText(builder.toString(), PADDING + (0.5f * cw), y, paint);
+                for (int t = 0; t < Vakit.LENGTH; t++) {
+                    builder.setLength(0);
+                    appendTime(builder, values[d * Vakit.LENGTH + t]);
+                    canvas.drawText(builder.toString(), PADDING + ((t + 1.5f) * cw), y, paint);
+                }
+            }
+            listener.onProgress(chunk + chunkDays);
+        }
+        document.finishPage(page);
+
+        File outputFile = getOutputFile(ctx, times, ".pdf");
+        try (FileOutputStream outputStream = new FileOutputStream(outputFile)) {
+            document.writeTo(outputStream);
+        } finally {
+            document.close();
+        }
+        return outputFile;
+    }
+
+    /**
+     * draws the logos and the name of the city on the first page
+     *
+     * @return y of the column names
+     */
+    private static int drawHeader(@NonNull Context ctx, @NonNull Times times, @NonNull Canvas canvas, @NonNull Paint paint) throws IOException {
+        int pw = PAGE_WIDTH;
         Drawable launcher = Drawable.createFromStream(ctx.getAssets().open("pdf/launcher.png"), null);
         Drawable qr = Drawable.createFromStream(ctx.getAssets().open("pdf/qrcode.png"), null);
         Drawable badge =
@@ -72,10 +260,6 @@ public class ExportController {
         int h = w * badge.getIntrinsicHeight() / badge.getIntrinsicWidth();
         badge.setBounds(pw - 30 - w, 30 + (60 / 2 - h / 2), pw - 30, 30 + (60 / 2 - h / 2) + h);
 
-
-        Canvas canvas = page.getCanvas();
-
-        Paint paint = new Paint();
         paint.setARGB(255, 0, 0, 0);
         paint.setTextSize(10);
         paint.setTextAlign(Paint.Align.CENTER);
@@ -105,86 +289,52 @@ public class ExportController {
         paint.setTextAlign(Paint.Align.CENTER);
         paint.setFakeBoldText(true);
         canvas.drawText(times.getName(), pw / 2.0f, 30 + 65 + 50, paint);
+        return 30 + 65 + 5 + 65 + 30;
+    }
 
+    /**
+     * draws the names of the columns, which are repeated on every page
+     */
+    private static void drawColumns(@NonNull Context ctx, @NonNull Canvas canvas, @NonNull Paint paint, int y, int cw) {
+        paint.setARGB(255, 0, 0, 0);
         paint.setTextSize(12);
-        int y = 30 + 65 + 5 + 65 + 30;
-        int p = 30;
-        int cw = (pw - p - p) / 7;
-        canvas.drawText(ctx.getString(R.string.date), 30 + (0.5f * cw), y, paint);
-        canvas.drawText(FAJR.getString(), 30 + (1.5f * cw), y, paint);
-        canvas.drawText(Vakit.SUN.getString(), 30 + (2.5f * cw), y, paint);
-        canvas.drawText(Vakit.DHUHR.getString(), 30 + (3.5f * cw), y, paint);
-        canvas.drawText(Vakit.ASR.getString(), 30 + (4.5f * cw), y, paint);
-        canvas.drawText(Vakit.MAGHRIB.getString(), 30 + (5.5f * cw), y, paint);
-        canvas.drawText(Vakit.ISHAA.getString(), 30 + (6.5f * cw), y, paint);
+        paint.setTextAlign(Paint.Align.CENTER);
+        paint.setFakeBoldText(true);
+        canvas.drawText(ctx.getString(R.string.date), PADDING + (0.5f * cw), y, paint);
+        for (Vakit vakit : Vakit.values()) {
+            canvas.drawText(vakit.getString(), PADDING + ((vakit.ordinal() + 1.5f) * cw), y, paint);
+        }
         paint.setFakeBoldText(false);
-        do {
-            y += 20;
-            canvas.drawText((from.toString("dd.MM.yyyy")), 30 + (0.5f * cw), y, paint);
-            canvas.drawText(times.getTime(from, FAJR.ordinal()).toLocalTime().toString(), 30 + (1.5f * cw), y, paint);
-            canvas.drawText(times.getTime(from, SUN.ordinal()).toLocalTime().toString(), 30 + (2.5f * cw), y, paint);
-            canvas.drawText(times.getTime(from, DHUHR.ordinal()).toLocalTime().toString(), 30 + (3.5f * cw), y, paint);
-            canvas.drawText(times.getTime(from, ASR.ordinal()).toLocalTime().toString(), 30 + (4.5f * cw), y, paint);
-            canvas.drawText(times.getTime(from, MAGHRIB.ordinal()).toLocalTime().toString(), 30 + (5.5f * cw), y, paint);
-            canvas.drawText(times.getTime(from, ISHAA.ordinal()).toLocalTime().toString(), 30 + (6.5f * cw), y, paint);
-        } while (!(from = from.plusDays(1)).isAfter(to));
-        document.finishPage(page);
-
-
-        File outputDir = ctx.getCacheDir();
-        if (!outputDir.exists())
-            outputDir.mkdirs();
-        File outputFile = new File(outputDir, times.getName().replace(" ", "_") + ".pdf");
-        if (outputFile.exists())
-            outputFile.delete();
-        FileOutputStream outputStream = new FileOutputStream(outputFile);
-        document.writeTo(outputStream);
-        document.close();
+    }
 
-        Intent shareIntent = new Intent();
-        shareIntent.setAction(Intent.ACTION_SEND);
-        shareIntent.setType("application/pdf");
+    @NonNull
+    private static File exportCSV(@NonNull Context ctx, @NonNull Times times, int from, int days, @NonNull ProgressListener listener)
+            throws IOException {
+        File outputFile = getOutputFile(ctx, times, ".csv");
+        int[] values = new int[CHUNK_DAYS * Vakit.LENGTH];
+        StringBuilder builder = new StringBuilder();
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile)), 16 * 1024)) {
+            writer.write("HijriDate;Fajr;Shuruq;Dhuhr;Asr;Maghrib;Ishaa\n");
+            for (int chunk = 0; chunk < days; chunk += CHUNK_DAYS) {
+                int chunkDays = Math.min(CHUNK_DAYS, days - chunk);
+                times.getTimes(from + chunk, chunkDays, values);
+                builder.setLength(0);
+                for (int d = 0; d < chunkDays; d++) {
+                    appendDate(builder, from + chunk + d, true);
+                    for (int t = 0; t < Vakit.LENGTH; t++) {
+                        builder.append(';');
+                        appendTime(builder, values[d * Vakit.LENGTH + t]);
+                    }
+                    builder.append('\n');
+                }
+                writer.append(builder);
+                listener.onProgress(chunk + chunkDays);
+            }
+        }
+        return outputFile;
+    }
 
-        Uri uri = FileProvider.getUriForFile(ctx, ctx.getString(R.string.FILE_PROVIDER_AUTHORITIES), outputFile);
-        shareIntent.putExtra(Intent.EXTRA_STREAM, uri);
 
-        ctx.startActivity(Intent.createChooser(shareIntent, ctx.getResources().getText(R.string.export)));
-    }
-    
-    public static void exportCSV(Context ctx, Times times, @NonNull LocalDate from, @NonNull LocalDate to) throws IOException {
-        File outputDir = ctx.getCacheDir();
-        if (!outputDir.exists())
-            outputDir.mkdirs();
-        File outputFile = new File(outputDir, times.getName().replace(" ", "_") + ".csv");
-        if (outputFile.exists())
-            outputFile.delete();
-        FileOutputStream outputStream;
-        
-        outputStream = new FileOutputStream(outputFile);
-        outputStream.write("HijriDate;Fajr;Shuruq;Dhuhr;Asr;Maghrib;Ishaa\n".getBytes());
-        
-        do {
-            outputStream.write((from.toString("yyyy-MM-dd") + ";").getBytes());
-            outputStream.write((times.getTime(from, FAJR.ordinal()).toLocalTime().toString() + ";").getBytes());
-            outputStream.write((times.getTime(from, SUN.ordinal()).toLocalTime().toString() + ";").getBytes());
-            outputStream.write((times.getTime(from, DHUHR.ordinal()).toLocalTime().toString() + ";").getBytes());
-            outputStream.write((times.getTime(from, ASR.ordinal()).toLocalTime().toString() + ";").getBytes());
-            outputStream.write((times.getTime(from, MAGHRIB.ordinal()).toLocalTime().toString() + ";").getBytes());
-            outputStream.write((times.getTime(from, ISHAA.ordinal()).toLocalTime().toString() + "\n").getBytes());
-        } while (!(from = from.plusDays(1)).isAfter(to));
-        outputStream.close();
-        
-        Intent shareIntent = new Intent();
-        shareIntent.setAction(Intent.ACTION_SEND);
-        shareIntent.setType("name/csv");
-        
-        Uri uri = FileProvider.getUriForFile(ctx, ctx.getString(R.string.FILE_PROVIDER_AUTHORITIES), outputFile);
-        shareIntent.putExtra(Intent.EXTRA_STREAM, uri);
-        
-        ctx.startActivity(Intent.createChooser(shareIntent, ctx.getResources().getText(R.string.export)));
-    }
-    
-    
     public static void export(final Context ctx, final Times times) {
         AlertDialog.Builder builder = new AlertDialog.Builder(ctx);
         builder.setTitle(R.string.export).setItems(new CharSequence[]{"CSV", "PDF"}, (dialogInterface, which) -> {
@@ -200,24 +350,11 @@ public class ExportController {
                 final LocalDate from = new LocalDate(y, m + 1, d);
                 DatePickerDialog dlg1 = new DatePickerDialog(ctx, (datePicker1, y1, m1, d1) -> {
                     final LocalDate to = new LocalDate(y1, m1 + 1, d1);
-                    try {
-                        if (which == 0) {
-                            exportCSV(ctx, times, from, to);
-                        } else {
-                            exportPDF(ctx, times, from, to);
-                        }
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                        Crashlytics.logException(e);
-                        Toast.makeText(ctx, R.string.error, Toast.LENGTH_SHORT).show();
-                    }
+                    new ExportTask(ctx, times, which == 1, from, to).execute();
                 }, ld.getYear(), ld.getMonthOfYear() - 1, ld.getDayOfMonth());
                 DateTime startDate = DateTime.now().withDate(y, m + 1, d);
                 long start = startDate.getMillis();
-                if (which == 1)
-                    dlg1.getDatePicker().setMaxDate(Math.min(finalMaxDate, startDate.plusDays(31).getMillis()));
-                else
-                    dlg1.getDatePicker().setMaxDate(finalMaxDate);
+                dlg1.getDatePicker().setMaxDate(finalMaxDate);
 
                 dlg1.getDatePicker().setMinDate(Math.min(start, dlg1.getDatePicker().getMaxDate() - 1000 * 60 * 60 * 24));
                 dlg1.setTitle(R.string.to);
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.metinkale.prayer.times.times.sources;
+
+import androidx.annotation.NonNull;
+
+import com.metinkale.prayer.times.times.Vakit;
+
+import org.joda.time.IllegalFieldValueException;
+import org.joda.time.LocalDate;
+
+/**
+ * The string based parsing of the sources before {@link ResponseScanner}, as reference for the tests and benchmarks
+ */
+final class LegacyParsers {
+    private LegacyParsers() {
+    }
+
+    static int diyanet(@NonNull String result, @NonNull ParsedTimes out) {
+        result = result.substring(result.indexOf("<a:NamazVakti>") + 14);
+        result = result.substring(0, result.indexOf("</AylikNamazVaktiResult>"));
+        String[] days = result.split("</a:NamazVakti><a:NamazVakti>");
+        int i = 0;
+        for (String day : days) {
+            String[] parts = day.split("><a:");
+
+            String[] times = new String[6];
+            String date = null;
+            for (String part : parts) {
+                if (!part.contains(">"))
+                    continue;
+                String name = part.substring(0, part.indexOf('>'));
+                if (name.contains(":"))
+                    name = name.substring(name.indexOf(':') + 1);
+                String content = part.substring(part.indexOf('>') + 1);
+                content = content.substring(0, content.indexOf('<'));
+                switch (name) {
+                    case "Imsak":
+                        times[0] = content;
+                        break;
+                    case "Gunes":
+                        times[1] = content;
+                        break;
+                    case "Ogle":
+                        times[2] = content;
+                        break;
+                    case "Ikindi":
+                        times[3] = content;
+                        break;
+                    case "Aksam":
+                        times[4] = content;
+                        break;
+                    case "Yatsi":
+                        times[5] = content;
+                        break;
+                    case "MiladiTarihKisa":
+                        date = content;
+                        break;
+                }
+            }
+            String[] d = date.split("\\.");
+            LocalDate ld = new LocalDate(Integer.parseInt(d[2]), Integer.parseInt(d[1]), Integer.parseInt(d[0]));
+            out.set(ld, Vakit.FAJR, times[0]);
+            out.set(ld, Vakit.SUN, times[1]);
+            out.set(ld, Vakit.DHUHR, times[2]);
+            out.set(ld, Vakit.ASR, times[3]);
+            out.set(ld, Vakit.MAGHRIB, times[4]);
+            out.set(ld, Vakit.ISHAA, times[5]);
+            i++;
+        }
+        return i;
+    }
+
+    static int igmg(@NonNull String result, @NonNull ParsedTimes out) {
+        int i = 0;
+        result = result.substring(result.indexOf("<div class='zeiten'>") + 20);
+        String[] zeiten = result.split("</div><div class='zeiten'>");
+        for (String zeit : zeiten) {
+            if (zeit.contains("turkish")) {
+                continue;
+            }
+            String tarih = extractLine(zeit.substring(zeit.indexOf("tarih")));
+            String imsak = extractLine(zeit.substring(zeit.indexOf("imsak")));
+            String gunes = extractLine(zeit.substring(zeit.indexOf("gunes")));
+            String ogle = extractLine(zeit.substring(zeit.indexOf("ogle")));
+            String ikindi = extractLine(zeit.substring(zeit.indexOf("ikindi")));
+            String aksam = extractLine(zeit.substring(zeit.indexOf("aksam")));
+            String yatsi = extractLine(zeit.substring(zeit.indexOf("yatsi")));
+
+            int _d = Integer.parseInt(tarih.substring(0, 2));
+            int _m = Integer.parseInt(tarih.substring(3, 5));
+            int _y = Integer.parseInt(tarih.substring(6, 10));
+            try {
+                LocalDate localDate = new LocalDate(_y, _m, _d);
+                out.set(localDate, Vakit.FAJR, imsak);
+                out.set(localDate, Vakit.SUN, gunes);
+                out.set(localDate, Vakit.DHUHR, ogle);
+                out.set(localDate, Vakit.ASR, ikindi);
+                out.set(localDate, Vakit.MAGHRIB, aksam);
+                out.set(localDate, Vakit.ISHAA, yatsi);
+                i++;
+            } catch (IllegalFieldValueException ignore) {
+            }
+        }
+        return i;
+    }
+
+    static int morocco(@NonNull String result, @NonNull ParsedTimes out) {
+        int x = 0;
+        String temp = result.substring(result.indexOf("colspan=\"4\" class=\"cournt\""));
+        temp = temp.substring(temp.indexOf(">") + 1);
+        temp = temp.substring(0, temp.indexOf("<")).replace(" ", "");
+        int month = Integer.parseInt(temp.substring(0, temp.indexOf("/")));
+        int year = Integer.parseInt(temp.substring(temp.indexOf("/") + 1));
+        result = result.substring(result.indexOf("<td>") + 4);
+        result = result.replace(" ", "").replace("\t", "").replace("\n", "").replace("\r", "");
+        String[] zeiten = result.split("<td>");
+        for (int i = 0; i < zeiten.length; i++) {
+            int day = Integer.parseInt(extract(zeiten[i]));
+            String imsak = extract(zeiten[++i]);
+            String gunes = extract(zeiten[++i]);
+            String ogle = extract(zeiten[++i]);
+            String ikindi = extract(zeiten[++i]);
+            String aksam = extract(zeiten[++i]);
+            String yatsi = extract(zeiten[++i]);
+
+            LocalDate localDate = new LocalDate(year, month, day);
+            out.set(localDate, Vakit.FAJR, imsak);
+            out.set(localDate, Vakit.SUN, gunes);
+            out.set(localDate, Vakit.DHUHR, ogle);
+            out.set(localDate, Vakit.ASR, ikindi);
+            out.set(localDate, Vakit.MAGHRIB, aksam);
+            out.set(localDate, Vakit.ISHAA, yatsi);
+            x++;
+        }
+        return x;
+    }
+
+    private static String extractLine(String str) {
+        str = str.substring(str.indexOf(">") + 1);
+        str = str.substring(0, str.indexOf("</"));
+        return str;
+    }
+
+    private static String extract(@NonNull String s) {
+        return s.substring(0, s.indexOf("<"));
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.metinkale.prayer.times.times.sources;
+
+import androidx.annotation.NonNull;
+
+import com.metinkale.prayer.times.times.DayTable;
+import com.metinkale.prayer.times.times.Vakit;
+
+import org.joda.time.LocalDate;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects parsed times like {@link WebTimes} stores them, so the results of different parsers can be compared
+ */
+final class ParsedTimes implements ResponseScanner.DayReceiver {
+    // "yyyy-MM-dd-vakit" -> minute of the day
+    final Map<String, Integer> times = new TreeMap<>();
+
+    @Override
+    public void onDay(@NonNull LocalDate date, @NonNull int[] minutes) {
+        for (Vakit vakit : Vakit.values()) {
+            set(date, vakit, minutes[vakit.ordinal()]);
+        }
+    }
+
+    /**
+     * same as {@link WebTimes#setTime(LocalDate, Vakit, String)}
+     */
+    void set(@NonNull LocalDate date, @NonNull Vakit vakit, @NonNull String value) {
+        if (value.contains("00:00"))
+            return;
+        set(date, vakit, DayTable.parse(value));
+    }
+
+    private void set(@NonNull LocalDate date, @NonNull Vakit vakit, int minutes) {
+        if (minutes > 0)
+            times.put(date.toString() + "-" + vakit.ordinal(), minutes);
+    }
+}
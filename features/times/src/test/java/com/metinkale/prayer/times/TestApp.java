@@ -14,10 +14,16 @@
  * limitations under the License.
  */
 
-package com.metinkale.prayer.compass.magnetic.utils.math;
+package com.metinkale.prayer.times;
 
-class NumberUtils {
-    static int floatToIntBits(float value) {
-        return Float.floatToIntBits(value);
+import com.metinkale.prayer.App;
+
+/**
+ * {@link App} for robolectric tests, without crash reporting, receivers and the time tick
+ */
+public class TestApp extends App {
+    @Override
+    public void onCreate() {
+        // nothing to set up, App.get() is all that the tests need
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.metinkale.prayer.times.times;
+
+import androidx.annotation.NonNull;
+
+import com.metinkale.prayer.times.TestApp;
+
+import org.joda.time.DateTimeConstants;
+import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Counts how often the listeners of a time tick make a city calculate its times
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = TestApp.class)
+public class TimesSnapshotTest {
+    private static final int LISTENERS = 3;
+
+    private CountingTimes city;
+
+    @Before
+    public void setUp() {
+        Times.getTimes();
+        city = new CountingTimes(-1);
+    }
+
+    @After
+    public void tearDown() {
+        city.delete();
+    }
+
+    @Test
+    public void calculatesOncePerMinute() {
+        long minute = currentMinute();
+        // ongoing notifications, widgets and TimesBroadcastReceiver
+        for (int i = 0; i < LISTENERS; i++) {
+            tick(city);
+        }
+        assumeTrue("minute changed during the test", minute == currentMinute());
+
+        assertEquals(Vakit.LENGTH + 2, city.timeCalls);
+        assertEquals(1, city.nextTimeCalls);
+    }
+
+    @Test
+    public void calculatesAgainAfterChange() {
+        long minute = currentMinute();
+        TimesSnapshot first = TimesSnapshot.get(city);
+        city.setName("changed");
+        TimesSnapshot second = TimesSnapshot.get(city);
+        assumeTrue("minute changed during the test", minute == currentMinute());
+
+        assertNotSame(first, second);
+        assertEquals(2, city.nextTimeCalls);
+    }
+
+    /**
+     * reads what a listener shows for a city
+     */
+    private static void tick(@NonNull Times city) {
+        TimesSnapshot snapshot = TimesSnapshot.get(city);
+        snapshot.getCurrentTime();
+        snapshot.getNextTime();
+        snapshot.getMinutesLeft();
+        snapshot.isKerahat();
+        snapshot.getNextChange();
+        for (Vakit vakit : Vakit.values()) {
+            snapshot.getTime(vakit.ordinal());
+            snapshot.getTimeMillis(vakit.ordinal());
+        }
+    }
+
+    private static long currentMinute() {
+        return System.currentTimeMillis() / DateTimeConstants.MILLIS_PER_MINUTE;
+    }
+
+    /**
+     * temporary city (negative id, so it is never saved) with fixed times
+     */
+    private static class CountingTimes extends Times {
+        int timeCalls;
+        int nextTimeCalls;
+
+        CountingTimes(long id) {
+            super(id);
+        }
+
+        @Override
+        public Source getSource() {
+            return Source.CSV;
+        }
+
+        @Override
+        protected String getStrTime(LocalDate date, Vakit time) {
+            return DayTable.toString(300 + time.ordinal() * 150);
+        }
+
+        @NonNull
+        @Override
+        public LocalDateTime getTime(@NonNull LocalDate date, int time) {
+            timeCalls++;
+            return super.getTime(date, time);
+        }
+
+        @Override
+        public int getNextTime() {
+            nextTimeCalls++;
+            return super.getNextTime();
+        }
+    }
+}
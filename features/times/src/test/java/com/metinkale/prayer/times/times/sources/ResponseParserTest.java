@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.metinkale.prayer.times.times.sources;
+
+import com.metinkale.prayer.times.times.Vakit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Parses the recorded responses in sharedTest/resources with the streaming parsers of the sources and compares the
+ * times with the string based parsing they replaced (see {@link LegacyParsers})
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ResponseParserTest {
+
+    private static byte[] fixture(String name) throws IOException {
+        try (InputStream in = ResponseParserTest.class.getResourceAsStream(name)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    @Test
+    public void diyanet() throws IOException {
+        byte[] response = fixture("diyanet.xml");
+        ParsedTimes parsed = new ParsedTimes();
+        ParsedTimes legacy = new ParsedTimes();
+        assertEquals(30, DiyanetTimes.parse(new ByteArrayInputStream(response), parsed));
+        assertEquals(30, LegacyParsers.diyanet(new String(response, "UTF-8"), legacy));
+
+        assertEquals(legacy.times, parsed.times);
+        assertEquals(30 * Vakit.LENGTH, parsed.times.size());
+        assertEquals(3 * 60 + 35, (int) parsed.times.get("2019-06-01-" + Vakit.FAJR.ordinal()));
+        assertEquals(22 * 60 + 31, (int) parsed.times.get("2019-06-30-" + Vakit.ISHAA.ordinal()));
+    }
+
+    @Test
+    public void igmg() throws IOException {
+        byte[] response = fixture("igmg.html");
+        ParsedTimes parsed = new ParsedTimes();
+        ParsedTimes legacy = new ParsedTimes();
+        assertEquals(30, IGMGTimes.parse(new ByteArrayInputStream(response), parsed));
+        assertEquals(30, LegacyParsers.igmg(new String(response, "UTF-8"), legacy));
+
+        assertEquals(legacy.times, parsed.times);
+        // the turkish times of the same day are skipped
+        assertEquals(13 * 60 + 32, (int) parsed.times.get("2019-06-15-" + Vakit.DHUHR.ordinal()));
+    }
+
+    @Test
+    public void morocco() throws IOException {
+        byte[] response = fixture("morocco.html");
+        ParsedTimes parsed = new ParsedTimes();
+        ParsedTimes legacy = new ParsedTimes();
+        assertEquals(30, MoroccoTimes.parse(new ByteArrayInputStream(response), parsed));
+        assertEquals(30, LegacyParsers.morocco(new String(response, "UTF-8"), legacy));
+
+        assertEquals(legacy.times, parsed.times);
+        assertEquals(3 * 60 + 25, (int) parsed.times.get("2019-06-01-" + Vakit.FAJR.ordinal()));
+        assertEquals(22 * 60 + 11, (int) parsed.times.get("2019-06-01-" + Vakit.ISHAA.ordinal()));
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.metinkale.prayer.times.times.sources;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResponseScannerTest {
+
+    private static ResponseScanner scanner(String response) {
+        return new ResponseScanner(new ByteArrayInputStream(response.getBytes(Charset.forName("UTF-8"))));
+    }
+
+    @Test
+    public void readsTagsAndText() throws IOException {
+        ResponseScanner scanner = scanner("<div class='tarih'> 01.06.2019 </div><td>İmsak</td>");
+        assertEquals("div class='tarih'", scanner.nextTag());
+        assertEquals("01.06.2019", scanner.readText());
+        assertEquals("/div", scanner.nextTag());
+        assertEquals("td", scanner.nextTag());
+        assertEquals("İmsak", scanner.readText());
+        assertEquals("/td", scanner.nextTag());
+        assertNull(scanner.nextTag());
+    }
+
+    @Test
+    public void readsTimes() throws IOException {
+        assertEquals(3 * 60 + 35, readTime("<a>03:35</a>"));
+        assertEquals(3 * 60 + 35, readTime("<a> 3:35 </a>"));
+        assertEquals(22 * 60 + 31, readTime("<a>22:31</a>"));
+        assertEquals(0, readTime("<a>22</a>"));
+        assertEquals(0, readTime("<a>22:3</a>"));
+        assertEquals(0, readTime("<a>x2:30</a>"));
+        assertEquals(0, readTime("<a></a>"));
+    }
+
+    private static int readTime(String response) throws IOException {
+        ResponseScanner scanner = scanner(response);
+        scanner.nextTag();
+        return scanner.readTime();
+    }
+
+    @Test
+    public void skipsAcrossBuffer() throws IOException {
+        StringBuilder response = new StringBuilder();
+        for (int i = 0; i < 8190; i++) {
+            response.append(' ');
+        }
+        // the marker is split between the first and second fill of the buffer
+        response.append("<a:NamazVakti><a:Imsak>03:35</a:Imsak>");
+        ResponseScanner scanner = scanner(response.toString());
+        assertTrue(scanner.skipTo("<a:NamazVakti>"));
+        assertEquals("a:Imsak", scanner.nextTag());
+        assertEquals(3 * 60 + 35, scanner.readTime());
+        assertFalse(scanner.skipTo("<a:NamazVakti>"));
+    }
+}
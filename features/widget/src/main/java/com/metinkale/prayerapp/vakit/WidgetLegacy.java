@@ -25,6 +25,7 @@ import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
+import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.Typeface;
 import android.net.Uri;
@@ -35,10 +36,12 @@ import android.widget.RemoteViews;
 
 import com.crashlytics.android.Crashlytics;
 import com.metinkale.prayer.Preferences;
+import com.metinkale.prayer.receiver.TimeTickReceiver;
 import com.metinkale.prayer.date.HijriDate;
 import com.metinkale.prayer.times.SilenterPrompt;
 import com.metinkale.prayer.times.fragments.TimesFragment;
 import com.metinkale.prayer.times.times.Times;
+import com.metinkale.prayer.times.times.TimesSnapshot;
 import com.metinkale.prayer.times.times.Vakit;
 import com.metinkale.prayer.utils.LocaleUtils;
 import com.metinkale.prayer.utils.UUID;
@@ -53,13 +56,22 @@ import org.joda.time.LocalTime;
  */
 
 class WidgetLegacy {
+    private static final Typeface NORMAL = Typeface.create(Typeface.DEFAULT, Typeface.NORMAL);
+    private static final Typeface BOLD_ITALIC = Typeface.create(Typeface.DEFAULT, Typeface.BOLD_ITALIC);
+
+    private static Paint createPaint() {
+        Paint paint = new Paint();
+        paint.setAntiAlias(true);
+        paint.setDither(true);
+        paint.setFilterBitmap(true);
+        return paint;
+    }
 
     static void update1x1(Context context, AppWidgetManager appWidgetManager, int widgetId) {
         Resources r = context.getResources();
         float dp = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 1, r.getDisplayMetrics());
 
         LocalDateTime now = LocalDateTime.now();
-        LocalDate today = now.toLocalDate();
 
         Theme theme = WidgetUtils.getTheme(widgetId);
         Times times = WidgetUtils.getTimes(widgetId);
@@ -67,71 +79,87 @@ class WidgetLegacy {
             WidgetUtils.showNoCityWidget(context, appWidgetManager, widgetId);
             return;
         }
+        TimesSnapshot snapshot = TimesSnapshot.get(times);
+
+        // the countdown changes every minute
+        TimeTickReceiver.requestTick(TimeTickReceiver.NEXT_MINUTE);
 
         WidgetUtils.Size size = WidgetUtils.getSize(context, appWidgetManager, widgetId, 1f);
         int s = size.width;
         if (s <= 0)
             return;
-        RemoteViews remoteViews = new RemoteViews(context.getPackageName(), R.layout.vakit_widget);
 
-        int next = times.getNextTime();
-        String left = LocaleUtils.formatPeriod(now, times.getTime(today, next), false);
+        int next = snapshot.getNextTime();
+        String left = LocaleUtils.formatPeriod(now, snapshot.getTime(next), false);
         if (Preferences.VAKIT_INDICATOR_TYPE.get().equals("next"))
             next = next + 1;
 
+        String city = times.getName();
+        String vakit = Vakit.getByIndex(next).prevTime().getString();
+
+        WidgetRenderCache cache = WidgetRenderCache.get(widgetId, "legacy1x1");
+        String layerKey = WidgetRenderCache.key(theme, s, city, vakit);
+        String key = WidgetRenderCache.key(layerKey, left);
+        if (cache.isUnchanged(key))
+            return;
+
+        RemoteViews remoteViews = new RemoteViews(context.getPackageName(), R.layout.vakit_widget);
         remoteViews.setOnClickPendingIntent(R.id.widget, TimesFragment.getPendingIntent(times));
 
-        Bitmap bmp = Bitmap.createBitmap(s, s, Bitmap.Config.ARGB_4444);
+        float ts = (s * 35) / 100f;
+        if (cache.getLayer(layerKey) == null) {
+            Bitmap bmp = cache.newLayer(layerKey, s, s, Bitmap.Config.ARGB_4444);
+            Canvas canvas = new Canvas(bmp);
+            canvas.scale(0.99f, 0.99f, s / 2f, s / 2f);
+            Paint paint = createPaint();
+
+            paint.setStyle(Paint.Style.FILL);
+            paint.setColor(theme.bgcolor);
+            canvas.drawRect(0, 0, s, s, paint);
+
+            paint.setStyle(Paint.Style.FILL_AND_STROKE);
+            paint.setSubpixelText(true);
+            paint.setColor(theme.textcolor);
+
+            float cs = s / 5f;
+            int vs = s / 4;
+            paint.setTextSize(cs);
+            cs = (cs * s * 0.9f) / paint.measureText(city);
+            cs = (cs > vs) ? vs : cs;
+
+            paint.setTextSize(vs);
+            paint.setTextAlign(Paint.Align.CENTER);
+            canvas.drawText(vakit, s / 2f, (s * 22) / 80f, paint);
+
+            paint.setTextSize(cs);
+            paint.setTextAlign(Paint.Align.CENTER);
+            canvas.drawText(city, s / 2f, ((s * 3) / 4f) + ((cs * 2) / 3), paint);
+
+            paint.setStyle(Paint.Style.STROKE);
+            paint.setStrokeWidth(dp);
+            paint.setColor(theme.strokecolor);
+            canvas.drawRect(0, 0, s, s, paint);
+        }
+
+        // between the name of the time and the city
+        Rect dirty = new Rect(0, (int) (s * 0.345f), s, (int) (s * 0.725f));
+        Bitmap bmp = cache.getOutput(dirty);
         Canvas canvas = new Canvas(bmp);
+        canvas.clipRect(dirty);
         canvas.scale(0.99f, 0.99f, s / 2f, s / 2f);
-        Paint paint = new Paint();
-        paint.setAntiAlias(true);
-        paint.setDither(true);
-        paint.setFilterBitmap(true);
-
-        paint.setStyle(Paint.Style.FILL);
-        paint.setColor(theme.bgcolor);
-        canvas.drawRect(0, 0, s, s, paint);
-
-        paint.setColor(theme.textcolor);
+        Paint paint = createPaint();
         paint.setStyle(Paint.Style.FILL_AND_STROKE);
-        paint.setAntiAlias(true);
         paint.setSubpixelText(true);
-
-        paint.setColor(theme.hovercolor);
-
-        String city = times.getName();
-
         paint.setColor(theme.textcolor);
-
-        float cs = s / 5f;
-        float ts = (s * 35) / 100f;
-        int vs = s / 4;
-        paint.setTextSize(cs);
-        cs = (cs * s * 0.9f) / paint.measureText(city);
-        cs = (cs > vs) ? vs : cs;
-
-        paint.setTextSize(vs);
-        paint.setTextAlign(Paint.Align.CENTER);
-        canvas.drawText(Vakit.getByIndex(next).prevTime().getString(), s / 2f, (s * 22) / 80f, paint);
-
         paint.setTextSize(ts);
         paint.setTextAlign(Paint.Align.CENTER);
         canvas.drawText(left, s / 2f, (s / 2f) + ((ts * 1) / 3), paint);
 
-        paint.setTextSize(cs);
-        paint.setTextAlign(Paint.Align.CENTER);
-        canvas.drawText(city, s / 2f, ((s * 3) / 4f) + ((cs * 2) / 3), paint);
-
-        paint.setStyle(Paint.Style.STROKE);
-        paint.setStrokeWidth(dp);
-        paint.setColor(theme.strokecolor);
-        canvas.drawRect(0, 0, s, s, paint);
-
         remoteViews.setImageViewBitmap(R.id.widget, bmp);
 
         try {
             appWidgetManager.updateAppWidget(widgetId, remoteViews);
+            cache.finish(key);
         } catch (RuntimeException e) {
             if (!e.getMessage().contains("exceeds maximum bitmap memory usage")) {
                 Crashlytics.logException(e);
@@ -149,6 +177,10 @@ class WidgetLegacy {
             WidgetUtils.showNoCityWidget(context, appWidgetManager, widgetId);
             return;
         }
+        TimesSnapshot snapshot = TimesSnapshot.get(times);
+
+        // the countdown changes every minute
+        TimeTickReceiver.requestTick(TimeTickReceiver.NEXT_MINUTE);
 
         WidgetUtils.Size size = WidgetUtils.getSize(context, appWidgetManager, widgetId, 300f / 60f);
         int w = size.width;
@@ -156,130 +188,122 @@ class WidgetLegacy {
         if (w <= 0 || h <= 0)
             return;
 
-        RemoteViews remoteViews = new RemoteViews(context.getPackageName(), R.layout.vakit_widget);
-
-        LocalDateTime dateTime = LocalDateTime.now();
-        LocalDate date = dateTime.toLocalDate();
-
-        int next = times.getNextTime();
-        String left = LocaleUtils.formatPeriod(LocalDateTime.now(), times.getTime(date, next));
+        int next = snapshot.getNextTime();
+        String left = LocaleUtils.formatPeriod(LocalDateTime.now(), snapshot.getTime(next));
         if (Preferences.VAKIT_INDICATOR_TYPE.get().equals("next"))
             next = next + 1;
 
+        boolean clock12h = Preferences.CLOCK_12H.get();
+        boolean altHighlight = Preferences.SHOW_ALT_WIDGET_HIGHLIGHT.get();
+        String[] names = WidgetUtils.getNames();
+        String[] daytimes = WidgetUtils.getTimes(snapshot);
 
-        remoteViews.setOnClickPendingIntent(R.id.widget, TimesFragment.getPendingIntent(times));
-
-
-        Bitmap bmp = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_4444);
-        Canvas canvas = new Canvas(bmp);
-        canvas.scale(0.99f, 0.99f, w / 2f, h / 2f);
-        Paint paint = new Paint();
-        paint.setAntiAlias(true);
-        paint.setDither(true);
-        paint.setFilterBitmap(true);
-
-        paint.setStyle(Paint.Style.FILL);
-        paint.setColor(theme.bgcolor);
-        canvas.drawRect(0, 0, w, h, paint);
-
-        paint.setStyle(Paint.Style.FILL_AND_STROKE);
-        paint.setAntiAlias(true);
-        paint.setSubpixelText(true);
-
-        paint.setColor(theme.hovercolor);
-        if (next != Vakit.FAJR.ordinal() && !Preferences.SHOW_ALT_WIDGET_HIGHLIGHT.get() && next <= Vakit.ISHAA.ordinal()) {
-            canvas.drawRect((w * (next - 1)) / 6f, h * 3 / 9f, w * next / 6f, h, paint);
-        }
-        float s = paint.getStrokeWidth();
-        float dip = 3f;
-        paint.setStrokeWidth(dip * dp);
-        canvas.drawLine(0, (h * 3) / 9f, w, h * 3 / 9f, paint);
-        // canvas.drawRect(0, 0, w, h * 3 / 9, paint);
-        paint.setStrokeWidth(s);
-
-        paint.setColor(theme.textcolor);
+        WidgetRenderCache cache = WidgetRenderCache.get(widgetId, "legacy4x1");
+        String layerKey = WidgetRenderCache.key(theme, w, h, times.getName(), next, clock12h, altHighlight, names, daytimes);
+        String key = WidgetRenderCache.key(layerKey, left);
+        if (cache.isUnchanged(key))
+            return;
 
-        paint.setTextAlign(Paint.Align.LEFT);
-        paint.setTextSize(h / 4f);
-        canvas.drawText(" " + times.getName(), 0, h / 4f, paint);
+        RemoteViews remoteViews = new RemoteViews(context.getPackageName(), R.layout.vakit_widget);
+        remoteViews.setOnClickPendingIntent(R.id.widget, TimesFragment.getPendingIntent(times));
 
-        paint.setTextAlign(Paint.Align.RIGHT);
-        canvas.drawText(left + " ", w, h / 4f, paint);
+        if (cache.getLayer(layerKey) == null) {
+            Bitmap bmp = cache.newLayer(layerKey, w, h, Bitmap.Config.ARGB_4444);
+            Canvas canvas = new Canvas(bmp);
+            canvas.scale(0.99f, 0.99f, w / 2f, h / 2f);
+            Paint paint = createPaint();
 
-        paint.setTextSize(h / 5f);
-        paint.setTextAlign(Paint.Align.CENTER);
-        int y = (h * 6) / 7;
-        if (Preferences.CLOCK_12H.get()) {
-            y += h / 14;
-        }
+            paint.setStyle(Paint.Style.FILL);
+            paint.setColor(theme.bgcolor);
+            canvas.drawRect(0, 0, w, h, paint);
 
-        boolean fits = true;
+            paint.setStyle(Paint.Style.FILL_AND_STROKE);
+            paint.setSubpixelText(true);
 
-        do {
-            if (!fits) {
-                paint.setTextSize((float) (paint.getTextSize() * 0.95));
-            }
-            fits = true;
-            for (Vakit v : Vakit.values()) {
-                if ((paint.measureText(v.getString()) > (w / 6f)) && (w > 5)) {
-                    fits = false;
-                }
+            paint.setColor(theme.hovercolor);
+            if (next != Vakit.FAJR.ordinal() && !altHighlight && next <= Vakit.ISHAA.ordinal()) {
+                canvas.drawRect((w * (next - 1)) / 6f, h * 3 / 9f, w * next / 6f, h, paint);
             }
-        } while (!fits);
+            float s = paint.getStrokeWidth();
+            float dip = 3f;
+            paint.setStrokeWidth(dip * dp);
+            canvas.drawLine(0, (h * 3) / 9f, w, h * 3 / 9f, paint);
+            paint.setStrokeWidth(s);
 
-        for (Vakit v : Vakit.values()) {
-            int i = v.ordinal();
-            if (i == next - 1 && Preferences.SHOW_ALT_WIDGET_HIGHLIGHT.get()) {
-                paint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.BOLD_ITALIC));
-            }
-            canvas.drawText(v.getString(), (w * (1 + (2 * i))) / 12f, y, paint);
-            if (i == next - 1 && Preferences.SHOW_ALT_WIDGET_HIGHLIGHT.get()) {
-                paint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.NORMAL));
+            paint.setColor(theme.textcolor);
+
+            paint.setTextAlign(Paint.Align.LEFT);
+            paint.setTextSize(h / 4f);
+            canvas.drawText(" " + times.getName(), 0, h / 4f, paint);
+
+            paint.setTextSize(h / 5f);
+            paint.setTextAlign(Paint.Align.CENTER);
+            int y = (h * 6) / 7;
+            if (clock12h) {
+                y += h / 14;
             }
-        }
 
+            boolean fits = true;
 
-        paint.setTextSize((h * 2) / 9f);
-        if (Preferences.CLOCK_12H.get()) {
-            for (Vakit v : Vakit.values()) {
-                int i = v.ordinal();
-                if (i == next - 1 && Preferences.SHOW_ALT_WIDGET_HIGHLIGHT.get()) {
-                    paint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.BOLD_ITALIC));
+            do {
+                if (!fits) {
+                    paint.setTextSize((float) (paint.getTextSize() * 0.95));
                 }
-                String time = LocaleUtils.formatTime(times.getTime(date, v.ordinal()).toLocalTime());
-                String suffix = time.substring(time.indexOf(" ") + 1);
-                time = time.substring(0, time.indexOf(" "));
-                paint.setTextSize((h * 2) / 9f);
-                canvas.drawText(time, (w * (1 + (2 * i))) / 12f, h * 6 / 10f, paint);
-                paint.setTextSize(h / 9f);
-                canvas.drawText(suffix, (w * (1 + (2 * i))) / 12f, h * 7 / 10f, paint);
-                if (i == next - 1 && Preferences.SHOW_ALT_WIDGET_HIGHLIGHT.get()) {
-                    paint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.NORMAL));
+                fits = true;
+                for (String name : names) {
+                    if ((paint.measureText(name) > (w / 6f)) && (w > 5)) {
+                        fits = false;
+                    }
                 }
+            } while (!fits);
+
+            for (int i = 0; i < names.length; i++) {
+                paint.setTypeface(i == next - 1 && altHighlight ? BOLD_ITALIC : NORMAL);
+                canvas.drawText(names[i], (w * (1 + (2 * i))) / 12f, y, paint);
             }
-        } else {
-            for (Vakit v : Vakit.values()) {
-                int i = v.ordinal();
-                if (i == next - 1 && Preferences.SHOW_ALT_WIDGET_HIGHLIGHT.get()) {
-                    paint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.BOLD_ITALIC));
-                }
-                canvas.drawText(LocaleUtils.formatTime(times.getTime(date, v.ordinal()).toLocalTime()), (w * (1 + (2 * i))) / 12f, h * 3 / 5f, paint);
-                if (i == next - 1 && Preferences.SHOW_ALT_WIDGET_HIGHLIGHT.get()) {
-                    paint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.NORMAL));
+
+            for (int i = 0; i < daytimes.length; i++) {
+                paint.setTypeface(i == next - 1 && altHighlight ? BOLD_ITALIC : NORMAL);
+                if (clock12h) {
+                    String time = daytimes[i];
+                    String suffix = time.substring(time.indexOf(" ") + 1);
+                    time = time.substring(0, time.indexOf(" "));
+                    paint.setTextSize((h * 2) / 9f);
+                    canvas.drawText(time, (w * (1 + (2 * i))) / 12f, h * 6 / 10f, paint);
+                    paint.setTextSize(h / 9f);
+                    canvas.drawText(suffix, (w * (1 + (2 * i))) / 12f, h * 7 / 10f, paint);
+                } else {
+                    paint.setTextSize((h * 2) / 9f);
+                    canvas.drawText(daytimes[i], (w * (1 + (2 * i))) / 12f, h * 3 / 5f, paint);
                 }
             }
-        }
+            paint.setTypeface(NORMAL);
 
+            paint.setStyle(Paint.Style.STROKE);
+            paint.setStrokeWidth(dp);
+            paint.setColor(theme.strokecolor);
+            canvas.drawRect(0, 0, w, h, paint);
+        }
 
-        paint.setStyle(Paint.Style.STROKE);
-        paint.setStrokeWidth(dp);
-        paint.setColor(theme.strokecolor);
-        canvas.drawRect(0, 0, w, h, paint);
+        // right half of the title bar, above the divider
+        Rect dirty = new Rect(w / 2, 0, w, (int) (h * 3 / 9f - 2 * dp));
+        Bitmap bmp = cache.getOutput(dirty);
+        Canvas canvas = new Canvas(bmp);
+        canvas.clipRect(dirty);
+        canvas.scale(0.99f, 0.99f, w / 2f, h / 2f);
+        Paint paint = createPaint();
+        paint.setStyle(Paint.Style.FILL_AND_STROKE);
+        paint.setSubpixelText(true);
+        paint.setColor(theme.textcolor);
+        paint.setTextSize(h / 4f);
+        paint.setTextAlign(Paint.Align.RIGHT);
+        canvas.drawText(left + " ", w, h / 4f, paint);
 
         remoteViews.setImageViewBitmap(R.id.widget, bmp);
 
         try {
             appWidgetManager.updateAppWidget(widgetId, remoteViews);
+            cache.finish(key);
         } catch (RuntimeException e) {
             if (!e.getMessage().contains("exceeds maximum bitmap memory usage")) {
                 Crashlytics.logException(e);
@@ -297,109 +321,110 @@ class WidgetLegacy {
             WidgetUtils.showNoCityWidget(context, appWidgetManager, widgetId);
             return;
         }
+        TimesSnapshot snapshot = TimesSnapshot.get(times);
+
+        // the countdown changes every minute
+        TimeTickReceiver.requestTick(TimeTickReceiver.NEXT_MINUTE);
 
         WidgetUtils.Size size = WidgetUtils.getSize(context, appWidgetManager, widgetId, 130f / 160f);
         int w = size.width;
         int h = size.height;
         if (w <= 0 || h <= 0)
             return;
-        RemoteViews remoteViews = new RemoteViews(context.getPackageName(), R.layout.vakit_widget);
-
 
-        LocalDate date = LocalDate.now();
-        int next = times.getNextTime();
-        String left = LocaleUtils.formatPeriod(LocalDateTime.now(), times.getTime(date, next));
+        int next = snapshot.getNextTime();
+        String left = LocaleUtils.formatPeriod(LocalDateTime.now(), snapshot.getTime(next));
         if (Preferences.VAKIT_INDICATOR_TYPE.get().equals("next"))
             next = next + 1;
 
+        boolean clock12h = Preferences.CLOCK_12H.get();
+        boolean altHighlight = Preferences.SHOW_ALT_WIDGET_HIGHLIGHT.get();
+        String[] names = WidgetUtils.getNames();
+        String[] daytimes = WidgetUtils.getTimes(snapshot);
 
-        remoteViews.setOnClickPendingIntent(R.id.widget, TimesFragment.getPendingIntent(times));
-
-        Bitmap bmp = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_4444);
-        Canvas canvas = new Canvas(bmp);
-        canvas.scale(0.99f, 0.99f, w / 2f, h / 2f);
+        WidgetRenderCache cache = WidgetRenderCache.get(widgetId, "legacy2x2");
+        String layerKey = WidgetRenderCache.key(theme, w, h, times.getName(), next, clock12h, altHighlight, names, daytimes);
+        String key = WidgetRenderCache.key(layerKey, left);
+        if (cache.isUnchanged(key))
+            return;
 
-        Paint paint = new Paint();
-        paint.setAntiAlias(true);
-        paint.setDither(true);
-        paint.setFilterBitmap(true);
+        RemoteViews remoteViews = new RemoteViews(context.getPackageName(), R.layout.vakit_widget);
+        remoteViews.setOnClickPendingIntent(R.id.widget, TimesFragment.getPendingIntent(times));
 
-        paint.setStyle(Paint.Style.FILL);
-        paint.setColor(theme.bgcolor);
-        canvas.drawRect(0, 0, w, h, paint);
+        double l = h / 10f;
+        if (cache.getLayer(layerKey) == null) {
+            Bitmap bmp = cache.newLayer(layerKey, w, h, Bitmap.Config.ARGB_4444);
+            Canvas canvas = new Canvas(bmp);
+            canvas.scale(0.99f, 0.99f, w / 2f, h / 2f);
+            Paint paint = createPaint();
 
-        paint.setColor(theme.textcolor);
-        paint.setStyle(Paint.Style.FILL_AND_STROKE);
-        paint.setAntiAlias(true);
-        paint.setSubpixelText(true);
+            paint.setStyle(Paint.Style.FILL);
+            paint.setColor(theme.bgcolor);
+            canvas.drawRect(0, 0, w, h, paint);
 
-        double l = h / 10f;
-        paint.setTextSize((int) l);
-        paint.setTextAlign(Paint.Align.CENTER);
-        canvas.drawText(times.getName(), w / 2f, (int) (l * 1.8), paint);
+            paint.setColor(theme.textcolor);
+            paint.setStyle(Paint.Style.FILL_AND_STROKE);
+            paint.setSubpixelText(true);
 
-        paint.setTextSize((int) ((l * 8) / 10));
+            paint.setTextSize((int) l);
+            paint.setTextAlign(Paint.Align.CENTER);
+            canvas.drawText(times.getName(), w / 2f, (int) (l * 1.8), paint);
 
-        if (next != Vakit.FAJR.ordinal() && !Preferences.SHOW_ALT_WIDGET_HIGHLIGHT.get() && next <= Vakit.ISHAA.ordinal()) {
-            paint.setColor(theme.hovercolor);
-            canvas.drawRect(0, (int) (l * (next + 1.42f)), w, (int) (l * (next + 2.42)), paint);
-        }
-        paint.setColor(theme.textcolor);
+            paint.setTextSize((int) ((l * 8) / 10));
 
-        paint.setTextAlign(Paint.Align.LEFT);
-        for (Vakit v : Vakit.values()) {
-            int i = v.ordinal();
-            if (i == next - 1 && Preferences.SHOW_ALT_WIDGET_HIGHLIGHT.get()) {
-                paint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.BOLD_ITALIC));
-            }
-            canvas.drawText(v.getString(), w / 6f, (int) (l * (3.2 + v.ordinal())), paint);
-            if (i == next - 1 && Preferences.SHOW_ALT_WIDGET_HIGHLIGHT.get()) {
-                paint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.NORMAL));
+            if (next != Vakit.FAJR.ordinal() && !altHighlight && next <= Vakit.ISHAA.ordinal()) {
+                paint.setColor(theme.hovercolor);
+                canvas.drawRect(0, (int) (l * (next + 1.42f)), w, (int) (l * (next + 2.42)), paint);
             }
-        }
-        paint.setTextAlign(Paint.Align.RIGHT);
-        if (Preferences.CLOCK_12H.get()) {
-            for (Vakit v : Vakit.values()) {
-                int i = v.ordinal();
-                if (i == next - 1 && Preferences.SHOW_ALT_WIDGET_HIGHLIGHT.get()) {
-                    paint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.BOLD_ITALIC));
-                }
-                String time = LocaleUtils.formatTime(times.getTime(date, v.ordinal()).toLocalTime());
-                String suffix = time.substring(time.indexOf(" ") + 1);
-                time = time.substring(0, time.indexOf(" "));
-                paint.setTextSize((int) ((l * 8) / 10));
-                canvas.drawText(time, ((w * 5) / 6f) - paint.measureText("A"), (int) (l * 3.2 + i * l), paint);
-                paint.setTextSize((int) ((l * 4) / 10));
-                canvas.drawText(suffix, ((w * 5) / 6f) + (paint.measureText(time) / 4), (int) (l * 3 + i * l), paint);
-                if (i == next - 1 && Preferences.SHOW_ALT_WIDGET_HIGHLIGHT.get()) {
-                    paint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.NORMAL));
-                }
+            paint.setColor(theme.textcolor);
+
+            paint.setTextAlign(Paint.Align.LEFT);
+            for (int i = 0; i < names.length; i++) {
+                paint.setTypeface(i == next - 1 && altHighlight ? BOLD_ITALIC : NORMAL);
+                canvas.drawText(names[i], w / 6f, (int) (l * (3.2 + i)), paint);
             }
-        } else {
-            for (Vakit v : Vakit.values()) {
-                int i = v.ordinal();
-                if (i == next - 1 && Preferences.SHOW_ALT_WIDGET_HIGHLIGHT.get()) {
-                    paint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.BOLD_ITALIC));
-                }
-                canvas.drawText(LocaleUtils.formatTime(times.getTime(date, v.ordinal()).toLocalTime()), (w * 5) / 6f, (int) (l * 3.2 + i * l), paint);
-                if (i == next - 1 && Preferences.SHOW_ALT_WIDGET_HIGHLIGHT.get()) {
-                    paint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.NORMAL));
+            paint.setTextAlign(Paint.Align.RIGHT);
+            for (int i = 0; i < daytimes.length; i++) {
+                paint.setTypeface(i == next - 1 && altHighlight ? BOLD_ITALIC : NORMAL);
+                if (clock12h) {
+                    String time = daytimes[i];
+                    String suffix = time.substring(time.indexOf(" ") + 1);
+                    time = time.substring(0, time.indexOf(" "));
+                    paint.setTextSize((int) ((l * 8) / 10));
+                    canvas.drawText(time, ((w * 5) / 6f) - paint.measureText("A"), (int) (l * 3.2 + i * l), paint);
+                    paint.setTextSize((int) ((l * 4) / 10));
+                    canvas.drawText(suffix, ((w * 5) / 6f) + (paint.measureText(time) / 4), (int) (l * 3 + i * l), paint);
+                } else {
+                    canvas.drawText(daytimes[i], (w * 5) / 6f, (int) (l * 3.2 + i * l), paint);
                 }
             }
+            paint.setTypeface(NORMAL);
+
+            paint.setStyle(Paint.Style.STROKE);
+            paint.setStrokeWidth(dp);
+            paint.setColor(theme.strokecolor);
+            canvas.drawRect(0, 0, w, h, paint);
         }
+
+        // below the times
+        Rect dirty = new Rect(0, (int) (l * 8.5), w, h);
+        Bitmap bmp = cache.getOutput(dirty);
+        Canvas canvas = new Canvas(bmp);
+        canvas.clipRect(dirty);
+        canvas.scale(0.99f, 0.99f, w / 2f, h / 2f);
+        Paint paint = createPaint();
+        paint.setStyle(Paint.Style.FILL_AND_STROKE);
+        paint.setSubpixelText(true);
+        paint.setColor(theme.textcolor);
         paint.setTextSize((int) l);
         paint.setTextAlign(Paint.Align.CENTER);
         canvas.drawText(left, w / 2f, (int) (l * 9.5), paint);
 
-        paint.setStyle(Paint.Style.STROKE);
-        paint.setStrokeWidth(dp);
-        paint.setColor(theme.strokecolor);
-        canvas.drawRect(0, 0, w, h, paint);
-
         remoteViews.setImageViewBitmap(R.id.widget, bmp);
 
         try {
             appWidgetManager.updateAppWidget(widgetId, remoteViews);
+            cache.finish(key);
         } catch (RuntimeException e) {
             if (!e.getMessage().contains("exceeds maximum bitmap memory usage")) {
                 Crashlytics.logException(e);
@@ -417,18 +442,22 @@ class WidgetLegacy {
         int s = size.width;
         if (s <= 0)
             return;
+
+        // nothing changes over time
+        WidgetRenderCache cache = WidgetRenderCache.get(widgetId, "legacySilenter");
+        String key = WidgetRenderCache.key(theme, s);
+        if (cache.isUnchanged(key))
+            return;
+
         RemoteViews remoteViews = new RemoteViews(context.getPackageName(), R.layout.vakit_widget);
 
         Intent i = new Intent(context, SilenterPrompt.class);
         remoteViews.setOnClickPendingIntent(R.id.widget, PendingIntent.getActivity(context, 0, i, PendingIntent.FLAG_UPDATE_CURRENT));
 
-        Bitmap bmp = Bitmap.createBitmap(s, s, Bitmap.Config.ARGB_4444);
+        Bitmap bmp = cache.getOutput(s, s, Bitmap.Config.ARGB_4444);
         Canvas canvas = new Canvas(bmp);
         canvas.scale(0.99f, 0.99f, s / 2f, s / 2f);
-        Paint paint = new Paint();
-        paint.setAntiAlias(true);
-        paint.setDither(true);
-        paint.setFilterBitmap(true);
+        Paint paint = createPaint();
 
         paint.setStyle(Paint.Style.FILL);
         paint.setColor(theme.bgcolor);
@@ -436,13 +465,8 @@ class WidgetLegacy {
 
         paint.setColor(theme.textcolor);
         paint.setStyle(Paint.Style.FILL_AND_STROKE);
-        paint.setAntiAlias(true);
         paint.setSubpixelText(true);
 
-        paint.setColor(theme.hovercolor);
-
-        paint.setColor(theme.textcolor);
-
         paint.setTextSize((s * 25) / 100f);
         paint.setTextAlign(Paint.Align.CENTER);
         canvas.drawText("Sessize", s / 2f, (s * 125) / 300f, paint);
@@ -457,6 +481,7 @@ class WidgetLegacy {
 
         try {
             appWidgetManager.updateAppWidget(widgetId, remoteViews);
+            cache.finish(key);
         } catch (RuntimeException e) {
             if (!e.getMessage().contains("exceeds maximum bitmap memory usage")) {
                 Crashlytics.logException(e);
@@ -471,12 +496,36 @@ class WidgetLegacy {
             WidgetUtils.showNoCityWidget(context, appWidgetManager, widgetId);
             return;
         }
+        TimesSnapshot snapshot = TimesSnapshot.get(times);
+
+        // the countdown changes every minute
+        TimeTickReceiver.requestTick(TimeTickReceiver.NEXT_MINUTE);
 
         WidgetUtils.Size size = WidgetUtils.getSize(context, appWidgetManager, widgetId, 500f / 200f);
         int w = size.width;
         int h = size.height;
         if (w <= 0 || h <= 0)
             return;
+
+        int next = snapshot.getNextTime();
+        int last = next - 1;
+        LocalTime ltime = LocalTime.now();
+        String clock = LocaleUtils.formatTime(ltime);
+        String greg = LocaleUtils.formatDate(LocalDate.now());
+        String hicri = LocaleUtils.formatDate(HijriDate.now());
+        String lastTime = LocaleUtils.formatTime(snapshot.getTime(last).toLocalTime());
+        String nextTime = LocaleUtils.formatTime(snapshot.getTime(next).toLocalTime());
+        String left = LocaleUtils.formatPeriod(LocalDateTime.now(), snapshot.getTime(next));
+        float passed = WidgetV24.getPassedPart(snapshot);
+        boolean kerahat = snapshot.isKerahat();
+        boolean clock12h = Preferences.CLOCK_12H.get();
+
+        WidgetRenderCache cache = WidgetRenderCache.get(widgetId, "legacy4x2Clock");
+        String key = WidgetRenderCache.key(w, h, LocaleUtils.formatNumber(clock), greg, hicri, Vakit.getByIndex(last).getString(),
+                Vakit.getByIndex(next).getString(), lastTime, nextTime, left, (int) (w * 0.8f * passed), kerahat, clock12h);
+        if (cache.isUnchanged(key))
+            return;
+
         RemoteViews remoteViews = new RemoteViews(context.getPackageName(), R.layout.vakit_widget_clock);
 
         remoteViews.setOnClickPendingIntent(R.id.abovePart,
@@ -491,41 +540,29 @@ class WidgetLegacy {
         remoteViews.setOnClickPendingIntent(R.id.center, PendingIntent.getActivity(context, UUID.asInt(), intent, PendingIntent.FLAG_UPDATE_CURRENT));
 
 
-        int next = times.getNextTime();
-        int last = next - 1;
-
-        Bitmap bmp = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_4444);
+        Bitmap bmp = cache.getOutput(w, h, Bitmap.Config.ARGB_4444);
         Canvas canvas = new Canvas(bmp);
-        Paint paint = new Paint();
-        paint.setAntiAlias(true);
-        paint.setDither(true);
-        paint.setFilterBitmap(true);
+        Paint paint = createPaint();
 
 
         paint.setStyle(Paint.Style.FILL_AND_STROKE);
-        paint.setAntiAlias(true);
         paint.setSubpixelText(true);
         paint.setShadowLayer(2, 2, 2, 0xFF555555);
         paint.setTextAlign(Paint.Align.CENTER);
         paint.setColor(Color.WHITE);
 
-        LocalTime ltime = LocalTime.now();
-
         paint.setTextSize(h * 0.55f);
-        if (Preferences.CLOCK_12H.get()) {
-            String time = LocaleUtils.formatTime(ltime);
+        if (clock12h) {
+            String time = clock;
             String suffix = time.substring(time.indexOf(" ") + 1);
             time = time.substring(0, time.indexOf(" "));
             canvas.drawText(time, (w / 2f) - (paint.measureText(suffix) / 4), h * 0.4f, paint);
             paint.setTextSize(h * 0.275f);
             canvas.drawText(suffix, (w / 2f) + paint.measureText(time), h * 0.2f, paint);
         } else {
-            canvas.drawText(LocaleUtils.formatNumber(LocaleUtils.formatTime(ltime)), w / 2f, h * 0.4f, paint);
+            canvas.drawText(LocaleUtils.formatNumber(clock), w / 2f, h * 0.4f, paint);
         }
 
-        String greg = LocaleUtils.formatDate(LocalDate.now());
-        String hicri = LocaleUtils.formatDate(HijriDate.now());
-
         paint.setTextSize(h * 0.12f);
         float m = paint.measureText(greg + "  " + hicri);
         if (m > (w * 0.8f)) {
@@ -541,18 +578,18 @@ class WidgetLegacy {
 
         canvas.drawRect(w * 0.1f, h * 0.6f, w * 0.9f, h * 0.63f, paint);
 
-        if (times.isKerahat()) {
+        if (kerahat) {
             paint.setColor(0xffbf3f5b);
         } else {
             paint.setColor(Theme.Light.strokecolor);
         }
-        canvas.drawRect(w * 0.1f, h * 0.6f, (w * 0.1f) + (w * 0.8f * WidgetV24.getPassedPart(times)), h * 0.63f, paint);
+        canvas.drawRect(w * 0.1f, h * 0.6f, (w * 0.1f) + (w * 0.8f * passed), h * 0.63f, paint);
 
         paint.setColor(Color.WHITE);
         paint.setTextSize(h * 0.2f);
         paint.setTextAlign(Paint.Align.LEFT);
-        if (Preferences.CLOCK_12H.get()) {
-            String l = LocaleUtils.formatTime(times.getTime(LocalDate.now(), last).toLocalTime());
+        if (clock12h) {
+            String l = lastTime;
             String s = l.substring(l.indexOf(" ") + 1);
             l = l.substring(0, l.indexOf(" "));
             canvas.drawText(l, w * 0.1f, h * 0.82f, paint);
@@ -560,7 +597,7 @@ class WidgetLegacy {
             canvas.drawText(s, (w * 0.1f) + (2 * paint.measureText(l)), h * 0.72f, paint);
 
         } else {
-            canvas.drawText(LocaleUtils.formatTime(times.getTime(LocalDate.now(), last).toLocalTime()), w * 0.1f, h * 0.82f, paint);
+            canvas.drawText(lastTime, w * 0.1f, h * 0.82f, paint);
 
         }
         paint.setTextSize(h * 0.12f);
@@ -569,8 +606,8 @@ class WidgetLegacy {
         paint.setColor(Color.WHITE);
         paint.setTextSize(h * 0.2f);
         paint.setTextAlign(Paint.Align.RIGHT);
-        if (Preferences.CLOCK_12H.get()) {
-            String l = LocaleUtils.formatTime(times.getTime(LocalDate.now(), next).toLocalTime());
+        if (clock12h) {
+            String l = nextTime;
             String s = l.substring(l.indexOf(" ") + 1);
             l = l.substring(0, l.indexOf(" "));
             canvas.drawText(l, (w * 0.9f) - (paint.measureText(s) / 2), h * 0.82f, paint);
@@ -578,7 +615,7 @@ class WidgetLegacy {
             canvas.drawText(s, w * 0.9f, h * 0.72f, paint);
 
         } else {
-            canvas.drawText(LocaleUtils.formatTime(times.getTime(LocalDate.now(), next).toLocalTime()), w * 0.9f, h * 0.82f, paint);
+            canvas.drawText(nextTime, w * 0.9f, h * 0.82f, paint);
         }
         paint.setTextSize(h * 0.12f);
         canvas.drawText(Vakit.getByIndex(next).getString(), w * 0.9f, h * 0.95f, paint);
@@ -588,10 +625,11 @@ class WidgetLegacy {
         paint.setTextSize(h * 0.25f);
         paint.setTextAlign(Paint.Align.CENTER);
         paint.setFakeBoldText(true);
-        canvas.drawText(LocaleUtils.formatPeriod(LocalDateTime.now(), times.getTime(LocalDateTime.now().toLocalDate(), next)), w * 0.5f, h * 0.9f, paint);
+        canvas.drawText(left, w * 0.5f, h * 0.9f, paint);
         paint.setFakeBoldText(false);
         try {
             appWidgetManager.updateAppWidget(widgetId, remoteViews);
+            cache.finish(key);
         } catch (RuntimeException e) {
             if (!e.getMessage().contains("exceeds maximum bitmap memory usage")) {
                 Crashlytics.logException(e);
@@ -605,12 +643,35 @@ class WidgetLegacy {
             WidgetUtils.showNoCityWidget(context, appWidgetManager, widgetId);
             return;
         }
+        TimesSnapshot snapshot = TimesSnapshot.get(times);
+
+        // the countdown changes every minute
+        TimeTickReceiver.requestTick(TimeTickReceiver.NEXT_MINUTE);
 
         WidgetUtils.Size size = WidgetUtils.getSize(context, appWidgetManager, widgetId, 1f);
         int w = size.width;
         int h = size.height;
         if (w <= 0 || h <= 0)
             return;
+
+        boolean isKerahat = snapshot.isKerahat();
+        int next = snapshot.getNextTime();
+        int indicator = next - 1;
+        if (Preferences.VAKIT_INDICATOR_TYPE.get().equals("next"))
+            indicator = indicator + 1;
+        float passed = WidgetV24.getPassedPart(snapshot);
+        LocalDateTime ltime = LocalDateTime.now();
+        String[] time = LocaleUtils.formatNumber(ltime.toString("HH:mm")).replace(":", " ").split(" ");
+        String date = LocaleUtils.formatNumber(ltime.toString("d'.' MMM'.'"));
+        String weekDay = ltime.toString("EEEE");
+        String left = LocaleUtils.formatPeriod(LocalDateTime.now(), snapshot.getTime(next));
+
+        WidgetRenderCache cache = WidgetRenderCache.get(widgetId, "legacy2x2Clock");
+        String key = WidgetRenderCache.key(w, h, time, date, weekDay, Vakit.getByIndex(indicator).getString(), left, (int) (passed * 360),
+                isKerahat);
+        if (cache.isUnchanged(key))
+            return;
+
         RemoteViews remoteViews = new RemoteViews(context.getPackageName(), R.layout.vakit_widget_clock);
 
         remoteViews.setOnClickPendingIntent(R.id.abovePart, PendingIntent
@@ -626,16 +687,12 @@ class WidgetLegacy {
         remoteViews.setOnClickPendingIntent(R.id.center, PendingIntent.getActivity(context, UUID.asInt(), intent, PendingIntent.FLAG_UPDATE_CURRENT));
 
 
-        Bitmap bmp = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_4444);
+        Bitmap bmp = cache.getOutput(w, h, Bitmap.Config.ARGB_4444);
         Canvas canvas = new Canvas(bmp);
-        Paint paint = new Paint();
-        paint.setAntiAlias(true);
-        paint.setDither(true);
-        paint.setFilterBitmap(true);
+        Paint paint = createPaint();
 
 
         paint.setStyle(Paint.Style.STROKE);
-        paint.setAntiAlias(true);
         paint.setSubpixelText(true);
         paint.setShadowLayer(2, 2, 2, 0xFF555555);
         paint.setTextAlign(Paint.Align.CENTER);
@@ -647,25 +704,15 @@ class WidgetLegacy {
 
         canvas.drawArc(new RectF(w / 100f, w / 100f, w - w / 100f, h - w / 100f), 0, 360, false, paint);
 
-        boolean isKerahat = times.isKerahat();
         if (isKerahat) {
             paint.setColor(0xffbf3f5b);
         } else {
             paint.setColor(Theme.Light.strokecolor);
         }
 
-        int next = times.getNextTime();
-        int indicator = next - 1;
-        if (Preferences.VAKIT_INDICATOR_TYPE.get().equals("next"))
-            indicator = indicator + 1;
-
-
-        canvas.drawArc(new RectF(w / 100f, w / 100f, w - w / 100f, h - w / 100f), -90, WidgetV24.getPassedPart(times) * 360, false, paint);
+        canvas.drawArc(new RectF(w / 100f, w / 100f, w - w / 100f, h - w / 100f), -90, passed * 360, false, paint);
 
         paint.setStrokeWidth(1);
-        LocalDateTime ltime = LocalDateTime.now();
-
-        String[] time = LocaleUtils.formatNumber(ltime.toString("HH:mm")).replace(":", " ").split(" ");
         paint.setTextSize(h * 0.50f);
         paint.setStyle(Paint.Style.FILL);
         paint.setColor(Color.WHITE);
@@ -690,7 +737,7 @@ class WidgetLegacy {
             paint.setColor(0xFFFFFFFF);
             paint.setTextSize(h * 0.07f);
 
-            canvas.drawText(LocaleUtils.formatNumber(ltime.toString("d'.' MMM'.'")), w * 0.60f, h * 0.55f, paint);
+            canvas.drawText(date, w * 0.60f, h * 0.55f, paint);
             canvas.drawText(Vakit.getByIndex(indicator).getString(), w * 0.60f, h * 0.65f, paint);
         } else {
 
@@ -709,7 +756,7 @@ class WidgetLegacy {
             paint.setColor(0xFFFFFFFF);
             paint.setTextSize(h * 0.07f);
 
-            canvas.drawText(LocaleUtils.formatNumber(ltime.toString("d'.' MMM'.'")), w * 0.63f, h * 0.55f, paint);
+            canvas.drawText(date, w * 0.63f, h * 0.55f, paint);
             canvas.drawText(Vakit.getByIndex(indicator).getString(), w * 0.63f, h * 0.65f, paint);
         }
 
@@ -718,10 +765,10 @@ class WidgetLegacy {
 
         paint.setTextSize(h * 0.15f);
 
-        canvas.drawText(LocaleUtils.formatPeriod(LocalDateTime.now(), times.getTime(LocalDate.now(), next)), w / 2f, h * 0.85f, paint);
+        canvas.drawText(left, w / 2f, h * 0.85f, paint);
 
         paint.setTextSize(h * 0.12f);
-        canvas.drawText(ltime.toString("EEEE"), w / 2f, h * 0.22f, paint);
+        canvas.drawText(weekDay, w / 2f, h * 0.22f, paint);
 
 
         remoteViews.setImageViewBitmap(R.id.widget, bmp);
@@ -729,6 +776,7 @@ class WidgetLegacy {
 
         try {
             appWidgetManager.updateAppWidget(widgetId, remoteViews);
+            cache.finish(key);
         } catch (RuntimeException e) {
             if (!e.getMessage().contains("exceeds maximum bitmap memory usage")) {
                 Crashlytics.logException(e);
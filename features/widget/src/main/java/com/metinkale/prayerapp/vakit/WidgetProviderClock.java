@@ -51,6 +51,7 @@ public class WidgetProviderClock extends AppWidgetProvider {
     @Override
     public void onUpdate(@NonNull Context context, @NonNull AppWidgetManager appWidgetManager, @NonNull int[] appWidgetIds) {
         for (int widgetId : appWidgetIds) {
+            WidgetRenderCache.invalidate(widgetId);
             updateAppWidget(context, appWidgetManager, widgetId);
         }
 
@@ -62,6 +63,14 @@ public class WidgetProviderClock extends AppWidgetProvider {
 
     @Override
     public void onAppWidgetOptionsChanged(@NonNull Context context, @NonNull AppWidgetManager appWidgetManager, int appWidgetId, @NonNull Bundle newOptions) {
+        WidgetRenderCache.invalidate(appWidgetId);
         updateAppWidget(context, appWidgetManager, appWidgetId);
     }
+
+    @Override
+    public void onDeleted(Context context, @NonNull int[] appWidgetIds) {
+        for (int widgetId : appWidgetIds) {
+            WidgetRenderCache.remove(widgetId);
+        }
+    }
 }
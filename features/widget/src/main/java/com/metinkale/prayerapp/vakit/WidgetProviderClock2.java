@@ -51,6 +51,7 @@ public class WidgetProviderClock2 extends AppWidgetProvider {
     public void onUpdate(@NonNull Context context, @NonNull AppWidgetManager appWidgetManager, @NonNull int[] appWidgetIds) {
 
         for (int widgetId : appWidgetIds) {
+            WidgetRenderCache.invalidate(widgetId);
             updateAppWidget(context, appWidgetManager, widgetId);
         }
 
@@ -61,8 +62,16 @@ public class WidgetProviderClock2 extends AppWidgetProvider {
 
     }
 
+    @Override
+    public void onDeleted(Context context, @NonNull int[] appWidgetIds) {
+        for (int widgetId : appWidgetIds) {
+            WidgetRenderCache.remove(widgetId);
+        }
+    }
+
     @Override
     public void onAppWidgetOptionsChanged(@NonNull Context context, @NonNull AppWidgetManager appWidgetManager, int appWidgetId, @NonNull Bundle newOptions) {
+        WidgetRenderCache.invalidate(appWidgetId);
         updateAppWidget(context, appWidgetManager, appWidgetId);
     }
 }
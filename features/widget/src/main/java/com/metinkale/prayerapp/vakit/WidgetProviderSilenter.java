@@ -50,6 +50,7 @@ public class WidgetProviderSilenter extends AppWidgetProvider {
     public void onUpdate(@NonNull Context context, @NonNull AppWidgetManager appWidgetManager, @NonNull int[] appWidgetIds) {
 
         for (int widgetId : appWidgetIds) {
+            WidgetRenderCache.invalidate(widgetId);
             updateAppWidget(context, appWidgetManager, widgetId);
         }
 
@@ -60,8 +61,16 @@ public class WidgetProviderSilenter extends AppWidgetProvider {
 
     }
 
+    @Override
+    public void onDeleted(Context context, @NonNull int[] appWidgetIds) {
+        for (int widgetId : appWidgetIds) {
+            WidgetRenderCache.remove(widgetId);
+        }
+    }
+
     @Override
     public void onAppWidgetOptionsChanged(@NonNull Context context, @NonNull AppWidgetManager appWidgetManager, int appWidgetId, @NonNull Bundle newOptions) {
+        WidgetRenderCache.invalidate(appWidgetId);
         updateAppWidget(context, appWidgetManager, appWidgetId);
     }
 }
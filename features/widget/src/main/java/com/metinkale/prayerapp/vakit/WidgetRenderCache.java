@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.metinkale.prayerapp.vakit;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffXfermode;
+import android.graphics.Rect;
+import android.os.SystemClock;
+import android.util.SparseArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.ArrayMap;
+
+import java.util.Arrays;
+
+/**
+ * Rendering state of a single widget, kept between updates
+ * <p>
+ * Widgets describe everything they show with a key. If the key did not change since the last update, the widget is not
+ * updated at all. Bitmap widgets additionally keep their static parts (background, names, times) in a layer, and only
+ * redraw the region that changes every minute (e.g. the countdown) into a reused output bitmap.
+ * <p>
+ * Widgets are always updated on the main thread, so there is no synchronization.
+ */
+final class WidgetRenderCache {
+    private static final SparseArray<WidgetRenderCache> sCaches = new SparseArray<>();
+    private static final ArrayMap<String, Stats> sStats = new ArrayMap<>();
+    private static final Paint sCopyPaint = new Paint();
+
+    static {
+        sCopyPaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.SRC));
+    }
+
+    @NonNull
+    private final String type;
+    @NonNull
+    private final Stats stats;
+    private long start;
+    @Nullable
+    private String key;
+    @Nullable
+    private String layerKey;
+    @Nullable
+    private Bitmap layer;
+    @Nullable
+    private Bitmap output;
+    // output contains an older layer
+    private boolean outputStale = true;
+
+    /**
+     * render statistics of a widget type
+     */
+    static final class Stats {
+        int renders;
+        int skips;
+        long nanos;
+        long allocatedBytes;
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "renders=" + renders + " skips=" + skips + " avgMs=" + (renders == 0 ? 0 : nanos / renders / 1000000f) + " allocKb="
+                    + allocatedBytes / 1024;
+        }
+    }
+
+    private WidgetRenderCache(@NonNull String type) {
+        this.type = type;
+        Stats stats = sStats.get(type);
+        if (stats == null) {
+            stats = new Stats();
+            sStats.put(type, stats);
+        }
+        this.stats = stats;
+    }
+
+    /**
+     * must be called at the start of each update, the render time is measured from here
+     *
+     * @param widgetId id of the widget
+     * @param type     type of the widget, the cache is reset if the type changes (e.g. switching to legacy widgets)
+     */
+    @NonNull
+    static WidgetRenderCache get(int widgetId, @NonNull String type) {
+        WidgetRenderCache cache = sCaches.get(widgetId);
+        if (cache == null || !cache.type.equals(type)) {
+            cache = new WidgetRenderCache(type);
+            sCaches.put(widgetId, cache);
+        }
+        cache.start = SystemClock.elapsedRealtimeNanos();
+        return cache;
+    }
+
+    /**
+     * forces the next update to redraw the widget, must be called if the widget host might have lost the last output
+     */
+    static void invalidate(int widgetId) {
+        WidgetRenderCache cache = sCaches.get(widgetId);
+        if (cache != null) {
+            cache.key = null;
+        }
+    }
+
+    static void remove(int widgetId) {
+        sCaches.remove(widgetId);
+    }
+
+    @NonNull
+    static String getStats() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < sStats.size(); i++) {
+            builder.append(sStats.keyAt(i)).append(": ").append(sStats.valueAt(i)).append('\n');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return a key containing all parts, arrays are expanded
+     */
+    @NonNull
+    static String key(Object... parts) {
+        StringBuilder builder = new StringBuilder();
+        for (Object part : parts) {
+            if (part instanceof Object[]) {
+                builder.append(Arrays.toString((Object[]) part));
+            } else {
+                builder.append(part);
+            }
+            builder.append('\u0000');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @param key key of the complete output
+     * @return true if the widget already shows this output, the update should be skipped then
+     */
+    boolean isUnchanged(@NonNull String key) {
+        if (key.equals(this.key)) {
+            stats.skips++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * must be called after the output was pushed to the widget
+     */
+    void finish(@NonNull String key) {
+        this.key = key;
+        stats.renders++;
+        stats.nanos += SystemClock.elapsedRealtimeNanos() - start;
+    }
+
+    /**
+     * @return the static layer drawn for this key, null if it has to be drawn with {@link #newLayer(String, int, int, Bitmap.Config)}
+     */
+    @Nullable
+    Bitmap getLayer(@NonNull String key) {
+        return key.equals(layerKey) ? layer : null;
+    }
+
+    /**
+     * @return an empty bitmap to draw the static layer into, reuses the old layer if possible
+     */
+    @NonNull
+    Bitmap newLayer(@NonNull String key, int width, int height, @NonNull Bitmap.Config config) {
+        layer = obtain(layer, width, height, config, true);
+        layerKey = key;
+        outputStale = true;
+        return layer;
+    }
+
+    /**
+     * @param dirty region that will be drawn again, everything else is kept from the last output
+     * @return the output bitmap containing the static layer
+     */
+    @NonNull
+    Bitmap getOutput(@NonNull Rect dirty) {
+        Bitmap layer = this.layer;
+        if (layer == null)
+            throw new IllegalStateException("no layer");
+        Bitmap old = output;
+        output = obtain(output, layer.getWidth(), layer.getHeight(), layer.getConfig(), false);
+        Canvas canvas = new Canvas(output);
+        if (outputStale || old != output) {
+            canvas.drawBitmap(layer, 0, 0, sCopyPaint);
+            outputStale = false;
+        } else {
+            // only restore the dirty region, the rest still equals the layer
+            canvas.drawBitmap(layer, dirty, dirty, sCopyPaint);
+        }
+        return output;
+    }
+
+    /**
+     * @return an empty output bitmap for widgets without a static layer
+     */
+    @NonNull
+    Bitmap getOutput(int width, int height, @NonNull Bitmap.Config config) {
+        output = obtain(output, width, height, config, true);
+        outputStale = true;
+        return output;
+    }
+
+    @NonNull
+    private Bitmap obtain(@Nullable Bitmap bmp, int width, int height, @NonNull Bitmap.Config config, boolean erase) {
+        if (bmp != null && bmp.getWidth() == width && bmp.getHeight() == height && bmp.getConfig() == config) {
+            if (erase)
+                bmp.eraseColor(0);
+            return bmp;
+        }
+        bmp = Bitmap.createBitmap(width, height, config);
+        stats.allocatedBytes += bmp.getByteCount();
+        return bmp;
+    }
+}
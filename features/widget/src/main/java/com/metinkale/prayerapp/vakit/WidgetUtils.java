@@ -31,11 +31,18 @@ import androidx.annotation.NonNull;
 
 import com.crashlytics.android.Crashlytics;
 import com.metinkale.prayer.App;
+import com.metinkale.prayer.Preferences;
 import com.metinkale.prayer.receiver.InternalBroadcastReceiver;
+import com.metinkale.prayer.receiver.TimeTickReceiver;
 import com.metinkale.prayer.service.ForegroundService;
 import com.metinkale.prayer.times.times.Times;
+import com.metinkale.prayer.times.times.TimesSnapshot;
+import com.metinkale.prayer.times.times.Vakit;
+import com.metinkale.prayer.utils.LocaleUtils;
 import com.metinkale.prayer.widgets.R;
 
+import org.joda.time.LocalDateTime;
+
 /**
  * Created by metin on 24.03.2017.
  */
@@ -80,6 +87,47 @@ public class WidgetUtils extends InternalBroadcastReceiver implements InternalBr
         return t;
     }
     
+    /**
+     * @return names of all {@link Vakit}s
+     */
+    static String[] getNames() {
+        String[] names = new String[Vakit.LENGTH];
+        for (Vakit v : Vakit.values()) {
+            names[v.ordinal()] = v.getString();
+        }
+        return names;
+    }
+
+    /**
+     * @return formatted times of today
+     */
+    static String[] getTimes(TimesSnapshot snapshot) {
+        String[] times = new String[Vakit.LENGTH];
+        for (Vakit v : Vakit.values()) {
+            times[v.ordinal()] = LocaleUtils.formatTime(snapshot.getTime(v.ordinal()).toLocalTime());
+        }
+        return times;
+    }
+
+    /**
+     * @return key of the countdown to the next time, see {@link WidgetRenderCache#key(Object...)}
+     */
+    static String getCountdownKey(TimesSnapshot snapshot) {
+        int next = snapshot.getNextTime();
+        if (Preferences.COUNTDOWN_TYPE.get().equals(Preferences.COUNTDOWN_TYPE_SHOW_SECONDS))
+            return "chronometer " + snapshot.getTimeMillis(next);
+        return LocaleUtils.formatPeriod(LocalDateTime.now(), snapshot.getTime(next), false);
+    }
+
+    /**
+     * @return next change of the countdown for {@link TimeTickReceiver#requestTick(long)}, Long.MAX_VALUE if a chronometer counts down by itself
+     */
+    static long getCountdownChange() {
+        if (Preferences.COUNTDOWN_TYPE.get().equals(Preferences.COUNTDOWN_TYPE_SHOW_SECONDS))
+            return Long.MAX_VALUE;
+        return TimeTickReceiver.NEXT_MINUTE;
+    }
+
     static void showNoCityWidget(Context context, AppWidgetManager appWidgetManager, int widgetId) {
         
         RemoteViews remoteViews = new RemoteViews(context.getPackageName(), R.layout.widget_city_removed);
@@ -165,6 +213,7 @@ public class WidgetUtils extends InternalBroadcastReceiver implements InternalBr
             } else {
                 ForegroundService.removeNeedy(c, WIDGETS_FOREGROUND_NEEDY);
             }
+            Crashlytics.setString("widgetStats", WidgetRenderCache.getStats());
             
         } catch (Exception e) {
             Crashlytics.logException(e);
@@ -40,10 +40,12 @@ import android.util.TypedValue;
 import android.widget.RemoteViews;
 
 import com.metinkale.prayer.Preferences;
+import com.metinkale.prayer.receiver.TimeTickReceiver;
 import com.metinkale.prayer.date.HijriDate;
 import com.metinkale.prayer.times.SilenterPrompt;
 import com.metinkale.prayer.times.fragments.TimesFragment;
 import com.metinkale.prayer.times.times.Times;
+import com.metinkale.prayer.times.times.TimesSnapshot;
 import com.metinkale.prayer.times.times.Vakit;
 import com.metinkale.prayer.utils.LocaleUtils;
 import com.metinkale.prayer.utils.UUID;
@@ -66,20 +68,32 @@ class WidgetV24 {
             WidgetUtils.showNoCityWidget(context, appWidgetManager, widgetId);
             return;
         }
+        TimesSnapshot snapshot = TimesSnapshot.get(times);
 
         WidgetUtils.Size size = WidgetUtils.getSize(context, appWidgetManager, widgetId, 130f / 160f);
         int w = size.width;
         int h = size.height;
         if (w <= 0 || h <= 0)
             return;
+
+        TimeTickReceiver.requestTick(Math.min(snapshot.getNextChange(), WidgetUtils.getCountdownChange()));
+
+        int indicator = snapshot.getCurrentTime();
+        if ("next".equals(Preferences.VAKIT_INDICATOR_TYPE.get()))
+            indicator = indicator + 1;
+        WidgetRenderCache cache = WidgetRenderCache.get(widgetId, "v24_2x2");
+        String key = WidgetRenderCache.key(theme, w, h, times.getName(), Utils.isRTL(context), indicator, Preferences.CLOCK_12H.get(),
+                Preferences.SHOW_ALT_WIDGET_HIGHLIGHT.get(), WidgetUtils.getNames(), WidgetUtils.getTimes(snapshot),
+                WidgetUtils.getCountdownKey(snapshot));
+        if (cache.isUnchanged(key))
+            return;
         float scale = w / 10.5f;
 
         RemoteViews remoteViews = new RemoteViews(context.getPackageName(), R.layout.widget_2x2);
         remoteViews.setInt(R.id.widget_layout, "setBackgroundResource", theme.background);
         remoteViews.setViewPadding(R.id.padder, w / 2, h / 2, w / 2, h / 2);
-        LocalDate date = LocalDate.now();
-        LocalDateTime[] daytimes = {times.getTime(date, Vakit.FAJR.ordinal()), times.getTime(date, Vakit.SUN.ordinal()), times.getTime(date, Vakit.DHUHR.ordinal()), times.getTime(date, Vakit.ASR.ordinal()), times.getTime(date, Vakit.MAGHRIB.ordinal()),
-                times.getTime(date, Vakit.ISHAA.ordinal())};
+        LocalDateTime[] daytimes = {snapshot.getTime(Vakit.FAJR.ordinal()), snapshot.getTime(Vakit.SUN.ordinal()), snapshot.getTime(Vakit.DHUHR.ordinal()), snapshot.getTime(Vakit.ASR.ordinal()), snapshot.getTime(Vakit.MAGHRIB.ordinal()),
+                snapshot.getTime(Vakit.ISHAA.ordinal())};
 
 
         remoteViews.setOnClickPendingIntent(R.id.widget_layout, TimesFragment.getPendingIntent(times));
@@ -87,11 +101,8 @@ class WidgetV24 {
 
         remoteViews.setTextViewText(R.id.city, times.getName());
         remoteViews.setTextColor(R.id.city, theme.textcolor);
-        int current = times.getCurrentTime();
+        int current = snapshot.getCurrentTime();
         int next = current + 1;
-        int indicator = current;
-        if ("next".equals(Preferences.VAKIT_INDICATOR_TYPE.get()))
-            indicator = indicator + 1;
         int[] idsText = {R.id.fajrText, R.id.sunText, R.id.zuhrText, R.id.asrText, R.id.maghribText, R.id.ishaaText};
         int[] ids = {R.id.fajr, R.id.sun, R.id.zuhr, R.id.asr, R.id.maghrib, R.id.ishaa};
 
@@ -141,14 +152,15 @@ class WidgetV24 {
 
         if (Preferences.COUNTDOWN_TYPE.get().equals(Preferences.COUNTDOWN_TYPE_SHOW_SECONDS))
             remoteViews
-                    .setChronometer(R.id.countdown, times.getTime(LocalDate.now(), next).toDateTime().getMillis() - (System.currentTimeMillis() - SystemClock.elapsedRealtime()), null, true);
+                    .setChronometer(R.id.countdown, snapshot.getTimeMillis(next) - (System.currentTimeMillis() - SystemClock.elapsedRealtime()), null, true);
         else {
-            String txt = LocaleUtils.formatPeriod(LocalDateTime.now(), times.getTime(LocalDate.now(), next), false);
+            String txt = LocaleUtils.formatPeriod(LocalDateTime.now(), snapshot.getTime(next), false);
             remoteViews.setString(R.id.countdown, "setFormat", txt);
             remoteViews.setChronometer(R.id.countdown, 0, txt, false);
         }
         remoteViews.setTextViewTextSize(R.id.countdown, TypedValue.COMPLEX_UNIT_PX, scale * 1.3f);
         appWidgetManager.updateAppWidget(widgetId, remoteViews);
+        cache.finish(key);
     }
 
     static void update4x1(Context context, AppWidgetManager appWidgetManager, int widgetId) {
@@ -158,26 +170,38 @@ class WidgetV24 {
             WidgetUtils.showNoCityWidget(context, appWidgetManager, widgetId);
             return;
         }
+        TimesSnapshot snapshot = TimesSnapshot.get(times);
 
         WidgetUtils.Size size = WidgetUtils.getSize(context, appWidgetManager, widgetId, 300f / 60f);
         int w = size.width;
         int h = size.height;
         if (w <= 0 || h <= 0)
             return;
+
+        TimeTickReceiver.requestTick(Math.min(snapshot.getNextChange(), WidgetUtils.getCountdownChange()));
+
+        int indicator = snapshot.getCurrentTime();
+        if ("next".equals(Preferences.VAKIT_INDICATOR_TYPE.get()))
+            indicator = indicator + 1;
+        WidgetRenderCache cache = WidgetRenderCache.get(widgetId, "v24_4x1");
+        String key = WidgetRenderCache.key(theme, w, h, times.getName(), Utils.isRTL(context), indicator, Preferences.CLOCK_12H.get(),
+                Preferences.SHOW_ALT_WIDGET_HIGHLIGHT.get(), WidgetUtils.getNames(), WidgetUtils.getTimes(snapshot),
+                WidgetUtils.getCountdownKey(snapshot));
+        if (cache.isUnchanged(key))
+            return;
         float scale = w / 25f;
 
         RemoteViews remoteViews = new RemoteViews(context.getPackageName(), R.layout.widget_4x1);
         remoteViews.setInt(R.id.widget_layout, "setBackgroundResource", theme.background);
         remoteViews.setViewPadding(R.id.padder, w / 2, h / 2, w / 2, h / 2);
-        LocalDate date = LocalDate.now();
-        LocalDateTime[] daytimes = {times.getTime(date, Vakit.FAJR.ordinal()), times.getTime(date, Vakit.SUN.ordinal()), times.getTime(date, Vakit.DHUHR.ordinal()), times.getTime(date, Vakit.ASR.ordinal()), times.getTime(date, Vakit.MAGHRIB.ordinal()),
-                times.getTime(date, Vakit.ISHAA.ordinal())};
+        LocalDateTime[] daytimes = {snapshot.getTime(Vakit.FAJR.ordinal()), snapshot.getTime(Vakit.SUN.ordinal()), snapshot.getTime(Vakit.DHUHR.ordinal()), snapshot.getTime(Vakit.ASR.ordinal()), snapshot.getTime(Vakit.MAGHRIB.ordinal()),
+                snapshot.getTime(Vakit.ISHAA.ordinal())};
 
 
         remoteViews.setOnClickPendingIntent(R.id.widget_layout, TimesFragment.getPendingIntent(times));
         remoteViews.setTextViewText(R.id.city, times.getName());
         remoteViews.setTextColor(R.id.city, theme.textcolor);
-        int current = times.getCurrentTime();
+        int current = snapshot.getCurrentTime();
         int next = current + 1;
         int[] ids = {R.id.fajr, R.id.sun, R.id.zuhr, R.id.asr, R.id.maghrib, R.id.ishaa};
 
@@ -190,9 +214,6 @@ class WidgetV24 {
             }
         }
 
-        int indicator = current;
-        if ("next".equals(Preferences.VAKIT_INDICATOR_TYPE.get()))
-            indicator = indicator + 1;
         for (Vakit v : Vakit.values()) {
             int i = v.ordinal();
             remoteViews.setTextViewTextSize(ids[i], TypedValue.COMPLEX_UNIT_PX, scale * 1.25f);
@@ -231,9 +252,9 @@ class WidgetV24 {
 
         if (Preferences.COUNTDOWN_TYPE.get().equals(Preferences.COUNTDOWN_TYPE_SHOW_SECONDS))
             remoteViews
-                    .setChronometer(R.id.countdown, times.getTime(LocalDate.now(), next).toDateTime().getMillis() - (System.currentTimeMillis() - SystemClock.elapsedRealtime()), null, true);
+                    .setChronometer(R.id.countdown, snapshot.getTimeMillis(next) - (System.currentTimeMillis() - SystemClock.elapsedRealtime()), null, true);
         else {
-            String txt = LocaleUtils.formatPeriod(LocalDateTime.now(), times.getTime(LocalDate.now(), next), false);
+            String txt = LocaleUtils.formatPeriod(LocalDateTime.now(), snapshot.getTime(next), false);
             remoteViews.setString(R.id.countdown, "setFormat", txt);
             remoteViews.setChronometer(R.id.countdown, 0, txt, false);
         }
@@ -242,6 +263,7 @@ class WidgetV24 {
             remoteViews.setViewPadding(R.id.divider, (int) scale / 2, 0, (int) scale / 2, 0);
         }
         appWidgetManager.updateAppWidget(widgetId, remoteViews);
+        cache.finish(key);
 
     }
 
@@ -252,26 +274,35 @@ class WidgetV24 {
             WidgetUtils.showNoCityWidget(context, appWidgetManager, widgetId);
             return;
         }
+        TimesSnapshot snapshot = TimesSnapshot.get(times);
 
         WidgetUtils.Size size = WidgetUtils.getSize(context, appWidgetManager, widgetId, 1);
         int s = size.width;
         if (s <= 0)
             return;
 
+        TimeTickReceiver.requestTick(Math.min(snapshot.getNextChange(), WidgetUtils.getCountdownChange()));
+
+        WidgetRenderCache cache = WidgetRenderCache.get(widgetId, "v24_1x1");
+        String key = WidgetRenderCache.key(theme, s, times.getName(), Vakit.getByIndex(snapshot.getNextTime() - 1).getString(),
+                WidgetUtils.getCountdownKey(snapshot));
+        if (cache.isUnchanged(key))
+            return;
+
         RemoteViews remoteViews = new RemoteViews(context.getPackageName(), R.layout.widget_1x1);
         remoteViews.setInt(R.id.widget_layout, "setBackgroundResource", theme.background);
         remoteViews.setViewPadding(R.id.padder, s / 2, s / 2, s / 2, s / 2);
 
 
-        int next = times.getNextTime();
+        int next = snapshot.getNextTime();
 
         String name = times.getName();
         remoteViews.setOnClickPendingIntent(R.id.widget_layout, TimesFragment.getPendingIntent(times));
         if (Preferences.COUNTDOWN_TYPE.get().equals(Preferences.COUNTDOWN_TYPE_SHOW_SECONDS))
             remoteViews
-                    .setChronometer(R.id.countdown, times.getTime(LocalDate.now(), next).toDateTime().getMillis() - (System.currentTimeMillis() - SystemClock.elapsedRealtime()), null, true);
+                    .setChronometer(R.id.countdown, snapshot.getTimeMillis(next) - (System.currentTimeMillis() - SystemClock.elapsedRealtime()), null, true);
         else {
-            String txt = LocaleUtils.formatPeriod(LocalDateTime.now(), times.getTime(LocalDate.now(), next), false);
+            String txt = LocaleUtils.formatPeriod(LocalDateTime.now(), snapshot.getTime(next), false);
             remoteViews.setString(R.id.countdown, "setFormat", txt);
             remoteViews.setChronometer(R.id.countdown, 0, txt, false);
         }
@@ -289,6 +320,7 @@ class WidgetV24 {
         remoteViews.setViewPadding(R.id.countdown, 0, -s / 16, 0, -s / 16);
 
         appWidgetManager.updateAppWidget(widgetId, remoteViews);
+        cache.finish(key);
     }
 
     static void updateSilenter(Context context, AppWidgetManager appWidgetManager, int widgetId) {
@@ -298,6 +330,12 @@ class WidgetV24 {
         if (s <= 0)
             return;
 
+        String text = context.getString(R.string.silent);
+        WidgetRenderCache cache = WidgetRenderCache.get(widgetId, "v24_silenter");
+        String key = WidgetRenderCache.key(theme, s, text);
+        if (cache.isUnchanged(key))
+            return;
+
         RemoteViews remoteViews = new RemoteViews(context.getPackageName(), R.layout.widget_1x1_silenter);
         remoteViews.setInt(R.id.widget_layout, "setBackgroundResource", theme.background);
         remoteViews.setViewPadding(R.id.padder, s / 2, s / 2, s / 2, s / 2);
@@ -306,11 +344,12 @@ class WidgetV24 {
         Intent i = new Intent(context, SilenterPrompt.class);
         remoteViews.setOnClickPendingIntent(R.id.widget, PendingIntent.getActivity(context, 0, i, PendingIntent.FLAG_UPDATE_CURRENT));
 
-        remoteViews.setTextViewText(R.id.text, context.getString(R.string.silent));
+        remoteViews.setTextViewText(R.id.text, text);
         remoteViews.setTextViewTextSize(R.id.text, TypedValue.COMPLEX_UNIT_PX, s / 4f);
         remoteViews.setTextColor(R.id.text, theme.textcolor);
 
         appWidgetManager.updateAppWidget(widgetId, remoteViews);
+        cache.finish(key);
 
     }
 
@@ -320,6 +359,7 @@ class WidgetV24 {
             WidgetUtils.showNoCityWidget(context, appWidgetManager, widgetId);
             return;
         }
+        TimesSnapshot snapshot = TimesSnapshot.get(times);
 
         WidgetUtils.Size size = WidgetUtils.getSize(context, appWidgetManager, widgetId, 500f / 200f);
         int width = size.width;
@@ -327,6 +367,28 @@ class WidgetV24 {
         if (width <= 0 || height <= 0)
             return;
 
+        int next = snapshot.getNextTime();
+        boolean rtl = Utils.isRTL(context);
+        boolean kerahat = snapshot.isKerahat();
+        float passedPart = getPassedPart(snapshot);
+        if (rtl) passedPart = 1 - passedPart;
+        int w = width * 10 / 8;
+        TimeTickReceiver.requestTick(Math.min(Math.min(snapshot.getNextChange(), WidgetUtils.getCountdownChange()),
+                Math.min(getPassedPartChange(snapshot, w), Preferences.DIGITS.get().equals("normal") ? getAmPmChange() : TimeTickReceiver.NEXT_MINUTE)));
+        String greg = LocaleUtils.formatDate(LocalDate.now());
+        String hicri = LocaleUtils.formatDate(HijriDate.now());
+        boolean normalDigits = Preferences.DIGITS.get().equals("normal");
+        boolean clock12h = Preferences.CLOCK_12H.get();
+
+        WidgetRenderCache cache = WidgetRenderCache.get(widgetId, "v24_4x2Clock");
+        String key = WidgetRenderCache.key(width, height, rtl, kerahat, (int) (w * passedPart), greg, hicri, normalDigits, clock12h,
+                normalDigits ? (clock12h ? Calendar.getInstance().get(Calendar.AM_PM) : 0) : LocaleUtils.formatTimeForHTML(LocalTime.now()),
+                Vakit.getByIndex(next - 1).getString(), Vakit.getByIndex(next).getString(),
+                LocaleUtils.formatTimeForHTML(snapshot.getTime(next - 1).toLocalTime()),
+                LocaleUtils.formatTimeForHTML(snapshot.getTime(next).toLocalTime()), WidgetUtils.getCountdownKey(snapshot));
+        if (cache.isUnchanged(key))
+            return;
+
         RemoteViews remoteViews = new RemoteViews(context.getPackageName(), R.layout.widget_4x2_clock);
 
         PendingIntent pendingIntent = TimesFragment.getPendingIntent(times);
@@ -358,8 +420,8 @@ class WidgetV24 {
 
         remoteViews.setViewPadding(R.id.padder, width, height, 0, 0);
 
-        if (Preferences.DIGITS.get().equals("normal")) {
-            if (Preferences.CLOCK_12H.get()) {
+        if (normalDigits) {
+            if (clock12h) {
                 Calendar cal = Calendar.getInstance();
                 String ampm = "AM";
                 if (cal.get(Calendar.AM_PM) == Calendar.PM) {
@@ -381,17 +443,13 @@ class WidgetV24 {
             remoteViews.setCharSequence(R.id.time, "setFormat24Hour", txt);
         }
 
-        int next = times.getNextTime();
-
-        boolean rtl = Utils.isRTL(context);
-
         remoteViews.setTextViewText(!rtl ? R.id.lastText : R.id.nextText, Vakit.getByIndex(next - 1).getString());
         remoteViews.setTextViewText(!rtl ? R.id.nextText : R.id.lastText, Vakit.getByIndex(next).getString());
-        remoteViews.setTextViewText(!rtl ? R.id.lastTime : R.id.nextTime, LocaleUtils.formatTimeForHTML(times.getTime(LocalDate.now(), next - 1).toLocalTime()));
-        remoteViews.setTextViewText(!rtl ? R.id.nextTime : R.id.lastTime, LocaleUtils.formatTimeForHTML(times.getTime(LocalDate.now(), next).toLocalTime()));
+        remoteViews.setTextViewText(!rtl ? R.id.lastTime : R.id.nextTime, LocaleUtils.formatTimeForHTML(snapshot.getTime(next - 1).toLocalTime()));
+        remoteViews.setTextViewText(!rtl ? R.id.nextTime : R.id.lastTime, LocaleUtils.formatTimeForHTML(snapshot.getTime(next).toLocalTime()));
 
-        remoteViews.setTextViewText(!rtl ? R.id.greg : R.id.hicri, LocaleUtils.formatDate(LocalDate.now()));
-        remoteViews.setTextViewText(!rtl ? R.id.hicri : R.id.greg, LocaleUtils.formatDate(HijriDate.now()));
+        remoteViews.setTextViewText(!rtl ? R.id.greg : R.id.hicri, greg);
+        remoteViews.setTextViewText(!rtl ? R.id.hicri : R.id.greg, hicri);
 
 
         remoteViews.setTextViewTextSize(R.id.time, TypedValue.COMPLEX_UNIT_PX, height * 0.6f);
@@ -404,9 +462,9 @@ class WidgetV24 {
         remoteViews.setTextViewTextSize(R.id.countdown, TypedValue.COMPLEX_UNIT_PX, height / 5f);
         if (Preferences.COUNTDOWN_TYPE.get().equals(Preferences.COUNTDOWN_TYPE_SHOW_SECONDS))
             remoteViews
-                    .setChronometer(R.id.countdown, times.getTime(LocalDate.now(), next).toDateTime().getMillis() - (System.currentTimeMillis() - SystemClock.elapsedRealtime()), null, true);
+                    .setChronometer(R.id.countdown, snapshot.getTimeMillis(next) - (System.currentTimeMillis() - SystemClock.elapsedRealtime()), null, true);
         else {
-            String txt = LocaleUtils.formatPeriod(LocalDateTime.now(), times.getTime(LocalDate.now(), next), false);
+            String txt = LocaleUtils.formatPeriod(LocalDateTime.now(), snapshot.getTime(next), false);
             remoteViews.setString(R.id.countdown, "setFormat", txt);
             remoteViews.setChronometer(R.id.countdown, 0, txt, false);
         }
@@ -419,35 +477,58 @@ class WidgetV24 {
         remoteViews.setViewPadding(R.id.lastText, width / 10, 0, width / 10, 0);
         remoteViews.setViewPadding(R.id.nextTime, width / 10, 0, width / 10, -width / 60);
         remoteViews.setViewPadding(R.id.nextText, width / 10, 0, width / 10, 0);
-        int w = width * 10 / 8;
-
 
         remoteViews.setInt(!rtl ? R.id.progressBg : R.id.progress, "setBackgroundColor", 0xFFFFFFFF);
-        remoteViews.setInt(!rtl ? R.id.progress : R.id.progressBg, "setBackgroundColor", times.isKerahat() ? 0xffbf3f5b : Theme.Light.strokecolor);
-
-        float passedPart = getPassedPart(times);
-        if (rtl) passedPart = 1 - passedPart;
+        remoteViews.setInt(!rtl ? R.id.progress : R.id.progressBg, "setBackgroundColor", kerahat ? 0xffbf3f5b : Theme.Light.strokecolor);
 
         remoteViews.setViewPadding(R.id.progress, (int) (w * passedPart), width / 75, 0, 0);
         remoteViews.setViewPadding(R.id.progressBg, (int) (w * (1 - passedPart)), width / 75, 0, 0);
 
         appWidgetManager.updateAppWidget(widgetId, remoteViews);
+        cache.finish(key);
     }
 
-    static float getPassedPart(Times times) {
-        int current = times.getCurrentTime();
+    static float getPassedPart(TimesSnapshot snapshot) {
+        int current = snapshot.getCurrentTime();
         long now = LocalDateTime.now().toDateTime().getMillis();
-        long prev = times.getTime(LocalDate.now(), current).toDateTime().getMillis();
-        long next = times.getTime(LocalDate.now(), current + 1).toDateTime().getMillis();
+        long prev = snapshot.getTimeMillis(current);
+        long next = snapshot.getTimeMillis(current + 1);
         return (now - prev) / (float) (next - prev);
     }
 
+    /**
+     * @param steps number of steps of the progress
+     * @return millis at which (int) (getPassedPart(snapshot) * steps) changes
+     */
+    static long getPassedPartChange(TimesSnapshot snapshot, int steps) {
+        int current = snapshot.getCurrentTime();
+        long now = System.currentTimeMillis();
+        long prev = snapshot.getTimeMillis(current);
+        long next = snapshot.getTimeMillis(current + 1);
+        if (steps <= 0 || next <= prev)
+            return TimeTickReceiver.NEXT_MINUTE;
+        long step = (now - prev) * steps / (next - prev) + 1;
+        return prev + (step * (next - prev) + steps - 1) / steps;
+    }
+
+    /**
+     * @return noon if the 12h clock is used and it is not yet noon, Long.MAX_VALUE otherwise (midnight is covered by
+     * {@link TimesSnapshot#getNextChange()})
+     */
+    private static long getAmPmChange() {
+        if (!Preferences.CLOCK_12H.get())
+            return Long.MAX_VALUE;
+        long noon = LocalDate.now().toLocalDateTime(new LocalTime(12, 0)).toDate().getTime();
+        return noon > System.currentTimeMillis() ? noon : Long.MAX_VALUE;
+    }
+
     static void update2x2Clock(Context context, AppWidgetManager appWidgetManager, int widgetId) {
         Times times = WidgetUtils.getTimes(widgetId);
         if (times == null) {
             WidgetUtils.showNoCityWidget(context, appWidgetManager, widgetId);
             return;
         }
+        TimesSnapshot snapshot = TimesSnapshot.get(times);
 
         WidgetUtils.Size size = WidgetUtils.getSize(context, appWidgetManager, widgetId, 1f);
         int width = size.width;
@@ -455,6 +536,23 @@ class WidgetV24 {
         if (width <= 0 || height <= 0)
             return;
 
+        int next = snapshot.getNextTime();
+        boolean kerahat = snapshot.isKerahat();
+        float passed = getPassedPart(snapshot);
+        TimeTickReceiver.requestTick(Math.min(Math.min(snapshot.getNextChange(), WidgetUtils.getCountdownChange()),
+                Math.min(getPassedPartChange(snapshot, 360), getAmPmChange())));
+        LocalDate date = LocalDate.now();
+        String day = LocaleUtils.formatNumber(date.toString("d.MMM"));
+        String wd = date.toString("EEEE");
+        boolean clock12h = Preferences.CLOCK_12H.get();
+
+        WidgetRenderCache cache = WidgetRenderCache.get(widgetId, "v24_2x2Clock");
+        String key = WidgetRenderCache.key(width, height, kerahat, (int) (passed * 360), clock12h,
+                clock12h ? Calendar.getInstance().get(Calendar.AM_PM) : 0, Vakit.getByIndex(next - 1).getString(), day, wd,
+                WidgetUtils.getCountdownKey(snapshot));
+        if (cache.isUnchanged(key))
+            return;
+
         RemoteViews remoteViews = new RemoteViews(context.getPackageName(), R.layout.widget_2x2_clock);
         remoteViews.setOnClickPendingIntent(R.id.widget_layout, TimesFragment.getPendingIntent(times));
 
@@ -465,13 +563,19 @@ class WidgetV24 {
         paint.setFilterBitmap(true);
         paint.setStyle(Paint.Style.STROKE);
 
-        Bitmap bmp1 = Bitmap.createBitmap(width, height, Bitmap.Config.ALPHA_8);
-        Canvas canvas1 = new Canvas(bmp1);
         paint.setColor(0xFFFFFFFF);
         paint.setStrokeWidth(width / 100f);
-        canvas1.drawArc(new RectF(width / 100f, width / 100f, width - width / 100f, height - width / 100f), 0, 360, false, paint);
 
-        if (times.isKerahat()) {
+        // the ring does only change with the size
+        String layerKey = WidgetRenderCache.key(width, height);
+        Bitmap bmp1 = cache.getLayer(layerKey);
+        if (bmp1 == null) {
+            bmp1 = cache.newLayer(layerKey, width, height, Bitmap.Config.ALPHA_8);
+            Canvas canvas1 = new Canvas(bmp1);
+            canvas1.drawArc(new RectF(width / 100f, width / 100f, width - width / 100f, height - width / 100f), 0, 360, false, paint);
+        }
+
+        if (kerahat) {
             remoteViews.setInt(R.id.progress, "setColorFilter", 0xffbf3f5b);
             remoteViews.setInt(R.id.minute, "setTextColor", 0xffbf3f5b);
         } else {
@@ -480,10 +584,9 @@ class WidgetV24 {
         }
 
 
-        Bitmap bmp2 = Bitmap.createBitmap(width, height, Bitmap.Config.ALPHA_8);
+        Bitmap bmp2 = cache.getOutput(width, height, Bitmap.Config.ALPHA_8);
         Canvas canvas2 = new Canvas(bmp2);
-        canvas2.drawArc(new RectF(width / 100f, width / 100f, width - width / 100f, height - width / 100f), -90, getPassedPart(times) * 360, false,
-                paint);
+        canvas2.drawArc(new RectF(width / 100f, width / 100f, width - width / 100f, height - width / 100f), -90, passed * 360, false, paint);
 
 
         remoteViews.setImageViewBitmap(R.id.progressBg, bmp1);
@@ -492,7 +595,7 @@ class WidgetV24 {
 
         remoteViews.setViewPadding(R.id.padder, width, height, 0, 0);
 
-        if (Preferences.CLOCK_12H.get()) {
+        if (clock12h) {
             Calendar cal = Calendar.getInstance();
             String ampm = "AM";
             if (cal.get(Calendar.AM_PM) == Calendar.PM) {
@@ -512,22 +615,17 @@ class WidgetV24 {
             remoteViews.setCharSequence(R.id.minute, "setFormat12Hour", "mm");
             remoteViews.setCharSequence(R.id.minute, "setFormat24Hour", "mm");
         }
-        int next = times.getNextTime();
-
         remoteViews.setTextViewText(R.id.time, Vakit.getByIndex(next - 1).getString());
 
-        LocalDate date = LocalDate.now();
-        remoteViews.setTextViewText(R.id.date, LocaleUtils.formatNumber(date.toString("d.MMM")));
-
+        remoteViews.setTextViewText(R.id.date, day);
 
-        String wd = date.toString("EEEE");
         remoteViews.setTextViewText(R.id.weekDay, wd);
 
         if (Preferences.COUNTDOWN_TYPE.get().equals(Preferences.COUNTDOWN_TYPE_SHOW_SECONDS))
             remoteViews
-                    .setChronometer(R.id.countdown, times.getTime(LocalDate.now(), next).toDateTime().getMillis() - (System.currentTimeMillis() - SystemClock.elapsedRealtime()), null, true);
+                    .setChronometer(R.id.countdown, snapshot.getTimeMillis(next) - (System.currentTimeMillis() - SystemClock.elapsedRealtime()), null, true);
         else {
-            String txt = LocaleUtils.formatPeriod(LocalDateTime.now(), times.getTime(LocalDate.now(), next), false);
+            String txt = LocaleUtils.formatPeriod(LocalDateTime.now(), snapshot.getTime(next), false);
             remoteViews.setString(R.id.countdown, "setFormat", txt);
             remoteViews.setChronometer(R.id.countdown, 0, txt, false);
         }
@@ -543,5 +641,6 @@ class WidgetV24 {
         remoteViews.setViewPadding(R.id.minute, 0, (int) (-height * 0.05), 0, (int) (-height * 0.03));
         remoteViews.setViewPadding(R.id.hour, 0, (int) (-height * 0.13), 0, (int) (-height * 0.10));
         appWidgetManager.updateAppWidget(widgetId, remoteViews);
+        cache.finish(key);
     }
 }
@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Builds the binary index for the cities files (features/times/src/main/cities/*.tsv), which is read by the app instead of scanning the tsv files.
+ * <p>
+ * usage: CitiesIndexer [tsv directory] [output directory]
+ * <p>
+ * &lt;name&gt;.idx (big endian, strings are offsets into the pool, -1 if null):
+ * <pre>
+ * int       magic "CIX1"
+ * int       rows
+ * int[]     id, parent
+ * float[]   lat, lng
+ * int[]     key, name, country, normalized name (only for rows with a key)
+ *
+ * int       geo count
+ * float[]   x, y, z
+ * int[]     row
+ *
+ * int       trigram count
+ * long[]    trigram (3 chars of the normalized name, 16 bit each), sorted
+ * int[]     posting start (trigram count + 1)
+ * int[]     postings (rows, sorted)
+ *
+ * int       parent count
+ * int[]     parent ids, sorted
+ * int[]     children start (parent count + 1)
+ * int[]     children (rows, grouped by parent)
+ *
+ * int       pool size
+ * byte[]    pool (strings as unsigned short length + utf-8 bytes)
+ * </pre>
+ * The geo section is a static k-d tree over all cities with a key and coordinates.
+ * The points are stored as unit vectors, so the euclidean (chord) distance is monotonic to the great-circle distance.
+ * The tree is implicit: the root of a range [lo, hi) is at (lo + hi) / 2, split axis is depth % 3
+ * <p>
+ * The children section is an adjacency table, the children of the n-th parent id are children[start[n], start[n+1])
+ */
+public class CitiesIndexer {
+    static final int MAGIC = 0x43495831;
+
+    static class Row {
+        int index;
+        int id;
+        int parent;
+        float lat;
+        float lng;
+        String key;
+        String name;
+        String country;
+        String normalized;
+        final double[] xyz = new double[3];
+    }
+
+    public static void main(String[] args) throws IOException {
+        File in = new File(args.length > 0 ? args[0] : ".");
+        File out = new File(args.length > 1 ? args[1] : ".");
+        //noinspection ResultOfMethodCallIgnored
+        out.mkdirs();
+
+        File[] files = in.listFiles((dir, name) -> name.endsWith(".tsv"));
+        if (files == null) throw new IOException(in + " is not a directory");
+        for (File file : files) {
+            String name = file.getName().substring(0, file.getName().length() - 4);
+            long time = System.currentTimeMillis();
+            List<Row> rows = read(file);
+            write(rows, new File(out, name + ".idx"));
+            System.out.println("indexed " + name + " (" + rows.size() + " rows) in " + (System.currentTimeMillis() - time) + " ms");
+        }
+    }
+
+    static List<Row> read(File file) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String country = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                String[] cols = line.split("\t", -1);
+                Row row = new Row();
+                row.index = rows.size();
+                row.id = Integer.parseInt(cols[0]);
+                row.parent = Integer.parseInt(cols[1]);
+                row.lat = cols[2].isEmpty() ? 0 : Float.parseFloat(cols[2]);
+                row.lng = cols[3].isEmpty() ? 0 : Float.parseFloat(cols[3]);
+                row.key = cols[4].isEmpty() ? null : cols[4];
+                row.name = cols[5];
+                if (row.parent == 0) {
+                    country = row.name;
+                } else {
+                    row.country = country;
+                }
+                if (row.key != null) {
+                    row.normalized = normalize(row.name);
+                }
+
+                double lat = Math.toRadians(row.lat);
+                double lng = Math.toRadians(row.lng);
+                row.xyz[0] = Math.cos(lat) * Math.cos(lng);
+                row.xyz[1] = Math.cos(lat) * Math.sin(lng);
+                row.xyz[2] = Math.sin(lat);
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static void write(List<Row> rows, File file) throws IOException {
+        Pool pool = new Pool();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(rows.size());
+            for (Row row : rows) out.writeInt(row.id);
+            for (Row row : rows) out.writeInt(row.parent);
+            for (Row row : rows) out.writeFloat(row.lat);
+            for (Row row : rows) out.writeFloat(row.lng);
+            for (Row row : rows) out.writeInt(pool.add(row.key));
+            for (Row row : rows) out.writeInt(pool.add(row.name));
+            for (Row row : rows) out.writeInt(pool.add(row.country));
+            for (Row row : rows) out.writeInt(pool.add(row.normalized));
+
+            writeGeo(out, rows);
+            writeTrigrams(out, rows);
+            writeChildren(out, rows);
+
+            out.writeInt(pool.bytes.size());
+            pool.bytes.writeTo(out);
+        }
+    }
+
+    private static void writeGeo(DataOutputStream out, List<Row> all) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        for (Row row : all) {
+            if (row.key != null && (row.lat != 0 || row.lng != 0))
+                rows.add(row);
+        }
+        buildKdTree(rows, 0, rows.size(), 0);
+
+        out.writeInt(rows.size());
+        for (int axis = 0; axis < 3; axis++) {
+            for (Row row : rows) {
+                out.writeFloat((float) row.xyz[axis]);
+            }
+        }
+        for (Row row : rows) {
+            out.writeInt(row.index);
+        }
+    }
+
+    /**
+     * orders rows[lo, hi) so the median on the split axis is in the middle, smaller values left and bigger values right of it
+     */
+    private static void buildKdTree(List<Row> rows, int lo, int hi, int depth) {
+        if (hi - lo <= 1) return;
+        int axis = depth % 3;
+        rows.subList(lo, hi).sort(Comparator.comparingDouble(row -> row.xyz[axis]));
+        int mid = (lo + hi) >>> 1;
+        buildKdTree(rows, lo, mid, depth + 1);
+        buildKdTree(rows, mid + 1, hi, depth + 1);
+    }
+
+    private static void writeTrigrams(DataOutputStream out, List<Row> rows) throws IOException {
+        TreeMap<Long, List<Integer>> postings = new TreeMap<>();
+        for (Row row : rows) {
+            if (row.normalized == null) continue;
+            Set<Long> grams = new TreeSet<>();
+            String str = row.normalized;
+            for (int i = 0; i + 3 <= str.length(); i++) {
+                grams.add(trigram(str.charAt(i), str.charAt(i + 1), str.charAt(i + 2)));
+            }
+            for (Long gram : grams) {
+                postings.computeIfAbsent(gram, k -> new ArrayList<>()).add(row.index);
+            }
+        }
+
+        out.writeInt(postings.size());
+        for (Long gram : postings.keySet()) {
+            out.writeLong(gram);
+        }
+        int start = 0;
+        for (List<Integer> list : postings.values()) {
+            out.writeInt(start);
+            start += list.size();
+        }
+        out.writeInt(start);
+        for (List<Integer> list : postings.values()) {
+            for (int row : list) {
+                out.writeInt(row);
+            }
+        }
+    }
+
+    private static void writeChildren(DataOutputStream out, List<Row> rows) throws IOException {
+        TreeMap<Integer, List<Integer>> children = new TreeMap<>();
+        for (Row row : rows) {
+            children.computeIfAbsent(row.parent, k -> new ArrayList<>()).add(row.index);
+        }
+
+        out.writeInt(children.size());
+        for (int parent : children.keySet()) {
+            out.writeInt(parent);
+        }
+        int start = 0;
+        for (List<Integer> list : children.values()) {
+            out.writeInt(start);
+            start += list.size();
+        }
+        out.writeInt(start);
+        for (List<Integer> list : children.values()) {
+            for (int row : list) {
+                out.writeInt(row);
+            }
+        }
+    }
+
+    static long trigram(char c1, char c2, char c3) {
+        return (long) c1 << 32 | (long) c2 << 16 | c3;
+    }
+
+    /**
+     * must produce the same result as Entry.normalize(String) in the app
+     */
+    static String normalize(String s) {
+        StringBuilder builder = new StringBuilder();
+        for (char c : s.toCharArray()) {
+            if (c >= 0x41 && c <= 0x5A) {//A-Z
+                builder.append((char) (c + 0x20));
+            } else if (c >= 0x61 && c <= 0x7A) {//a-z
+                builder.append(c);
+            } else {
+                switch (c) {
+                    case 'é':
+                    case 'è':
+                    case 'ê':
+                    case 'ë':
+                    case 'È':
+                    case 'É':
+                    case 'Ë':
+                    case 'Ê':
+                        builder.append("e");
+                        break;
+                    case 'Ç':
+                    case 'ç':
+                        builder.append("c");
+                        break;
+                    case 'Ğ':
+                    case 'ğ':
+                        builder.append("g");
+                        break;
+                    case 'ı':
+                    case 'İ':
+                    case 'ï':
+                    case 'î':
+                    case 'Ï':
+                    case 'Î':
+                        builder.append("i");
+                        break;
+                    case 'Ö':
+                    case 'ö':
+                    case 'Ô':
+                        builder.append("o");
+                        break;
+                    case 'Ş':
+                    case 'ş':
+                        builder.append("s");
+                        break;
+                    case 'Ä':
+                    case 'ä':
+                    case 'à':
+                    case 'â':
+                    case 'À':
+                    case 'Â':
+                        builder.append("a");
+                        break;
+                    case 'ü':
+                    case 'Ü':
+                    case 'û':
+                    case 'ù':
+                    case 'Û':
+                    case 'Ù':
+                        builder.append("u");
+                        break;
+                    default:
+                        builder.append(c);
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * deduplicated string pool
+     */
+    static class Pool {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final Map<String, Integer> offsets = new HashMap<>();
+
+        int add(String str) throws IOException {
+            if (str == null) return -1;
+            Integer offset = offsets.get(str);
+            if (offset == null) {
+                offset = bytes.size();
+                byte[] data = str.getBytes(StandardCharsets.UTF_8);
+                bytes.write(data.length >> 8);
+                bytes.write(data.length);
+                bytes.write(data);
+                offsets.put(str, offset);
+            }
+            return offset;
+        }
+    }
+}
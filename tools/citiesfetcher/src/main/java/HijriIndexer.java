@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2013-2019 Metin Kale
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the binary table for the hijri month starts (features/base/src/main/hijri/hijri.tsv, see {@link HijriGetter}), which is read by
+ * HijriDate instead of parsing the tsv file.
+ * <p>
+ * usage: HijriIndexer [tsv file] [output directory]
+ * <p>
+ * hijri.bin (big endian):
+ * <pre>
+ * int       magic "HIJ1"
+ * int       first month (hijri year * 12 + month - 1)
+ * int       count
+ * int[]     epoch day of the start of each month, starting with the first month
+ * </pre>
+ * The months have to be contiguous.
+ */
+public class HijriIndexer {
+    static final int MAGIC = 0x48494A31;
+
+    public static void main(String[] args) throws IOException {
+        File in = new File(args.length > 0 ? args[0] : "hijri.tsv");
+        File out = new File(args.length > 1 ? args[1] : ".");
+        //noinspection ResultOfMethodCallIgnored
+        out.mkdirs();
+
+        int first = -1;
+        List<Integer> starts = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(in), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.contains("HD")) continue;
+                String[] cols = line.trim().split("\\s+");
+                if (!cols[0].equals("1")) throw new IOException("not a month start: " + line);
+                int month = Integer.parseInt(cols[2]) * 12 + Integer.parseInt(cols[1]) - 1;
+                if (first == -1) first = month;
+                else if (month != first + starts.size()) throw new IOException("months are not contiguous: " + line);
+                LocalDate greg = LocalDate.of(Integer.parseInt(cols[5]), Integer.parseInt(cols[4]), Integer.parseInt(cols[3]));
+                starts.add((int) greg.toEpochDay());
+            }
+        }
+
+        try (DataOutputStream data = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(new File(out, "hijri.bin"))))) {
+            data.writeInt(MAGIC);
+            data.writeInt(first);
+            data.writeInt(starts.size());
+            for (int start : starts) {
+                data.writeInt(start);
+            }
+        }
+        System.out.println("indexed " + starts.size() + " hijri months");
+    }
+}